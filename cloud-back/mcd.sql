@@ -265,7 +265,7 @@ CREATE TABLE sync_queue (
                             action VARCHAR(20) NOT NULL CHECK (action IN ('CREATE', 'UPDATE', 'DELETE')),
     direction VARCHAR(20) NOT NULL CHECK (direction IN ('TO_FIREBASE', 'FROM_FIREBASE')),
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING'
-        CHECK (status IN ('PENDING', 'PROCESSING', 'SUCCESS', 'FAILED')),
+        CHECK (status IN ('PENDING', 'PROCESSING', 'SUCCESS', 'FAILED', 'CANCELLED', 'CONFLICT', 'DEAD_LETTER')),
     error_message TEXT,
     retry_count INT DEFAULT 0,
     max_retries INT DEFAULT 3,
@@ -295,7 +295,7 @@ CREATE TABLE sync_history (
                               entity_id BIGINT NOT NULL,
                               action VARCHAR(20) NOT NULL,
                               direction VARCHAR(20) NOT NULL,
-                              status VARCHAR(20) NOT NULL CHECK (status IN ('SUCCESS', 'FAILED')),
+                              status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'PROCESSING', 'SUCCESS', 'FAILED', 'CANCELLED', 'CONFLICT', 'DEAD_LETTER')),
                               error_message TEXT,
                               firebase_response JSONB,
                               duration_ms INT,
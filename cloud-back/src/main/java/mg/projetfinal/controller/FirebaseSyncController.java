@@ -5,13 +5,24 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.config.FirebaseConfig;
+import mg.projetfinal.entity.SyncQueue;
+import mg.projetfinal.enums.EntityType;
 import mg.projetfinal.service.FirebaseSyncService;
+import mg.projetfinal.service.SyncConnectivity;
+import mg.projetfinal.service.SyncDeadLetterService;
+import mg.projetfinal.service.SyncJobService;
+import mg.projetfinal.service.SyncLeadership;
+import mg.projetfinal.service.SyncMetrics;
+import mg.projetfinal.service.SyncQueueService;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,7 +32,12 @@ import java.util.Map;
 @Tag(name = "Synchronisation Firebase", description = "Endpoints pour la synchronisation bidirectionnelle PostgreSQL ↔ Firebase")
 public class FirebaseSyncController {
 
-    private final FirebaseSyncService firebaseSyncService;
+    private final SyncQueueService syncQueueService;
+    private final SyncJobService syncJobService;
+    private final SyncMetrics syncMetrics;
+    private final SyncDeadLetterService syncDeadLetterService;
+    private final SyncLeadership syncLeadership;
+    private final SyncConnectivity syncConnectivity;
 
     // ==================== SYNCHRONISATION COMPLÈTE ====================
 
@@ -29,43 +45,14 @@ public class FirebaseSyncController {
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Synchronisation bidirectionnelle complète",
-            description = "Synchronise toutes les données entre PostgreSQL et Firebase dans les deux sens"
+            description = "Démarre en arrière-plan la synchronisation de toutes les données entre PostgreSQL et Firebase " +
+                    "dans les deux sens ; la progression se consulte via /api/sync/jobs/{jobId}"
     )
-    public ResponseEntity<Map<String, Object>> syncAll() {
+    public ResponseEntity<Map<String, Object>> syncAll(
+            @Parameter(description = "true pour ignorer le watermark et relire toute la collection")
+            @RequestParam(defaultValue = "false") boolean full) {
         log.info("=== Démarrage synchronisation bidirectionnelle complète ===");
-
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncAll();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", result.isSuccess() ?
-                    "Synchronisation complète réussie" :
-                    "Synchronisation complète avec erreurs");
-            response.put("totalSuccess", result.getTotalSuccess());
-            response.put("totalErrors", result.getTotalErrors());
-            response.put("details", Map.of(
-                    "successCounts", result.getSuccessCounts(),
-                    "errorCounts", result.getErrorCounts()
-            ));
-
-            if (!result.isSuccess()) {
-                response.put("errorMessage", result.getErrorMessage());
-            }
-
-            log.info("Synchronisation terminée - Succès: {} | Erreurs: {}",
-                    result.getTotalSuccess(), result.getTotalErrors());
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur lors de la synchronisation complète", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "success", false,
-                            "message", "Erreur lors de la synchronisation",
-                            "error", e.getMessage()
-                    ));
-        }
+        return startJob(SyncJobService.JobType.ALL, full);
     }
 
     // ==================== POSTGRES → FIREBASE ====================
@@ -74,36 +61,11 @@ public class FirebaseSyncController {
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Synchronisation PostgreSQL → Firebase",
-            description = "Envoie toutes les modifications locales (PostgreSQL) vers Firebase"
+            description = "Démarre en arrière-plan l'envoi de toutes les modifications locales (PostgreSQL) vers Firebase"
     )
     public ResponseEntity<Map<String, Object>> syncPostgresToFirebase() {
         log.info("Démarrage synchronisation PostgreSQL → Firebase");
-
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncPostgresToFirebase();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Synchronisation PostgreSQL → Firebase terminée");
-            response.put("totalSuccess", result.getTotalSuccess());
-            response.put("totalErrors", result.getTotalErrors());
-            response.put("successCounts", result.getSuccessCounts());
-            response.put("errorCounts", result.getErrorCounts());
-
-            if (!result.isSuccess()) {
-                response.put("errorMessage", result.getErrorMessage());
-            }
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur synchronisation PostgreSQL → Firebase", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "success", false,
-                            "message", "Erreur lors de la synchronisation",
-                            "error", e.getMessage()
-                    ));
-        }
+        return startJob(SyncJobService.JobType.PUSH, false);
     }
 
     // ==================== FIREBASE → POSTGRES ====================
@@ -112,29 +74,87 @@ public class FirebaseSyncController {
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Synchronisation Firebase → PostgreSQL",
-            description = "Récupère toutes les modifications distantes (Firebase) vers PostgreSQL"
+            description = "Démarre en arrière-plan la récupération des modifications distantes (Firebase) vers PostgreSQL " +
+                    "depuis le dernier watermark, ou de toute la collection avec full=true"
     )
-    public ResponseEntity<Map<String, Object>> syncFirebaseToPostgres() {
+    public ResponseEntity<Map<String, Object>> syncFirebaseToPostgres(
+            @Parameter(description = "true pour ignorer le watermark et relire toute la collection")
+            @RequestParam(defaultValue = "false") boolean full) {
         log.info("Démarrage synchronisation Firebase → PostgreSQL");
+        return startJob(SyncJobService.JobType.PULL, full);
+    }
 
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncFirebaseToPostgres();
+    // ==================== JOBS DE SYNCHRONISATION ====================
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Synchronisation Firebase → PostgreSQL terminée");
-            response.put("totalSuccess", result.getTotalSuccess());
-            response.put("totalErrors", result.getTotalErrors());
-            response.put("successCounts", result.getSuccessCounts());
-            response.put("errorCounts", result.getErrorCounts());
+    @GetMapping("/jobs")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    @Operation(
+            summary = "Jobs de synchronisation",
+            description = "Liste le job en cours et les derniers jobs terminés"
+    )
+    public ResponseEntity<List<Map<String, Object>>> getJobs() {
+        return ResponseEntity.ok(syncJobService.getJobs().stream()
+                .map(this::toJobResponse)
+                .toList());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    @Operation(
+            summary = "Progression d'un job de synchronisation",
+            description = "Entités traitées et en échec par collection, débit et temps restant estimé"
+    )
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        return syncJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(toJobResponse(job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of(
+                                "success", false,
+                                "message", "Job de synchronisation introuvable: " + jobId
+                        )));
+    }
 
-            if (!result.isSuccess()) {
-                response.put("errorMessage", result.getErrorMessage());
-            }
+    @PostMapping("/jobs/{jobId}/cancel")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    @Operation(
+            summary = "Annulation d'un job de synchronisation",
+            description = "Arrête le job après les lots en cours"
+    )
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String jobId) {
+        if (!syncJobService.cancelJob(jobId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of(
+                            "success", false,
+                            "message", "Aucun job en cours avec l'identifiant " + jobId
+                    ));
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Annulation demandée",
+                "jobId", jobId
+        ));
+    }
 
-            return ResponseEntity.ok(response);
+    private ResponseEntity<Map<String, Object>> startJob(SyncJobService.JobType type, boolean full) {
+        return startJob(type, null, full);
+    }
+
+    private ResponseEntity<Map<String, Object>> startJob(SyncJobService.JobType type, String collection, boolean full) {
+        try {
+            SyncJobService.SyncJob job = syncJobService.startJob(type, collection, full);
+
+            Map<String, Object> response = toJobResponse(job);
+            response.put("success", true);
+            response.put("message", "Synchronisation démarrée");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            syncJobService.getRunningJob().ifPresent(job -> response.put("jobId", job.getId()));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (Exception e) {
-            log.error("Erreur synchronisation Firebase → PostgreSQL", e);
+            log.error("Erreur lors du démarrage de la synchronisation", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of(
                             "success", false,
@@ -144,96 +164,70 @@ public class FirebaseSyncController {
         }
     }
 
+    private Map<String, Object> toJobResponse(SyncJobService.SyncJob job) {
+        FirebaseSyncService.SyncResult result = job.getResult();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("type", job.getType());
+        response.put("collection", job.getCollection());
+        response.put("full", job.isFullPull());
+        response.put("state", job.getState());
+        response.put("startedAt", job.getStartedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        response.put("elapsedMs", job.getElapsedMs());
+        response.put("processed", job.getProcessed());
+        response.put("expected", result.getTotalExpected());
+        response.put("throughputPerSecond", job.getThroughput());
+        response.put("etaMs", job.getEtaMs());
+        response.put("collections", job.getCollections());
+        response.put("totalSuccess", result.getTotalSuccess());
+        response.put("totalErrors", result.getTotalErrors());
+        response.put("details", Map.of(
+                "successCounts", result.getSuccessCounts(),
+                "errorCounts", result.getErrorCounts(),
+                "skippedCounts", result.getSkippedCounts()
+        ));
+        response.put("failures", result.getFailures());
+        if (job.getErrorMessage() != null) {
+            response.put("errorMessage", job.getErrorMessage());
+        }
+        return response;
+    }
+
     // ==================== SYNCHRONISATION PAR ENTITÉ ====================
 
     @PostMapping("/users")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Synchronisation utilisateurs (PostgreSQL → Firebase)",
-            description = "Synchronise uniquement les utilisateurs non synchronisés vers Firebase Authentication et Firestore"
+            description = "Démarre en arrière-plan l'envoi des utilisateurs non synchronisés vers Firebase Authentication et Firestore"
     )
     public ResponseEntity<Map<String, Object>> syncUsers() {
         log.info("Synchronisation des utilisateurs vers Firebase");
-
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncPostgresToFirebase();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Synchronisation des utilisateurs terminée");
-            response.put("usersSuccess", result.getSuccessCounts().getOrDefault("users", 0));
-            response.put("usersErrors", result.getErrorCounts().getOrDefault("users", 0));
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur synchronisation utilisateurs", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "success", false,
-                            "message", "Erreur lors de la synchronisation des utilisateurs",
-                            "error", e.getMessage()
-                    ));
-        }
+        return startJob(SyncJobService.JobType.PUSH, FirebaseSyncService.COLLECTION_USERS, false);
     }
 
     @PostMapping("/signalements")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Synchronisation signalements (PostgreSQL → Firebase)",
-            description = "Synchronise uniquement les signalements non synchronisés vers Firestore"
+            description = "Démarre en arrière-plan l'envoi des signalements non synchronisés vers Firestore"
     )
     public ResponseEntity<Map<String, Object>> syncSignalements() {
         log.info("Synchronisation des signalements vers Firebase");
-
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncPostgresToFirebase();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Synchronisation des signalements terminée");
-            response.put("signalementsSuccess", result.getSuccessCounts().getOrDefault("signalements", 0));
-            response.put("signalementsErrors", result.getErrorCounts().getOrDefault("signalements", 0));
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur synchronisation signalements", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "success", false,
-                            "message", "Erreur lors de la synchronisation des signalements",
-                            "error", e.getMessage()
-                    ));
-        }
+        return startJob(SyncJobService.JobType.PUSH, FirebaseSyncService.COLLECTION_SIGNALEMENTS, false);
     }
 
     @PostMapping("/entreprises")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Synchronisation entreprises (PostgreSQL → Firebase)",
-            description = "Synchronise toutes les entreprises vers Firestore"
+            description = "Démarre en arrière-plan l'envoi des entreprises modifiées vers Firestore"
     )
     public ResponseEntity<Map<String, Object>> syncEntreprises() {
         log.info("Synchronisation des entreprises vers Firebase");
-
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncPostgresToFirebase();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Synchronisation des entreprises terminée");
-            response.put("entreprisesSuccess", result.getSuccessCounts().getOrDefault("entreprises", 0));
-            response.put("entreprisesErrors", result.getErrorCounts().getOrDefault("entreprises", 0));
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur synchronisation entreprises", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "success", false,
-                            "message", "Erreur lors de la synchronisation des entreprises",
-                            "error", e.getMessage()
-                    ));
-        }
+        return startJob(SyncJobService.JobType.PUSH, FirebaseSyncService.COLLECTION_ENTREPRISES, false);
     }
 
     // ==================== SYNCHRONISATION INVERSE (FIREBASE → POSTGRES) ====================
@@ -242,110 +236,150 @@ public class FirebaseSyncController {
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Récupération utilisateurs (Firebase → PostgreSQL)",
-            description = "Met à jour les utilisateurs PostgreSQL avec les données de Firebase"
+            description = "Démarre en arrière-plan la mise à jour des utilisateurs PostgreSQL avec les données de Firebase"
     )
-    public ResponseEntity<Map<String, Object>> pullUsers() {
+    public ResponseEntity<Map<String, Object>> pullUsers(
+            @Parameter(description = "true pour ignorer le watermark et relire toute la collection")
+            @RequestParam(defaultValue = "false") boolean full) {
         log.info("Récupération des utilisateurs depuis Firebase");
-
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncUsersFromFirebase();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Récupération des utilisateurs terminée");
-            response.put("usersUpdated", result.getSuccessCounts().getOrDefault("users_updated", 0));
-            response.put("usersNotFound", result.getErrorCounts().getOrDefault("users_not_found", 0));
-            response.put("usersErrors", result.getErrorCounts().getOrDefault("users", 0));
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur récupération utilisateurs", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of(
-                            "success", false,
-                            "message", "Erreur lors de la récupération des utilisateurs",
-                            "error", e.getMessage()
-                    ));
-        }
+        return startJob(SyncJobService.JobType.PULL, FirebaseSyncService.COLLECTION_USERS, full);
     }
 
     @PostMapping("/pull-signalements")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
             summary = "Récupération signalements (Firebase → PostgreSQL)",
-            description = "Met à jour ou crée les signalements PostgreSQL avec les données de Firebase"
+            description = "Démarre en arrière-plan la mise à jour ou la création des signalements PostgreSQL avec les données de Firebase"
     )
-    public ResponseEntity<Map<String, Object>> pullSignalements() {
+    public ResponseEntity<Map<String, Object>> pullSignalements(
+            @Parameter(description = "true pour ignorer le watermark et relire toute la collection")
+            @RequestParam(defaultValue = "false") boolean full) {
         log.info("Récupération des signalements depuis Firebase");
+        return startJob(SyncJobService.JobType.PULL, FirebaseSyncService.COLLECTION_SIGNALEMENTS, full);
+    }
 
-        try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncSignalementsFromFirebase();
+    @PostMapping("/pull-entreprises")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    @Operation(
+            summary = "Récupération entreprises (Firebase → PostgreSQL)",
+            description = "Démarre en arrière-plan la mise à jour ou la création des entreprises PostgreSQL avec les données de Firebase"
+    )
+    public ResponseEntity<Map<String, Object>> pullEntreprises(
+            @Parameter(description = "true pour ignorer le watermark et relire toute la collection")
+            @RequestParam(defaultValue = "false") boolean full) {
+        log.info("Récupération des entreprises depuis Firebase");
+        return startJob(SyncJobService.JobType.PULL, FirebaseSyncService.COLLECTION_ENTREPRISES, full);
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Récupération des signalements terminée");
-            response.put("signalementsCreated", result.getSuccessCounts().getOrDefault("signalements_created", 0));
-            response.put("signalementsUpdated", result.getSuccessCounts().getOrDefault("signalements_updated", 0));
-            response.put("signalementsErrors", result.getErrorCounts().getOrDefault("signalements", 0));
+    // ==================== QUARANTAINE (DEAD LETTER) ====================
 
+    @GetMapping("/dead-letters")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    @Operation(
+            summary = "Entités en quarantaine",
+            description = "Entrées de synchronisation en échec permanent ou à tentatives épuisées, avec l'erreur et l'instantané"
+    )
+    public ResponseEntity<Map<String, Object>> getDeadLetters(
+            @RequestParam(required = false) EntityType entityType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Page<SyncQueue> deadLetters = syncDeadLetterService.list(entityType, page, size);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("total", deadLetters.getTotalElements());
+        response.put("page", deadLetters.getNumber());
+        response.put("items", deadLetters.getContent().stream().map(this::toDeadLetterResponse).toList());
+        return ResponseEntity.ok(response);
+    }
+
+    @PatchMapping("/dead-letters/{id}")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    @Operation(
+            summary = "Correction d'un document en quarantaine",
+            description = "Modifie l'instantané d'un document Firestore en quarantaine avant son rejeu (valeur null : champ supprimé)"
+    )
+    public ResponseEntity<Map<String, Object>> fixDeadLetter(@PathVariable Long id,
+                                                             @RequestBody Map<String, Object> changes) {
+        try {
+            Map<String, Object> response = toDeadLetterResponse(syncDeadLetterService.fix(id, changes));
+            response.put("success", true);
+            response.put("message", "Instantané corrigé");
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur récupération signalements", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
                     .body(Map.of(
                             "success", false,
-                            "message", "Erreur lors de la récupération des signalements",
-                            "error", e.getMessage()
+                            "message", e.getMessage()
                     ));
         }
     }
 
-    @PostMapping("/pull-entreprises")
+    @PostMapping("/dead-letters/replay")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     @Operation(
-            summary = "Récupération entreprises (Firebase → PostgreSQL)",
-            description = "Met à jour ou crée les entreprises PostgreSQL avec les données de Firebase"
+            summary = "Rejeu des entités en quarantaine",
+            description = "Remet en file les entités PostgreSQL et réapplique les documents Firestore ; "
+                    + "sans liste d'IDs, rejoue toute la quarantaine (filtrée par type d'entité si précisé)"
     )
-    public ResponseEntity<Map<String, Object>> pullEntreprises() {
-        log.info("Récupération des entreprises depuis Firebase");
+    public ResponseEntity<Map<String, Object>> replayDeadLetters(
+            @RequestBody(required = false) List<Long> ids,
+            @RequestParam(required = false) EntityType entityType) {
+        log.info("Rejeu de la quarantaine de synchronisation");
 
         try {
-            FirebaseSyncService.SyncResult result = firebaseSyncService.syncEntreprisesFromFirebase();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", result.isSuccess());
-            response.put("message", "Récupération des entreprises terminée");
-            response.put("entreprisesCreated", result.getSuccessCounts().getOrDefault("entreprises_created", 0));
-            response.put("entreprisesUpdated", result.getSuccessCounts().getOrDefault("entreprises_updated", 0));
-            response.put("entreprisesErrors", result.getErrorCounts().getOrDefault("entreprises", 0));
-
+            Map<String, Object> response = new HashMap<>(syncDeadLetterService.replay(ids, entityType));
+            response.put("success", true);
+            response.put("message", "Rejeu terminé");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Erreur récupération entreprises", e);
+            log.error("Erreur rejeu quarantaine", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of(
                             "success", false,
-                            "message", "Erreur lors de la récupération des entreprises",
+                            "message", "Erreur lors du rejeu",
                             "error", e.getMessage()
                     ));
         }
     }
 
+    private Map<String, Object> toDeadLetterResponse(SyncQueue entry) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", entry.getId());
+        response.put("entityType", entry.getEntityType());
+        response.put("entityId", entry.getEntityId());
+        response.put("firebaseId", entry.getFirebaseId());
+        response.put("direction", entry.getDirection());
+        response.put("action", entry.getAction());
+        response.put("failureKind", entry.getFailureKind());
+        response.put("errorMessage", entry.getErrorMessage());
+        response.put("retryCount", entry.getRetryCount());
+        response.put("snapshot", entry.getDataSnapshot());
+        response.put("createdAt", entry.getCreatedAt());
+        response.put("deadLetteredAt", entry.getProcessedAt());
+        return response;
+    }
+
     // ==================== STATUT DE LA SYNCHRONISATION ====================
 
     @GetMapping("/status")
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN', 'UTILISATEUR')")
     @Operation(
             summary = "Statut de la synchronisation",
-            description = "Retourne le nombre d'entités non synchronisées"
+            description = "Retourne, par collection, les entités non synchronisées et l'âge de la plus ancienne, le débit d'écriture, "
+                    + "les latences Firestore, l'état de la file de synchronisation (relances, abandons), les watermarks, "
+                    + "les tâches dont cette instance est leader et l'état de la connexion à Firebase"
     )
     public ResponseEntity<Map<String, Object>> getSyncStatus() {
         log.debug("Récupération du statut de synchronisation");
 
         try {
-            // Cette méthode devrait être implémentée dans le service
-            Map<String, Object> status = new HashMap<>();
+            Map<String, Object> status = new HashMap<>(syncMetrics.snapshot());
             status.put("message", "Statut de synchronisation");
+            status.put("outbox", syncQueueService.getCoalescingStats());
+            status.put("runningJob", syncJobService.getRunningJob().map(SyncJobService.SyncJob::getId).orElse(null));
+            status.put("leadership", syncLeadership.snapshot());
+            status.put("connectivity", syncConnectivity.snapshot());
             status.put("timestamp", System.currentTimeMillis());
 
             return ResponseEntity.ok(status);
@@ -365,26 +399,24 @@ public class FirebaseSyncController {
     @GetMapping("/health")
     @Operation(
             summary = "Vérification de la connectivité Firebase",
-            description = "Vérifie que la connexion à Firebase fonctionne correctement"
+            description = "Retourne l'état de la connexion à Firebase, l'initialisation du SDK, le backlog et les lignes "
+                    + "en quarantaine de l'outbox ; 503 lorsque Firebase est injoignable"
     )
     public ResponseEntity<Map<String, Object>> healthCheck() {
         log.debug("Vérification santé Firebase");
 
-        try {
-            Map<String, Object> health = new HashMap<>();
-            health.put("status", "UP");
-            health.put("message", "Firebase connecté");
-            health.put("timestamp", System.currentTimeMillis());
+        boolean online = syncConnectivity.isOnline();
+        long deadLetters = syncMetrics.getDeadLetterCount();
+        String status = !online ? "DOWN" : deadLetters > 0 ? "DEGRADED" : "UP";
 
-            return ResponseEntity.ok(health);
-        } catch (Exception e) {
-            log.error("Erreur health check Firebase", e);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(Map.of(
-                            "status", "DOWN",
-                            "message", "Firebase non disponible",
-                            "error", e.getMessage()
-                    ));
-        }
+        Map<String, Object> health = new HashMap<>();
+        health.put("status", status);
+        health.put("message", online ? "Firebase connecté" : "Firebase non disponible, modifications conservées dans l'outbox");
+        health.put("firebaseInitialized", FirebaseConfig.isInitialized());
+        health.put("connectivity", syncConnectivity.snapshot());
+        health.put("outbox", syncMetrics.outboxHealth());
+        health.put("timestamp", System.currentTimeMillis());
+
+        return ResponseEntity.status(online ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(health);
     }
-}
\ No newline at end of file
+}
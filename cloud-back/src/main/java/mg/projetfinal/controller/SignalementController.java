@@ -76,18 +76,55 @@ public class SignalementController {
 
     /**
      * GET /api/signalements/map
-     * Récupère les signalements pour la carte
+     * Récupère les marqueurs de la carte (id, position, statut, couleur, titre court)
+     * en une seule requête ; le détail d'un signalement se lit via GET /api/signalements/{id}
      */
     @GetMapping("/map")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsForMap() {
+    public ResponseEntity<List<SignalementMarkerDTO>> getSignalementsForMap(
+            @RequestParam(required = false) String status) {
         log.info("GET /api/signalements/map - Récupération pour la carte");
 
-        List<Signalement> signalements = signalementService.findAll();
-        List<SignalementResponseDTO> response = signalementMapper.toResponseDTOList(signalements);
+        List<SignalementMarkerDTO> response = signalementMapper.withColors(signalementService.findMapMarkers(status));
 
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * GET /api/signalements/map/clusters
+     * Vue de carte : groupes (effectif, barycentre, répartition par statut)
+     * jusqu'au zoom de regroupement maximal, signalements allégés au-delà
+     */
+    @GetMapping("/map/clusters")
+    public ResponseEntity<MapViewDTO> getMapClusters(
+            @RequestParam double minLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double maxLongitude,
+            @RequestParam int zoom) {
+
+        log.info("GET /api/signalements/map/clusters - Vue de carte au zoom {}", zoom);
+
+        MapViewDTO.MapViewDTOBuilder response = MapViewDTO.builder().zoom(zoom);
+        if (zoom > signalementService.getMapClusterMaxZoom()) {
+            List<MapPointDTO> points = signalementService
+                    .findMapPoints(minLatitude, minLongitude, maxLatitude, maxLongitude).stream()
+                    .map(signalementMapper::toMapPointDTO)
+                    .toList();
+            response.clustered(false).total(points.size()).points(points).clusters(List.of());
+        } else {
+            List<MapClusterDTO> clusters = signalementService
+                    .findMapClusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom).stream()
+                    .map(signalementMapper::toClusterDTO)
+                    .toList();
+            response.clustered(true)
+                    .total(clusters.stream().mapToInt(MapClusterDTO::getCount).sum())
+                    .clusters(clusters)
+                    .points(List.of());
+        }
+
+        return ResponseEntity.ok(response.build());
+    }
+
     /**
      * GET /api/signalements/statistics
      * Récupère les statistiques des signalements
@@ -200,17 +237,38 @@ public class SignalementController {
 
     /**
      * GET /api/signalements/location
-     * Recherche par localisation
+     * Recherche par localisation, du plus proche au plus éloigné
+     * (limit : les N plus proches uniquement)
      */
     @GetMapping("/location")
     public ResponseEntity<List<SignalementResponseDTO>> getSignalementsByLocation(
             @RequestParam BigDecimal latitude,
             @RequestParam BigDecimal longitude,
-            @RequestParam(defaultValue = "5.0") double radiusKm) {
+            @RequestParam(defaultValue = "5.0") double radiusKm,
+            @RequestParam(required = false) Integer limit) {
 
         log.info("GET /api/signalements/location - Recherche par localisation");
 
-        List<Signalement> signalements = signalementService.findByLocation(latitude, longitude, radiusKm);
+        List<Signalement> signalements = signalementService.findByLocation(latitude, longitude, radiusKm, limit);
+        List<SignalementResponseDTO> response = signalementMapper.toResponseDTOList(signalements);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/signalements/bbox
+     * Recherche dans un rectangle (vue de carte)
+     */
+    @GetMapping("/bbox")
+    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsInBox(
+            @RequestParam double minLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double maxLongitude) {
+
+        log.info("GET /api/signalements/bbox - Recherche par rectangle");
+
+        List<Signalement> signalements = signalementService.findInBox(minLatitude, minLongitude, maxLatitude, maxLongitude);
         List<SignalementResponseDTO> response = signalementMapper.toResponseDTOList(signalements);
 
         return ResponseEntity.ok(response);
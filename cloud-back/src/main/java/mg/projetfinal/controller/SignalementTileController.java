@@ -0,0 +1,54 @@
+package mg.projetfinal.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.service.SignalementTileService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Couche des signalements en tuiles vectorielles, à superposer aux tuiles de
+ * fond du map-server (source vector, couche {@code signalements})
+ */
+@RestController
+@RequestMapping("/tiles/signalements")
+@RequiredArgsConstructor
+@Slf4j
+public class SignalementTileController {
+
+    private static final MediaType MVT = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final SignalementTileService tileService;
+
+    /**
+     * GET /tiles/signalements/{z}/{x}/{y}.pbf
+     * Tuile Mapbox Vector Tile ; corps vide si la tuile ne contient aucun signalement
+     */
+    @GetMapping("/{z}/{x}/{y}.pbf")
+    public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        log.debug("GET /tiles/signalements/{}/{}/{}.pbf", z, x, y);
+
+        try {
+            byte[] tile = tileService.getTile(z, x, y);
+            return ResponseEntity.ok().contentType(MVT).body(tile);
+        } catch (IllegalArgumentException e) {
+            log.warn("Tuile {}/{}/{} refusée: {}", z, x, y, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * GET /tiles/signalements/cache
+     * Occupation et efficacité du cache de tuiles
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(tileService.getCacheStats());
+    }
+}
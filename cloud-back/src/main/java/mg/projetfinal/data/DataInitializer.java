@@ -118,7 +118,6 @@ public class DataInitializer implements CommandLineRunner {
                     .id(1000L) // Forçage de l'ID à 1000
                     .name("Administrateur Antananarivo")
                     .email("admin.tana@mg.gov")
-                    .passwordTemp("admin")
                     .passwordHash(passwordEncoder.encode("admin")) // BCrypt "admin"
                     .role(adminRole)
                     .firebaseSynced(false) // Non synchronisé Firebase
@@ -0,0 +1,26 @@
+package mg.projetfinal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Groupe de signalements affiché sur la carte : barycentre, effectif et
+ * répartition par code de statut. Un groupe d'un seul signalement porte
+ * son ID et sa couleur.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MapClusterDTO {
+    private Long id;
+    private double lat;
+    private double lng;
+    private int count;
+    private Map<String, Integer> statuses;
+    private String color;
+}
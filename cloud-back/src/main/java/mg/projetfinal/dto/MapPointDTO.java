@@ -0,0 +1,21 @@
+package mg.projetfinal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Signalement affiché individuellement sur la carte (zoom élevé)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MapPointDTO {
+    private Long id;
+    private double lat;
+    private double lng;
+    private String status;
+    private String color;
+}
@@ -0,0 +1,24 @@
+package mg.projetfinal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Contenu d'une vue de carte : groupes jusqu'au zoom de regroupement
+ * maximal, signalements individuels au-delà
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MapViewDTO {
+    private int zoom;
+    private boolean clustered;
+    private int total;
+    private List<MapClusterDTO> clusters;
+    private List<MapPointDTO> points;
+}
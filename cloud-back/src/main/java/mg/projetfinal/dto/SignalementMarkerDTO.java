@@ -0,0 +1,46 @@
+package mg.projetfinal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Marqueur de carte : projection d'un signalement lue en une seule requête
+ * (expression constructeur JPQL, sans charger l'entité ni ses relations).
+ * La couleur est renseignée ensuite par le mapper d'après le code de statut.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalementMarkerDTO {
+
+    public static final int TITLE_LENGTH = 50;
+
+    private Long id;
+    private BigDecimal lat;
+    private BigDecimal lng;
+    private String status;  // Code du statut (NOUVEAU, EN_COURS, TERMINE)
+    private String color;
+    private String title;
+
+    /**
+     * Constructeur de la requête JPQL ; {@code description} est le début de la
+     * description ({@link #TITLE_LENGTH} + 1 caractères suffisent pour savoir
+     * s'il faut la tronquer)
+     */
+    public SignalementMarkerDTO(Long id, BigDecimal lat, BigDecimal lng, String status, String description) {
+        this.id = id;
+        this.lat = lat;
+        this.lng = lng;
+        this.status = status;
+        if (description != null && description.length() > TITLE_LENGTH) {
+            this.title = description.substring(0, TITLE_LENGTH) + "...";
+        } else {
+            this.title = description;
+        }
+    }
+}
@@ -64,6 +64,20 @@ public class Entreprise {
     @Builder.Default
     private Set<SignalementAction> actions = new HashSet<>();
 
+    // Suivi des modifications pour la synchronisation Firebase :
+    // syncVersion est incrémentée à chaque écriture JPA, syncedVersion est
+    // la version poussée en dernier (mise à jour par requête, sans incrément)
+    @Column(name = "sync_version")
+    @Builder.Default
+    private Long syncVersion = 0L;
+
+    @Column(name = "synced_version")
+    private Long syncedVersion;
+
+    // Version du document Firestore écrite ou lue à la dernière synchronisation
+    @Column(name = "firebase_version")
+    private Long firebaseVersion;
+
     // Audit
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -73,7 +87,17 @@ public class Entreprise {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    @PreUpdate
+    void incrementSyncVersion() {
+        this.syncVersion = (this.syncVersion == null ? 0L : this.syncVersion) + 1;
+    }
+
     // Méthodes utilitaires
+    public boolean isFirebaseSyncPending() {
+        return this.syncedVersion == null || this.syncedVersion < (this.syncVersion == null ? 0L : this.syncVersion);
+    }
+
     public void incrementInterventions() {
         this.nombreInterventions = (this.nombreInterventions == null ? 0 : this.nombreInterventions) + 1;
     }
@@ -2,6 +2,7 @@ package mg.projetfinal.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import mg.projetfinal.service.SignalementSpatialIndexListener;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -19,6 +20,7 @@ import java.util.Set;
         @Index(name = "idx_signalement_firebase_id", columnList = "firebase_id"),
         @Index(name = "idx_signalement_firebase_synced", columnList = "firebase_synced")
 })
+@EntityListeners(SignalementSpatialIndexListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,6 +47,10 @@ public class Signalement {
     @Column(name = "last_sync_at")
     private LocalDateTime lastSyncAt;
 
+    // Version du document Firestore écrite ou lue à la dernière synchronisation
+    @Column(name = "firebase_version")
+    private Long firebaseVersion;
+
     // Localisation
     @Column(name = "latitude", nullable = false, precision = 10, scale = 8)
     private BigDecimal latitude;
@@ -51,6 +51,16 @@ public class SignalementStatus {
     @Builder.Default
     private Set<HistoriqueStatus> historiquesNouveau = new HashSet<>();
 
+    // Suivi des modifications pour la synchronisation Firebase :
+    // syncVersion est incrémentée à chaque écriture JPA, syncedVersion est
+    // la version poussée en dernier (mise à jour par requête, sans incrément)
+    @Column(name = "sync_version")
+    @Builder.Default
+    private Long syncVersion = 0L;
+
+    @Column(name = "synced_version")
+    private Long syncedVersion;
+
     // Audit
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -60,6 +70,12 @@ public class SignalementStatus {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    @PreUpdate
+    void incrementSyncVersion() {
+        this.syncVersion = (this.syncVersion == null ? 0L : this.syncVersion) + 1;
+    }
+
     // Méthodes utilitaires
     public boolean isNouveau() {
         return "NOUVEAU".equals(this.code);
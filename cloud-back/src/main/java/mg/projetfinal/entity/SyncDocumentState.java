@@ -0,0 +1,46 @@
+package mg.projetfinal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Empreinte du dernier document poussé vers Firestore, utilisée pour
+ * n'envoyer que les champs modifiés lors du push suivant
+ */
+@Entity
+@Table(name = "sync_document_state", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sync_document_state", columnNames = {"collection_name", "document_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncDocumentState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "collection_name", nullable = false, length = 100)
+    private String collectionName;
+
+    @Column(name = "document_id", nullable = false, length = 128)
+    private String documentId;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // Empreinte de chaque champ du document (nom du champ → empreinte)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "field_hashes", columnDefinition = "jsonb")
+    private Map<String, String> fieldHashes;
+
+    @Column(name = "pushed_at")
+    private LocalDateTime pushedAt;
+}
@@ -0,0 +1,52 @@
+package mg.projetfinal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import mg.projetfinal.enums.*;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégat journalier de sync_history, alimenté par la compaction des
+ * lignes de détail plus anciennes que la durée de rétention
+ */
+@Entity
+@Table(name = "sync_history_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sync_history_daily",
+                columnNames = {"day", "entity_type", "direction", "status"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncHistoryDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 50)
+    private EntityType entityType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "direction", nullable = false, length = 20)
+    private SyncDirection direction;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private SyncStatus status;
+
+    @Column(name = "sync_count", nullable = false)
+    private Long syncCount;
+
+    @Column(name = "total_duration_ms", nullable = false)
+    private Long totalDurationMs;
+
+    @Column(name = "max_duration_ms")
+    private Integer maxDurationMs;
+}
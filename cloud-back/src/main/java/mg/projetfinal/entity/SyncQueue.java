@@ -8,6 +8,7 @@ import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Entity
@@ -54,6 +55,15 @@ public class SyncQueue {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "failure_kind", length = 20)
+    private SyncFailureKind failureKind;
+
+    // Empreinte du document Firestore mis en quarantaine : tant qu'il est
+    // inchangé, les pulls suivants l'ignorent
+    @Column(name = "snapshot_hash", length = 64)
+    private String snapshotHash;
+
     @Column(name = "retry_count")
     @Builder.Default
     private Integer retryCount = 0;
@@ -88,6 +98,11 @@ public class SyncQueue {
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
 
+    // Nombre de modifications fusionnées dans cette entrée (écritures Firestore évitées)
+    @Column(name = "coalesced_count")
+    @Builder.Default
+    private Integer coalescedCount = 0;
+
     public boolean canRetry() {
         return this.retryCount < this.maxRetries;
     }
@@ -109,9 +124,82 @@ public class SyncQueue {
         this.errorMessage = null;
     }
 
-    public void markFailed(String error) {
-        this.status = SyncStatus.FAILED;
+    /**
+     * Fusionne une modification plus récente de la même entité dans cette entrée :
+     * une seule écriture Firestore sera faite pour l'ensemble.
+     */
+    public void coalesce(SyncAction newAction, Integer newPriority, String newFirebaseId,
+                         Map<String, Object> newSnapshot) {
+        if (newAction == SyncAction.DELETE) {
+            this.action = SyncAction.DELETE;
+        } else if (this.action == SyncAction.DELETE) {
+            this.action = newAction;
+        } else if (this.action != SyncAction.CREATE) {
+            this.action = newAction;
+        }
+        if (newPriority != null && (this.priority == null || newPriority < this.priority)) {
+            this.priority = newPriority;
+        }
+        if (newFirebaseId != null) {
+            this.firebaseId = newFirebaseId;
+        }
+        if (newSnapshot != null) {
+            Map<String, Object> merged = this.dataSnapshot != null ? new HashMap<>(this.dataSnapshot) : new HashMap<>();
+            merged.putAll(newSnapshot);
+            this.dataSnapshot = merged;
+        }
+        this.coalescedCount = (this.coalescedCount == null ? 0 : this.coalescedCount) + 1;
+    }
+
+    /**
+     * Absorbe une entrée plus ancienne de la même entité (les valeurs de
+     * cette entrée, plus récentes, restent prioritaires)
+     */
+    public void absorbOlder(SyncQueue older) {
+        if (older.getAction() == SyncAction.CREATE && this.action == SyncAction.UPDATE) {
+            this.action = SyncAction.CREATE;
+        }
+        if (older.getPriority() != null && (this.priority == null || older.getPriority() < this.priority)) {
+            this.priority = older.getPriority();
+        }
+        if (this.firebaseId == null) {
+            this.firebaseId = older.getFirebaseId();
+        }
+        if (older.getDataSnapshot() != null) {
+            Map<String, Object> merged = new HashMap<>(older.getDataSnapshot());
+            if (this.dataSnapshot != null) {
+                merged.putAll(this.dataSnapshot);
+            }
+            this.dataSnapshot = merged;
+        }
+        int olderCount = older.getCoalescedCount() == null ? 0 : older.getCoalescedCount();
+        this.coalescedCount = (this.coalescedCount == null ? 0 : this.coalescedCount) + olderCount + 1;
+    }
+
+    /**
+     * Met l'entrée en quarantaine : elle n'est plus traitée avant d'être rejouée
+     *
+     * @param snapshot état de l'entité ou du document au moment de l'échec
+     *                 (l'instantané existant est conservé si null)
+     */
+    public void markDeadLetter(SyncFailureKind kind, String error, Map<String, Object> snapshot) {
+        this.status = SyncStatus.DEAD_LETTER;
+        this.failureKind = kind;
         this.processedAt = LocalDateTime.now();
         this.errorMessage = error;
+        if (snapshot != null) {
+            this.dataSnapshot = new HashMap<>(snapshot);
+        }
+    }
+
+    /**
+     * Remet une entrée en quarantaine dans la file, tentatives réinitialisées
+     */
+    public void replay() {
+        this.status = SyncStatus.PENDING;
+        this.retryCount = 0;
+        this.scheduledAt = LocalDateTime.now();
+        this.processedAt = null;
+        this.snapshotHash = null;
     }
 }
\ No newline at end of file
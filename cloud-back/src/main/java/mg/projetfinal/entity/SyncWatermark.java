@@ -0,0 +1,49 @@
+package mg.projetfinal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marqueur de progression (high-water mark) de la synchronisation
+ * Firebase → PostgreSQL, une ligne par collection Firestore
+ */
+@Entity
+@Table(name = "sync_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "collection_name", nullable = false, unique = true, length = 100)
+    private String collectionName;
+
+    // Plus grand updatedAt Firestore déjà appliqué en base
+    @Column(name = "last_updated_at")
+    private LocalDateTime lastUpdatedAt;
+
+    @Column(name = "last_pulled_at")
+    private LocalDateTime lastPulledAt;
+
+    @Column(name = "last_pull_count")
+    @Builder.Default
+    private Integer lastPullCount = 0;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public void advanceTo(LocalDateTime candidate) {
+        if (candidate != null && (this.lastUpdatedAt == null || candidate.isAfter(this.lastUpdatedAt))) {
+            this.lastUpdatedAt = candidate;
+        }
+    }
+}
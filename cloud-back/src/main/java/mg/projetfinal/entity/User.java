@@ -51,6 +51,10 @@ public class User {
     @Column(name = "synced_at")
     private LocalDateTime syncedAt;
 
+    // Version du document Firestore écrite ou lue à la dernière synchronisation
+    @Column(name = "firebase_version")
+    private Long firebaseVersion;
+
     // Rôle
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "role_id", nullable = false)
@@ -64,9 +68,6 @@ public class User {
     @Column(name = "locked_until")
     private LocalDateTime lockedUntil;
 
-    @Column(name = "password_temp")
-    private String passwordTemp;
-
     @Column(name = "failed_attempts")
     @Builder.Default
     private Integer failedAttempts = 0;
@@ -0,0 +1,11 @@
+package mg.projetfinal.enums;
+
+/**
+ * Règle de résolution d'un conflit de synchronisation : entité modifiée
+ * localement et dans Firestore depuis la dernière synchronisation
+ */
+public enum ConflictPolicy {
+    NEWEST,       // La version dont updatedAt est le plus récent l'emporte
+    LOCAL_WINS,   // PostgreSQL l'emporte, la version locale sera repoussée
+    REMOTE_WINS   // Firestore l'emporte
+}
@@ -0,0 +1,9 @@
+package mg.projetfinal.enums;
+
+/**
+ * Nature d'un échec de synchronisation
+ */
+public enum SyncFailureKind {
+    TRANSIENT,    // Réseau, quota, indisponibilité : une nouvelle tentative peut réussir
+    PERMANENT     // Donnée invalide ou refusée : échouera à chaque tentative
+}
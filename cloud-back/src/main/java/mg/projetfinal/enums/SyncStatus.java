@@ -8,5 +8,7 @@ public enum SyncStatus {
     PROCESSING,   // En cours de traitement
     SUCCESS,      // Synchronisation réussie
     FAILED,       // Synchronisation échouée
-    CANCELLED     // Synchronisation annulée
+    CANCELLED,    // Synchronisation annulée
+    CONFLICT,     // Conflit de versions détecté et résolu
+    DEAD_LETTER   // Mise en quarantaine : ignorée jusqu'à correction et rejeu
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package mg.projetfinal.mapper;
 
 import mg.projetfinal.dto.*;
 import mg.projetfinal.entity.*;
+import mg.projetfinal.utils.ClusterPyramid;
 import org.springframework.stereotype.Component;
 
 import java.time.format.DateTimeFormatter;
@@ -81,6 +82,50 @@ public class SignalementMapper {
         }
     }
     
+    /**
+     * Couleur du marqueur d'après le code de statut (mêmes couleurs que {@link #toResponseDTO})
+     */
+    public String colorForStatus(String statusCode) {
+        if ("TERMINE".equals(statusCode)) {
+            return "#16A34A"; // Vert
+        } else if ("EN_COURS".equals(statusCode)) {
+            return "#8B5CF6"; // Violet
+        } else {
+            return "#DC2626"; // Rouge
+        }
+    }
+
+    /**
+     * Complète les marqueurs lus par projection avec la couleur de leur statut
+     */
+    public List<SignalementMarkerDTO> withColors(List<SignalementMarkerDTO> markers) {
+        for (SignalementMarkerDTO marker : markers) {
+            marker.setColor(colorForStatus(marker.getStatus()));
+        }
+        return markers;
+    }
+
+    public MapClusterDTO toClusterDTO(ClusterPyramid.Cluster cluster) {
+        return MapClusterDTO.builder()
+                .id(cluster.id())
+                .lat(cluster.latitude())
+                .lng(cluster.longitude())
+                .count(cluster.count())
+                .statuses(cluster.statuses())
+                .color(cluster.id() != null ? colorForStatus(cluster.statuses().keySet().iterator().next()) : null)
+                .build();
+    }
+
+    public MapPointDTO toMapPointDTO(ClusterPyramid.Point point) {
+        return MapPointDTO.builder()
+                .id(point.id())
+                .lat(point.latitude())
+                .lng(point.longitude())
+                .status(point.status())
+                .color(colorForStatus(point.status()))
+                .build();
+    }
+
     private String generateTitle(Signalement signalement) {
         // Vous pouvez personnaliser selon vos besoins
         return signalement.getDescription().length() > 50 
@@ -1,10 +1,13 @@
 package mg.projetfinal.repository;
 
 import mg.projetfinal.entity.Entreprise;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +19,27 @@ public interface EntrepriseRepository extends JpaRepository<Entreprise, Integer>
 
     @Query("SELECT e FROM Entreprise e WHERE e.isActive = true ORDER BY e.noteMoyenne DESC")
     List<Entreprise> findTopRatedEntreprises();
+
+    // Entreprises modifiées depuis leur dernier push, hors quarantaine (pagination keyset)
+    @Query("SELECT e.id FROM Entreprise e WHERE e.id > :afterId " +
+            "AND (e.syncedVersion IS NULL OR e.syncedVersion < COALESCE(e.syncVersion, 0)) " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'ENTREPRISE' " +
+            "AND q.entityId = e.id AND q.status = 'DEAD_LETTER') ORDER BY e.id")
+    List<Integer> findNotSyncedIdsAfter(Integer afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(e) FROM Entreprise e " +
+            "WHERE (e.syncedVersion IS NULL OR e.syncedVersion < COALESCE(e.syncVersion, 0)) " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'ENTREPRISE' " +
+            "AND q.entityId = e.id AND q.status = 'DEAD_LETTER')")
+    long countNotSynced();
+
+    @Query("SELECT MIN(e.updatedAt) FROM Entreprise e " +
+            "WHERE (e.syncedVersion IS NULL OR e.syncedVersion < COALESCE(e.syncVersion, 0)) " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'ENTREPRISE' " +
+            "AND q.entityId = e.id AND q.status = 'DEAD_LETTER')")
+    LocalDateTime findOldestNotSyncedUpdatedAt();
+
+    @Modifying
+    @Query("UPDATE Entreprise e SET e.syncedVersion = :version, e.firebaseVersion = :firebaseVersion WHERE e.id = :id")
+    void markSynced(Integer id, Long version, Long firebaseVersion);
 }
\ No newline at end of file
@@ -1,23 +1,95 @@
 package mg.projetfinal.repository;
 
+import mg.projetfinal.dto.SignalementMarkerDTO;
 import mg.projetfinal.entity.Signalement;
 import mg.projetfinal.entity.SignalementStatus;
 import mg.projetfinal.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SignalementRepository extends JpaRepository<Signalement, Long> {
+
+    // Haversine en km, même formule que GeoUtils.distanceKm
+    String DISTANCE_KM = "6371 * 2 * ASIN(SQRT(LEAST(1, " +
+            "POWER(SIN(RADIANS(s.latitude - :latitude) / 2), 2) + " +
+            "COS(RADIANS(:latitude)) * COS(RADIANS(s.latitude)) * " +
+            "POWER(SIN(RADIANS(s.longitude - :longitude) / 2), 2))))";
+
     List<Signalement> findByUser(User user);
     List<Signalement> findByStatus(SignalementStatus status);
     List<Signalement> findByFirebaseSyncedFalse();
 
+    // Pagination keyset : page suivante après le dernier ID lu
+    @Query("SELECT s.id FROM Signalement s WHERE s.firebaseSynced = false AND s.id > :afterId " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'SIGNALEMENT' " +
+            "AND q.entityId = s.id AND q.status = 'DEAD_LETTER') ORDER BY s.id")
+    List<Long> findNotSyncedIdsAfter(Long afterId, Pageable pageable);
+
+    long countByFirebaseSyncedFalse();
+
+    @Query("SELECT COUNT(s) FROM Signalement s WHERE s.firebaseSynced = false " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'SIGNALEMENT' " +
+            "AND q.entityId = s.id AND q.status = 'DEAD_LETTER')")
+    long countNotSynced();
+
+    @Query("SELECT MIN(s.updatedAt) FROM Signalement s WHERE s.firebaseSynced = false " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'SIGNALEMENT' " +
+            "AND q.entityId = s.id AND q.status = 'DEAD_LETTER')")
+    LocalDateTime findOldestNotSyncedUpdatedAt();
+
+    // Utilise idx_signalement_firebase_id
+    List<Signalement> findByFirebaseIdIn(Collection<String> firebaseIds);
+
     @Query("SELECT s FROM Signalement s WHERE s.status.code = :statusCode ORDER BY s.dateSignalement DESC")
     List<Signalement> findByStatusCode(String statusCode);
 
     @Query("SELECT s FROM Signalement s ORDER BY s.dateSignalement DESC")
     List<Signalement> findAllOrderByDateDesc();
-}
\ No newline at end of file
+
+    // Recherche par rayon : le rectangle englobant est filtré par idx_signalement_location,
+    // la distance exacte (haversine) n'est calculée que sur ces candidats.
+    // Bornes converties en numeric : comparées en double, les colonnes ne seraient plus indexables
+    @Query(value = "SELECT c.id FROM (" +
+            "SELECT s.id, " + DISTANCE_KM + " AS distance FROM signalements s " +
+            "WHERE s.latitude BETWEEN CAST(:minLatitude AS numeric) AND CAST(:maxLatitude AS numeric) " +
+            "AND s.longitude BETWEEN CAST(:minLongitude AS numeric) AND CAST(:maxLongitude AS numeric)) c " +
+            "WHERE c.distance <= :radiusKm ORDER BY c.distance, c.id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsWithinRadius(double latitude, double longitude, double radiusKm,
+                                   double minLatitude, double maxLatitude,
+                                   double minLongitude, double maxLongitude, int limit);
+
+    @Query(value = "SELECT s.id FROM signalements s " +
+            "WHERE s.latitude BETWEEN CAST(:minLatitude AS numeric) AND CAST(:maxLatitude AS numeric) " +
+            "AND s.longitude BETWEEN CAST(:minLongitude AS numeric) AND CAST(:maxLongitude AS numeric)", nativeQuery = true)
+    List<Long> findIdsInBox(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude);
+
+    // Construction de l'index spatial : [id, latitude, longitude, code du statut], sans hydrater les entités
+    @Query("SELECT s.id, s.latitude, s.longitude, st.code FROM Signalement s JOIN s.status st")
+    List<Object[]> findAllLocations();
+
+    // Même projection, limitée à un rectangle (carte sans index en mémoire)
+    @Query("SELECT s.id, s.latitude, s.longitude, st.code FROM Signalement s JOIN s.status st " +
+            "WHERE s.latitude BETWEEN :minLatitude AND :maxLatitude " +
+            "AND s.longitude BETWEEN :minLongitude AND :maxLongitude")
+    List<Object[]> findLocationsInBox(BigDecimal minLatitude, BigDecimal maxLatitude,
+                                      BigDecimal minLongitude, BigDecimal maxLongitude);
+
+    // Marqueurs de carte en une requête : ni entité, ni entreprise, ni historique chargés
+    String MARKER_SELECT = "SELECT new mg.projetfinal.dto.SignalementMarkerDTO(s.id, s.latitude, s.longitude, st.code, " +
+            "SUBSTRING(s.description, 1, " + (SignalementMarkerDTO.TITLE_LENGTH + 1) + ")) " +
+            "FROM Signalement s JOIN s.status st ";
+
+    @Query(MARKER_SELECT + "ORDER BY s.dateSignalement DESC")
+    List<SignalementMarkerDTO> findAllMarkers();
+
+    @Query(MARKER_SELECT + "WHERE st.code = :statusCode ORDER BY s.dateSignalement DESC")
+    List<SignalementMarkerDTO> findMarkersByStatusCode(String statusCode);
+}
@@ -2,8 +2,11 @@ package mg.projetfinal.repository;
 
 import mg.projetfinal.entity.SignalementStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +15,27 @@ public interface SignalementStatusRepository extends JpaRepository<SignalementSt
     Optional<SignalementStatus> findByCode(String code);
     List<SignalementStatus> findAllByOrderByOrdreAsc();
     boolean existsByCode(String code);
+
+    // Status modifiés depuis leur dernier push, hors quarantaine
+    @Query("SELECT s FROM SignalementStatus s " +
+            "WHERE (s.syncedVersion IS NULL OR s.syncedVersion < COALESCE(s.syncVersion, 0)) " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'SIGNALEMENT_STATUS' " +
+            "AND q.entityId = s.id AND q.status = 'DEAD_LETTER') ORDER BY s.ordre")
+    List<SignalementStatus> findNotSynced();
+
+    @Query("SELECT COUNT(s) FROM SignalementStatus s " +
+            "WHERE (s.syncedVersion IS NULL OR s.syncedVersion < COALESCE(s.syncVersion, 0)) " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'SIGNALEMENT_STATUS' " +
+            "AND q.entityId = s.id AND q.status = 'DEAD_LETTER')")
+    long countNotSynced();
+
+    @Query("SELECT MIN(s.updatedAt) FROM SignalementStatus s " +
+            "WHERE (s.syncedVersion IS NULL OR s.syncedVersion < COALESCE(s.syncVersion, 0)) " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'SIGNALEMENT_STATUS' " +
+            "AND q.entityId = s.id AND q.status = 'DEAD_LETTER')")
+    LocalDateTime findOldestNotSyncedUpdatedAt();
+
+    @Modifying
+    @Query("UPDATE SignalementStatus s SET s.syncedVersion = :version WHERE s.id = :id")
+    void markSynced(Integer id, Long version);
 }
\ No newline at end of file
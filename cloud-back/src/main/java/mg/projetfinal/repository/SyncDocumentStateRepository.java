@@ -0,0 +1,19 @@
+package mg.projetfinal.repository;
+
+import mg.projetfinal.entity.SyncDocumentState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncDocumentStateRepository extends JpaRepository<SyncDocumentState, Long> {
+    List<SyncDocumentState> findByCollectionNameAndDocumentIdIn(String collectionName, Collection<String> documentIds);
+
+    @Modifying
+    @Query("DELETE FROM SyncDocumentState s WHERE s.collectionName = :collectionName AND s.documentId IN :documentIds")
+    int deleteDocuments(String collectionName, Collection<String> documentIds);
+}
@@ -0,0 +1,13 @@
+package mg.projetfinal.repository;
+
+import mg.projetfinal.entity.SyncHistoryDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SyncHistoryDailyRepository extends JpaRepository<SyncHistoryDaily, Long> {
+    List<SyncHistoryDaily> findByDayBetweenOrderByDayAsc(LocalDate from, LocalDate to);
+}
@@ -3,6 +3,7 @@ package mg.projetfinal.repository;
 import mg.projetfinal.entity.SyncHistory;
 import mg.projetfinal.enums.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -16,8 +17,27 @@ public interface SyncHistoryRepository extends JpaRepository<SyncHistory, Long>
 
     List<SyncHistory> findByStatusOrderBySyncedAtDesc(SyncStatus status);
 
-    @Query("SELECT sh FROM SyncHistory sh WHERE sh.syncedAt < :date")
-    List<SyncHistory> findOlderThan(LocalDateTime date);
+    /**
+     * Compaction d'un lot : supprime au plus {@code limit} lignes antérieures à
+     * {@code cutoff} et les cumule dans sync_history_daily, en une instruction.
+     *
+     * @return nombre d'agrégats créés ou mis à jour (0 quand il n'y a plus rien à compacter)
+     */
+    @Modifying
+    @Query(value = "WITH batch AS (" +
+            "  DELETE FROM sync_history WHERE id IN (" +
+            "    SELECT id FROM sync_history WHERE synced_at < :cutoff ORDER BY id LIMIT :limit)" +
+            "  RETURNING synced_at, entity_type, direction, status, duration_ms) " +
+            "INSERT INTO sync_history_daily (day, entity_type, direction, status, sync_count, total_duration_ms, max_duration_ms) " +
+            "SELECT CAST(synced_at AS date), entity_type, direction, status, COUNT(*), " +
+            "COALESCE(SUM(duration_ms), 0), MAX(duration_ms) " +
+            "FROM batch GROUP BY CAST(synced_at AS date), entity_type, direction, status " +
+            "ON CONFLICT (day, entity_type, direction, status) DO UPDATE SET " +
+            "sync_count = sync_history_daily.sync_count + EXCLUDED.sync_count, " +
+            "total_duration_ms = sync_history_daily.total_duration_ms + EXCLUDED.total_duration_ms, " +
+            "max_duration_ms = GREATEST(sync_history_daily.max_duration_ms, EXCLUDED.max_duration_ms)",
+            nativeQuery = true)
+    int rollUpOlderThan(LocalDateTime cutoff, int limit);
 
     @Query("SELECT COUNT(sh) FROM SyncHistory sh WHERE sh.status = :status AND sh.syncedAt > :since")
     Long countByStatusSince(SyncStatus status, LocalDateTime since);
@@ -2,11 +2,15 @@ package mg.projetfinal.repository;
 
 import mg.projetfinal.entity.SyncQueue;
 import mg.projetfinal.enums.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,10 +20,56 @@ public interface SyncQueueRepository extends JpaRepository<SyncQueue, Long> {
     @Query("SELECT sq FROM SyncQueue sq WHERE sq.status = 'PENDING' AND sq.scheduledAt <= :now ORDER BY sq.priority ASC, sq.scheduledAt ASC")
     List<SyncQueue> findPendingSync(LocalDateTime now);
 
-    Optional<SyncQueue> findByEntityTypeAndEntityIdAndStatus(EntityType entityType, Long entityId, SyncStatus status);
+    // Réclamation concurrente par les workers (de toutes les instances). Seule la plus ancienne
+    // ligne PENDING d'une entité est candidate, échue ou non : deux workers visent donc la même
+    // ligne et SKIP LOCKED en écarte un. Les entités dont une entrée est en cours de traitement
+    // sont ignorées ; le statut est revérifié après verrouillage si un autre worker vient de valider.
+    @Query(value = "SELECT * FROM sync_queue sq WHERE sq.status = 'PENDING' AND sq.scheduled_at <= :now " +
+            "AND sq.id IN (SELECT DISTINCT ON (c.entity_type, c.entity_id) c.id FROM sync_queue c " +
+            "WHERE c.status = 'PENDING' ORDER BY c.entity_type, c.entity_id, c.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM sync_queue p WHERE p.entity_type = sq.entity_type " +
+            "AND p.entity_id = sq.entity_id AND p.status = 'PROCESSING') " +
+            "ORDER BY sq.priority ASC, sq.scheduled_at ASC LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<SyncQueue> claimPending(LocalDateTime now, int limit);
+
+    // Plusieurs lignes PENDING possibles pour une entité (enqueue concurrents)
+    Optional<SyncQueue> findFirstByEntityTypeAndEntityIdAndStatusOrderByIdDesc(EntityType entityType, Long entityId,
+                                                                              SyncStatus status);
 
     List<SyncQueue> findByStatusAndRetryCountLessThan(SyncStatus status, Integer maxRetries);
 
     @Query("SELECT sq FROM SyncQueue sq WHERE sq.status = 'PROCESSING' AND sq.processingStartedAt < :timeout")
     List<SyncQueue> findStuckProcessing(LocalDateTime timeout);
+
+    @Query("SELECT COALESCE(SUM(sq.coalescedCount), 0) FROM SyncQueue sq")
+    Long sumCoalescedCount();
+
+    long countByStatus(SyncStatus status);
+
+    @Query("SELECT MIN(sq.createdAt) FROM SyncQueue sq WHERE sq.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    boolean existsByEntityTypeAndEntityIdAndStatus(EntityType entityType, Long entityId, SyncStatus status);
+
+    // Levée de la quarantaine d'une entité de nouveau poussée avec succès
+    @Modifying
+    @Query("UPDATE SyncQueue sq SET sq.status = 'SUCCESS', sq.errorMessage = :reason, sq.processedAt = CURRENT_TIMESTAMP " +
+            "WHERE sq.entityType = :entityType AND sq.entityId = :entityId " +
+            "AND sq.status = 'DEAD_LETTER' AND sq.direction = 'POSTGRES_TO_FIREBASE'")
+    int resolveDeadLetters(EntityType entityType, Long entityId, String reason);
+
+    // Quarantaine d'un document Firestore (pull)
+    Optional<SyncQueue> findFirstByDirectionAndEntityTypeAndFirebaseIdAndStatus(
+            SyncDirection direction, EntityType entityType, String firebaseId, SyncStatus status);
+
+    List<SyncQueue> findByDirectionAndEntityTypeAndStatusAndFirebaseIdIn(
+            SyncDirection direction, EntityType entityType, SyncStatus status, Collection<String> firebaseIds);
+
+    @Query("SELECT sq FROM SyncQueue sq WHERE sq.status = 'DEAD_LETTER' " +
+            "AND (:entityType IS NULL OR sq.entityType = :entityType) ORDER BY sq.processedAt DESC, sq.id DESC")
+    Page<SyncQueue> findDeadLetters(EntityType entityType, Pageable pageable);
+
+    @Query("SELECT sq.id FROM SyncQueue sq WHERE sq.status = 'DEAD_LETTER' " +
+            "AND (:entityType IS NULL OR sq.entityType = :entityType) ORDER BY sq.id")
+    List<Long> findDeadLetterIds(EntityType entityType);
 }
\ No newline at end of file
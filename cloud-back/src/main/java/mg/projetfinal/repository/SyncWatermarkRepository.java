@@ -0,0 +1,12 @@
+package mg.projetfinal.repository;
+
+import mg.projetfinal.entity.SyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SyncWatermarkRepository extends JpaRepository<SyncWatermark, Long> {
+    Optional<SyncWatermark> findByCollectionName(String collectionName);
+}
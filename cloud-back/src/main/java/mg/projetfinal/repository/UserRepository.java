@@ -1,10 +1,13 @@
 package mg.projetfinal.repository;
 
 import mg.projetfinal.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,11 +15,32 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByFirebaseUid(String firebaseUid);
+    List<User> findByFirebaseUidIn(Collection<String> firebaseUids);
     boolean existsByEmail(String email);
 
     @Query("SELECT u FROM User u WHERE u.firebaseSynced = false")
     List<User> findNotSynced();
 
+    // Pagination keyset : page suivante après le dernier ID lu
+    // Les utilisateurs en quarantaine (sync_queue DEAD_LETTER) sont ignorés jusqu'à leur rejeu
+    @Query("SELECT u.id FROM User u WHERE u.firebaseSynced = false AND u.id > :afterId " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'USER' " +
+            "AND q.entityId = u.id AND q.status = 'DEAD_LETTER') ORDER BY u.id")
+    List<Long> findNotSyncedIdsAfter(Long afterId, Pageable pageable);
+
+    long countByFirebaseSyncedFalse();
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.firebaseSynced = false " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'USER' " +
+            "AND q.entityId = u.id AND q.status = 'DEAD_LETTER')")
+    long countNotSynced();
+
+    // Modification locale la plus ancienne encore non poussée
+    @Query("SELECT MIN(u.updatedAt) FROM User u WHERE u.firebaseSynced = false " +
+            "AND NOT EXISTS (SELECT q.id FROM SyncQueue q WHERE q.entityType = 'USER' " +
+            "AND q.entityId = u.id AND q.status = 'DEAD_LETTER')")
+    LocalDateTime findOldestNotSyncedUpdatedAt();
+
     @Query("SELECT u FROM User u WHERE u.isLocked = true")
     List<User> findLockedUsers();
 }
\ No newline at end of file
@@ -6,10 +6,12 @@ import com.google.firebase.auth.UserRecord;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.config.FirebaseConfig;
 import mg.projetfinal.entity.*;
+import mg.projetfinal.enums.EntityType;
 import mg.projetfinal.enums.FailureReason;
+import mg.projetfinal.enums.SyncAction;
 import mg.projetfinal.repository.*;
-import mg.projetfinal.utils.NetworkUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -32,6 +34,8 @@ public class AuthService {
     private final FailedLoginTrackingRepository failedLoginTrackingRepository;
     private final PasswordEncoder passwordEncoder;
     private final FailedLoginTrackingService failedLoginTrackingService;
+    private final SyncQueueService syncQueueService;
+    private final SyncConnectivity syncConnectivity;
 
     @Value("${auth.max-attempts:3}")
     private int maxAttempts;
@@ -42,9 +46,6 @@ public class AuthService {
     @Value("${auth.lockout-duration-minutes:30}")
     private int lockoutDurationMinutes;
 
-    @Value("${app.mode:online}")
-    private String appMode;
-
     // ==================== INSCRIPTION ====================
 
     @Transactional
@@ -63,7 +64,6 @@ public class AuthService {
                 .email(email)
                 .passwordHash(passwordEncoder.encode(password))
                 .name(name)
-                .passwordTemp(password)
                 .role(defaultRole)
                 .firebaseSynced(false)
                 .isLocked(false)
@@ -91,7 +91,9 @@ public class AuthService {
 //            }
 //        }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        syncQueueService.enqueue(EntityType.USER, savedUser.getId(), SyncAction.CREATE);
+        return savedUser;
     }
 
     @Transactional
@@ -137,6 +139,9 @@ public class AuthService {
         }
 
         User savedAdmin = userRepository.save(admin);
+        if (!Boolean.TRUE.equals(savedAdmin.getFirebaseSynced())) {
+            syncQueueService.enqueue(EntityType.USER, savedAdmin.getId(), SyncAction.CREATE);
+        }
         log.info("Admin créé avec succès: {}", email);
         return savedAdmin;
     }
@@ -322,7 +327,11 @@ public class AuthService {
             }
         }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (!Boolean.TRUE.equals(savedUser.getFirebaseSynced()) || savedUser.getFirebaseUid() == null) {
+            syncQueueService.enqueue(EntityType.USER, savedUser.getId(), SyncAction.UPDATE);
+        }
+        return savedUser;
     }
 
     // ==================== GESTION SESSION ====================
@@ -465,8 +474,9 @@ public class AuthService {
 
     // ==================== UTILITAIRES ====================
 
+    // État sondé périodiquement (app.mode + joignabilité de Firebase), sans appel réseau par requête
     private boolean isOnline() {
-        return "online".equalsIgnoreCase(appMode) && NetworkUtils.isInternetAvailable();
+        return syncConnectivity.isOnline() && FirebaseConfig.isInitialized();
     }
 
     private String getClientIp(HttpServletRequest request) {
@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mg.projetfinal.entity.Entreprise;
 import mg.projetfinal.entity.User;
+import mg.projetfinal.enums.EntityType;
+import mg.projetfinal.enums.SyncAction;
 import mg.projetfinal.repository.EntrepriseRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +23,7 @@ import java.util.stream.Collectors;
 public class EntrepriseService {
 
     private final EntrepriseRepository entrepriseRepository;
+    private final SyncQueueService syncQueueService;
 
     public Entreprise create(Entreprise entreprise, User createdBy) {
         log.info("Création d'une nouvelle entreprise: {}", entreprise.getNom());
@@ -37,7 +40,9 @@ public class EntrepriseService {
         entreprise.setIsActive(true);
         entreprise.setNombreInterventions(0);
         
-        return entrepriseRepository.save(entreprise);
+        Entreprise saved = entrepriseRepository.save(entreprise);
+        enqueueSync(saved.getId(), SyncAction.CREATE);
+        return saved;
     }
 
     public Entreprise update(Integer id, Entreprise entreprise) {
@@ -65,7 +70,9 @@ public class EntrepriseService {
         existingEntreprise.setAdresse(entreprise.getAdresse());
         existingEntreprise.setSpecialites(entreprise.getSpecialites());
         
-        return entrepriseRepository.save(existingEntreprise);
+        Entreprise saved = entrepriseRepository.save(existingEntreprise);
+        enqueueSync(saved.getId(), SyncAction.UPDATE);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -88,6 +95,7 @@ public class EntrepriseService {
         }
         
         entrepriseRepository.deleteById(id);
+        enqueueSync(id, SyncAction.DELETE);
     }
 
     @Transactional(readOnly = true)
@@ -131,7 +139,9 @@ public class EntrepriseService {
                 .orElseThrow(() -> new IllegalArgumentException("Entreprise non trouvée avec l'ID: " + id));
         
         entreprise.setIsActive(true);
-        return entrepriseRepository.save(entreprise);
+        Entreprise saved = entrepriseRepository.save(entreprise);
+        enqueueSync(id, SyncAction.UPDATE);
+        return saved;
     }
 
     public Entreprise deactivateEntreprise(Integer id) {
@@ -141,7 +151,9 @@ public class EntrepriseService {
                 .orElseThrow(() -> new IllegalArgumentException("Entreprise non trouvée avec l'ID: " + id));
         
         entreprise.setIsActive(false);
-        return entrepriseRepository.save(entreprise);
+        Entreprise saved = entrepriseRepository.save(entreprise);
+        enqueueSync(id, SyncAction.UPDATE);
+        return saved;
     }
 
     public void incrementInterventions(Integer id) {
@@ -152,6 +164,7 @@ public class EntrepriseService {
         
         entreprise.incrementInterventions();
         entrepriseRepository.save(entreprise);
+        enqueueSync(id, SyncAction.UPDATE);
     }
 
     public void updateNoteMoyenne(Integer id, BigDecimal nouvelleNote) {
@@ -167,6 +180,7 @@ public class EntrepriseService {
         
         entreprise.updateNoteMoyenne(nouvelleNote);
         entrepriseRepository.save(entreprise);
+        enqueueSync(id, SyncAction.UPDATE);
     }
 
     @Transactional(readOnly = true)
@@ -178,4 +192,10 @@ public class EntrepriseService {
     public boolean existsBySiret(String siret) {
         return entrepriseRepository.findBySiret(siret).isPresent();
     }
+
+    private void enqueueSync(Integer entrepriseId, SyncAction action) {
+        // Donnée de référence : poussée après les signalements lors d'un rattrapage
+        syncQueueService.enqueue(EntityType.ENTREPRISE, entrepriseId.longValue(), null,
+                action, SyncQueueService.PRIORITY_LOW);
+    }
 }
\ No newline at end of file
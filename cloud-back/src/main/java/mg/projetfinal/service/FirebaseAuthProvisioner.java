@@ -0,0 +1,237 @@
+package mg.projetfinal.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.entity.User;
+import mg.projetfinal.utils.SyncFailures;
+import mg.projetfinal.utils.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Provisionnement des comptes Firebase Authentication.
+ * Les nouveaux utilisateurs sont créés par {@code importUsers} (lots d'au
+ * plus {@code sync.auth.import-batch-size}) avec leur hash BCrypt : aucun
+ * mot de passe en clair n'est nécessaire. importUsers ne vérifiant pas
+ * l'unicité des emails, un compte existant est d'abord cherché par email et
+ * les comptes importés reçoivent un UID dérivé de l'utilisateur : un nouvel
+ * essai ne crée jamais de doublon. Les mises à jour sont envoyées en
+ * parallèle ({@code sync.auth.threads}). Tous les appels Auth passent par un
+ * seau de jetons commun ({@code sync.auth.rate-per-second}) pour rester sous
+ * les quotas du projet, quel que soit le nombre de lots synchronisés en même temps.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FirebaseAuthProvisioner {
+
+    // Limite imposée par Firebase pour importUsers
+    private static final int FIREBASE_MAX_IMPORT_SIZE = 1000;
+
+    private final FirestoreGateway firestoreGateway;
+    private final SyncMetrics syncMetrics;
+
+    @Value("${sync.auth.import-batch-size:1000}")
+    private int importBatchSize;
+
+    @Value("${sync.auth.threads:8}")
+    private int authThreads;
+
+    @Value("${sync.auth.rate-per-second:50}")
+    private double ratePerSecond;
+
+    private ExecutorService authExecutor;
+    private TokenBucket rateLimiter;
+
+    public enum Action {
+        CREATED,
+        LINKED,     // compte existant retrouvé par email (application mobile, essai précédent)
+        UPDATED,
+        FAILED
+    }
+
+    /**
+     * Résultat du provisionnement d'un utilisateur
+     *
+     * @param permanent l'échec se reproduira à chaque tentative (compte refusé par Firebase)
+     */
+    public record Outcome(Long userId, String email, String firebaseUid, Action action, String error,
+                          boolean permanent) {
+
+        public boolean isSuccess() {
+            return action != Action.FAILED;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        int threads = Math.max(authThreads, 1);
+        authExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int index;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "firebase-auth-" + (++index));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        rateLimiter = new TokenBucket(ratePerSecond, Math.max(ratePerSecond, 1));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        authExecutor.shutdownNow();
+    }
+
+    /**
+     * Crée ou met à jour les comptes Auth des utilisateurs.
+     * Les utilisateurs sans UID sont rattachés au compte existant de même
+     * email, sinon importés sous leur UID stable ({@link #stableUid}) ; l'UID
+     * n'est affecté à l'entité que si l'opération a réussi.
+     *
+     * @return résultat par ID d'utilisateur, dans l'ordre de la liste
+     */
+    public Map<Long, Outcome> provision(List<User> users) throws InterruptedException {
+        Map<Long, Outcome> outcomes = new LinkedHashMap<>();
+        List<User> toCreate = new ArrayList<>();
+        List<User> toUpdate = new ArrayList<>();
+        for (User user : users) {
+            outcomes.put(user.getId(), null);
+            if (user.getFirebaseUid() == null || user.getFirebaseUid().isEmpty()) {
+                toCreate.add(user);
+            } else {
+                toUpdate.add(user);
+            }
+        }
+
+        // Mises à jour lancées d'abord, elles s'exécutent pendant les imports
+        Map<User, Future<Outcome>> updates = new LinkedHashMap<>();
+        for (User user : toUpdate) {
+            updates.put(user, authExecutor.submit(() -> update(user)));
+        }
+
+        int batchSize = Math.min(Math.max(importBatchSize, 1), FIREBASE_MAX_IMPORT_SIZE);
+        for (int i = 0; i < toCreate.size(); i += batchSize) {
+            for (Outcome outcome : importBatch(toCreate.subList(i, Math.min(i + batchSize, toCreate.size())))) {
+                outcomes.put(outcome.userId(), outcome);
+            }
+        }
+
+        for (Map.Entry<User, Future<Outcome>> update : updates.entrySet()) {
+            User user = update.getKey();
+            try {
+                outcomes.put(user.getId(), update.getValue().get());
+            } catch (ExecutionException e) {
+                outcomes.put(user.getId(), failed(user, e.getCause()));
+            }
+        }
+        return outcomes;
+    }
+
+    private List<Outcome> importBatch(List<User> users) throws InterruptedException {
+        Map<String, String> existingUids;
+        rateLimiter.acquire();
+        long started = System.nanoTime();
+        try {
+            existingUids = firestoreGateway.findAuthUidsByEmail(users.stream()
+                    .map(User::getEmail)
+                    .filter(Objects::nonNull)
+                    .toList());
+        } catch (ExecutionException e) {
+            log.error("Recherche Firebase Auth de {} utilisateurs en échec: {}", users.size(), SyncFailures.message(e));
+            return users.stream().map(user -> failed(user, e)).toList();
+        } finally {
+            syncMetrics.recordLatency(SyncMetrics.OPERATION_AUTH_LOOKUP, started);
+        }
+
+        List<Outcome> outcomes = new ArrayList<>();
+        List<User> toImport = new ArrayList<>();
+        for (User user : users) {
+            String existingUid = user.getEmail() != null ?
+                    existingUids.get(user.getEmail().toLowerCase(Locale.ROOT)) : null;
+            if (existingUid != null) {
+                user.setFirebaseUid(existingUid);
+                outcomes.add(new Outcome(user.getId(), user.getEmail(), existingUid, Action.LINKED, null, false));
+            } else {
+                toImport.add(user);
+            }
+        }
+        if (!toImport.isEmpty()) {
+            outcomes.addAll(importUsers(toImport));
+        }
+        return outcomes;
+    }
+
+    private List<Outcome> importUsers(List<User> users) throws InterruptedException {
+        List<FirestoreGateway.AuthUserImport> imports = new ArrayList<>();
+        for (User user : users) {
+            imports.add(new FirestoreGateway.AuthUserImport(stableUid(user), user.getEmail(), user.getName(),
+                    user.getPasswordHash()));
+        }
+
+        Map<Integer, String> errors;
+        rateLimiter.acquire();
+        long started = System.nanoTime();
+        try {
+            errors = firestoreGateway.importAuthUsers(imports);
+        } catch (ExecutionException e) {
+            log.error("Import Firebase Auth de {} utilisateurs en échec: {}", users.size(), SyncFailures.message(e));
+            return users.stream().map(user -> failed(user, e)).toList();
+        } finally {
+            syncMetrics.recordLatency(SyncMetrics.OPERATION_AUTH_IMPORT, started);
+        }
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String error = errors.get(i);
+            if (error != null) {
+                // Erreur propre à l'enregistrement (email invalide ou déjà utilisé...)
+                outcomes.add(new Outcome(user.getId(), user.getEmail(), user.getFirebaseUid(), Action.FAILED, error, true));
+            } else {
+                String uid = imports.get(i).uid();
+                user.setFirebaseUid(uid);
+                outcomes.add(new Outcome(user.getId(), user.getEmail(), uid, Action.CREATED, null, false));
+            }
+        }
+        log.info("Import Firebase Auth: {} créés, {} en échec", users.size() - errors.size(), errors.size());
+        return outcomes;
+    }
+
+    /**
+     * UID dérivé de l'ID et de l'email de l'utilisateur : un import rejoué
+     * (réponse perdue, lot en échec) remplace le compte créé au premier essai
+     */
+    static String stableUid(User user) {
+        String email = user.getEmail() != null ? user.getEmail().toLowerCase(Locale.ROOT) : "";
+        return UUID.nameUUIDFromBytes(("user:" + user.getId() + ":" + email).getBytes(StandardCharsets.UTF_8))
+                .toString()
+                .replace("-", "");
+    }
+
+    private Outcome update(User user) throws InterruptedException {
+        rateLimiter.acquire();
+        long started = System.nanoTime();
+        try {
+            firestoreGateway.updateAuthUser(user.getFirebaseUid(), user.getEmail(), user.getName());
+            return new Outcome(user.getId(), user.getEmail(), user.getFirebaseUid(), Action.UPDATED, null, false);
+        } catch (ExecutionException e) {
+            log.error("Mise à jour Firebase Auth de l'utilisateur {} en échec: {}", user.getId(), SyncFailures.message(e));
+            return failed(user, e);
+        } finally {
+            syncMetrics.recordLatency(SyncMetrics.OPERATION_AUTH_UPDATE, started);
+        }
+    }
+
+    private static Outcome failed(User user, Throwable error) {
+        return new Outcome(user.getId(), user.getEmail(), user.getFirebaseUid(), Action.FAILED,
+                SyncFailures.message(error), SyncFailures.isPermanent(error));
+    }
+}
@@ -0,0 +1,199 @@
+package mg.projetfinal.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.*;
+import com.google.firebase.auth.EmailIdentifier;
+import com.google.firebase.auth.ErrorInfo;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.GetUsersResult;
+import com.google.firebase.auth.ImportUserRecord;
+import com.google.firebase.auth.UserImportOptions;
+import com.google.firebase.auth.UserImportResult;
+import com.google.firebase.auth.UserIdentifier;
+import com.google.firebase.auth.UserRecord;
+import com.google.firebase.auth.hash.Bcrypt;
+import com.google.firebase.cloud.FirestoreClient;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import mg.projetfinal.config.FirebaseConfig;
+import mg.projetfinal.utils.NetworkUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Implémentation de production : SDK Firebase Admin (Firestore + Auth)
+ */
+@Component
+@ConditionalOnProperty(name = "sync.gateway", havingValue = "firebase", matchIfMissing = true)
+public class FirebaseFirestoreGateway implements FirestoreGateway {
+
+    private static final String FIRESTORE_HOST = "firestore.googleapis.com";
+    private static final int HTTPS_PORT = 443;
+    // Limite imposée par Firebase pour getUsers
+    private static final int FIREBASE_MAX_LOOKUP_SIZE = 100;
+
+    @Value("${sync.connectivity.timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Override
+    public boolean isAvailable() {
+        return FirebaseConfig.isInitialized();
+    }
+
+    /**
+     * Connexion TCP vers Firestore, ou vers l'émulateur si FIRESTORE_EMULATOR_HOST est défini
+     */
+    @Override
+    public boolean isReachable() {
+        if (!isAvailable()) {
+            return false;
+        }
+        String emulatorHost = System.getenv("FIRESTORE_EMULATOR_HOST");
+        if (emulatorHost != null && emulatorHost.contains(":")) {
+            int separator = emulatorHost.lastIndexOf(':');
+            try {
+                return NetworkUtils.isReachable(emulatorHost.substring(0, separator),
+                        Integer.parseInt(emulatorHost.substring(separator + 1)), connectTimeoutMs);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return NetworkUtils.isReachable(FIRESTORE_HOST, HTTPS_PORT, connectTimeoutMs);
+    }
+
+    @Override
+    public void commit(List<DocumentWrite> writes) throws ExecutionException, InterruptedException {
+        if (writes.isEmpty()) {
+            return;
+        }
+        Firestore firestore = FirestoreClient.getFirestore();
+        WriteBatch batch = firestore.batch();
+
+        for (DocumentWrite write : writes) {
+            DocumentReference docRef = firestore.collection(write.collectionName()).document(write.documentId());
+            switch (write.type()) {
+                case SET -> batch.set(docRef, write.fields());
+                case MERGE -> {
+                    Map<String, Object> fields = new HashMap<>(write.fields());
+                    for (String removed : write.removedFields()) {
+                        fields.put(removed, FieldValue.delete());
+                    }
+                    // update (et non set merge) : échoue si le document a été supprimé
+                    batch.update(docRef, fields);
+                }
+                case DELETE -> batch.delete(docRef);
+            }
+        }
+        try {
+            batch.commit().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ApiException apiException
+                    && apiException.getStatusCode().getCode() == StatusCode.Code.NOT_FOUND) {
+                throw new ExecutionException(new MissingDocumentException(apiException.getMessage()));
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public List<FirestoreDocument> fetchPage(String collectionName, LocalDateTime updatedSince,
+                                             FirestoreDocument after, int limit)
+            throws ExecutionException, InterruptedException {
+        CollectionReference collection = FirestoreClient.getFirestore().collection(collectionName);
+        Query query;
+        if (updatedSince == null) {
+            query = collection.orderBy(FieldPath.documentId());
+            if (after != null) {
+                query = query.startAfter(after.id());
+            }
+        } else {
+            Date since = Date.from(updatedSince.atZone(ZoneId.systemDefault()).toInstant());
+            query = collection
+                    .whereGreaterThanOrEqualTo(FIELD_UPDATED_AT, Timestamp.of(since))
+                    .orderBy(FIELD_UPDATED_AT)
+                    .orderBy(FieldPath.documentId());
+            if (after != null) {
+                query = query.startAfter(after.get(FIELD_UPDATED_AT), after.id());
+            }
+        }
+
+        List<FirestoreDocument> page = new ArrayList<>();
+        for (QueryDocumentSnapshot snapshot : query.limit(limit).get().get().getDocuments()) {
+            page.add(toDocument(snapshot));
+        }
+        return page;
+    }
+
+    @Override
+    public Map<Integer, String> importAuthUsers(List<AuthUserImport> users)
+            throws ExecutionException, InterruptedException {
+        List<ImportUserRecord> records = new ArrayList<>();
+        for (AuthUserImport user : users) {
+            ImportUserRecord.Builder builder = ImportUserRecord.builder()
+                    .setUid(user.uid())
+                    .setEmail(user.email())
+                    .setEmailVerified(false)
+                    .setPasswordHash(user.bcryptHash().getBytes(StandardCharsets.UTF_8));
+            if (user.displayName() != null) {
+                builder.setDisplayName(user.displayName());
+            }
+            records.add(builder.build());
+        }
+
+        UserImportResult result = FirebaseAuth.getInstance()
+                .importUsersAsync(records, UserImportOptions.withHash(Bcrypt.getInstance()))
+                .get();
+
+        Map<Integer, String> errors = new HashMap<>();
+        for (ErrorInfo error : result.getErrors()) {
+            errors.put(error.getIndex(), error.getReason());
+        }
+        return errors;
+    }
+
+    @Override
+    public Map<String, String> findAuthUidsByEmail(Collection<String> emails)
+            throws ExecutionException, InterruptedException {
+        List<UserIdentifier> identifiers = new ArrayList<>();
+        for (String email : emails) {
+            identifiers.add(new EmailIdentifier(email));
+        }
+
+        Map<String, String> uids = new HashMap<>();
+        for (int i = 0; i < identifiers.size(); i += FIREBASE_MAX_LOOKUP_SIZE) {
+            GetUsersResult result = FirebaseAuth.getInstance()
+                    .getUsersAsync(identifiers.subList(i, Math.min(i + FIREBASE_MAX_LOOKUP_SIZE, identifiers.size())))
+                    .get();
+            for (UserRecord record : result.getUsers()) {
+                if (record.getEmail() != null) {
+                    uids.putIfAbsent(record.getEmail().toLowerCase(Locale.ROOT), record.getUid());
+                }
+            }
+        }
+        return uids;
+    }
+
+    @Override
+    public void updateAuthUser(String uid, String email, String displayName)
+            throws ExecutionException, InterruptedException {
+        UserRecord.UpdateRequest request = new UserRecord.UpdateRequest(uid)
+                .setDisplayName(displayName)
+                .setEmail(email);
+        FirebaseAuth.getInstance().updateUserAsync(request).get();
+    }
+
+    /**
+     * Convertit un instantané reçu par un listener en document de la passerelle
+     */
+    public static FirestoreDocument toDocument(DocumentSnapshot snapshot) {
+        Map<String, Object> data = snapshot.getData();
+        return new FirestoreDocument(snapshot.getId(), data != null ? data : Map.of());
+    }
+}
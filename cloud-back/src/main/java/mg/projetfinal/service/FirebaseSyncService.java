@@ -1,27 +1,37 @@
 package mg.projetfinal.service;
 
-import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.UserRecord;
-import com.google.firebase.cloud.FirestoreClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import mg.projetfinal.entity.*;
 import mg.projetfinal.enums.*;
 import mg.projetfinal.repository.*;
+import mg.projetfinal.utils.DocumentFingerprints;
+import mg.projetfinal.utils.SyncFailures;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,37 +44,101 @@ public class FirebaseSyncService {
     private final EntrepriseRepository entrepriseRepository;
     private final SignalementStatusRepository signalementStatusRepository;
     private final SyncQueueRepository syncQueueRepository;
-    private final SyncHistoryRepository syncHistoryRepository;
+    private final SyncHistoryService syncHistoryService;
     private final RoleRepository roleRepository;
-
-    private static final String COLLECTION_USERS = "users";
-    private static final String COLLECTION_SIGNALEMENTS = "signalements";
-    private static final String COLLECTION_ENTREPRISES = "entreprises";
+    private final SyncWatermarkRepository syncWatermarkRepository;
+    private final SyncDocumentStateRepository syncDocumentStateRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final FirestoreGateway firestoreGateway;
+    private final FirebaseAuthProvisioner authProvisioner;
+    private final SyncConflictResolver conflictResolver;
+    private final SyncMetrics syncMetrics;
+    private final SyncLeadership syncLeadership;
+
+    // Proxy partagé : vidé à la fin de chaque lot poussé
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public static final String COLLECTION_USERS = "users";
+    public static final String COLLECTION_SIGNALEMENTS = "signalements";
+    public static final String COLLECTION_ENTREPRISES = "entreprises";
+    // Collections suivies par le mode écoute (voir FirestoreListenerService)
+    public static final List<String> LISTENED_COLLECTIONS =
+            List.of(COLLECTION_USERS, COLLECTION_ENTREPRISES, COLLECTION_SIGNALEMENTS);
     private static final String COLLECTION_STATUS = "signalement_status";
 
+    private static final String FIELD_UPDATED_AT = "updatedAt";
+    // Version du document, incrémentée par chaque push du serveur ; les
+    // clients ne l'incrémentent pas tous, d'où la comparaison d'updatedAt au pull
+    private static final String FIELD_VERSION = "version";
+
+    // Champs réécrits à chaque push, exclus de la comparaison delta
+    private static final Set<String> VOLATILE_FIELDS = Set.of("syncedAt", FIELD_VERSION);
+
+    // Limite imposée par Firestore pour un WriteBatch
+    private static final int FIRESTORE_MAX_BATCH_SIZE = 500;
+
+    @Value("${sync.push.batch-size:400}")
+    private int pushBatchSize;
+
+    @Value("${sync.push.delta-enabled:true}")
+    private boolean deltaPushEnabled;
+
+    @Value("${sync.pull.page-size:500}")
+    private int pullPageSize;
+
+    @Value("${sync.parallel.threads:4}")
+    private int parallelThreads;
+
+    private ExecutorService syncExecutor;
+    private TransactionTemplate transactionTemplate;
+
     // ==================== SYNCHRONISATION BIDIRECTIONNELLE ====================
 
     /**
      * Synchronisation complète bidirectionnelle
-     * 1. PostgreSQL → Firebase (push local changes)
-     * 2. Firebase → PostgreSQL (pull remote changes)
+     * 1. Firebase → PostgreSQL (pull remote changes, résolution des conflits)
+     * 2. PostgreSQL → Firebase (push local changes)
+     * Le pull passe en premier pour que les entités modifiées des deux côtés
+     * soient arbitrées par {@link SyncConflictResolver} avant d'être poussées.
      */
-    @Transactional
     public SyncResult syncAll() {
+        return syncAll(false, new SyncResult());
+    }
+
+    /**
+     * Synchronisation bidirectionnelle alimentant un résultat fourni par
+     * l'appelant (job en arrière-plan) : la progression y est visible en
+     * cours d'exécution et l'annulation est prise en compte entre deux lots.
+     */
+    public SyncResult syncAll(boolean fullPull, SyncResult result) {
         log.info("=== Début de la synchronisation bidirectionnelle complète ===");
-        SyncResult result = new SyncResult();
 
         try {
-            // Phase 1: Push PostgreSQL → Firebase
-            log.info("Phase 1: Synchronisation PostgreSQL → Firebase");
-            result.addPostgresToFirebase(syncPostgresToFirebase());
-
-            // Phase 2: Pull Firebase → PostgreSQL
-            log.info("Phase 2: Synchronisation Firebase → PostgreSQL");
-            result.addFirebaseToPostgres(syncFirebaseToPostgres());
+            // Phase 1: Pull Firebase → PostgreSQL
+            log.info("Phase 1: Synchronisation Firebase → PostgreSQL");
+            syncFirebaseToPostgres(fullPull, result);
+            boolean pullSucceeded = result.isSuccess();
+
+            // Phase 2: Push PostgreSQL → Firebase (compteurs dans le résultat parent,
+            // succès et erreur remontés ci-dessous)
+            boolean pushSucceeded = true;
+            if (!result.isCancelled()) {
+                log.info("Phase 2: Synchronisation PostgreSQL → Firebase");
+                SyncResult pushed = syncPostgresToFirebase(result.child("pg_to_fb_"));
+                pushSucceeded = pushed.isSuccess();
+                if (!pushSucceeded) {
+                    result.setErrorMessage(pullSucceeded ? pushed.getErrorMessage()
+                            : result.getErrorMessage() + " ; " + pushed.getErrorMessage());
+                }
+            }
 
-            log.info("=== Synchronisation complète terminée avec succès ===");
-            result.setSuccess(true);
+            result.setSuccess(pullSucceeded && pushSucceeded);
+            if (result.isSuccess()) {
+                log.info("=== Synchronisation complète terminée avec succès ===");
+            } else {
+                log.warn("=== Synchronisation complète terminée en échec: {} ===", result.getErrorMessage());
+            }
         } catch (Exception e) {
             log.error("Erreur lors de la synchronisation bidirectionnelle", e);
             result.setSuccess(false);
@@ -77,110 +151,318 @@ public class FirebaseSyncService {
     // ==================== POSTGRES → FIREBASE ====================
 
     /**
-     * Synchronise toutes les entités de PostgreSQL vers Firebase
+     * Synchronise toutes les entités de PostgreSQL vers Firebase.
+     * Les identifiants à pousser sont lus par pages (keyset sur l'ID) et
+     * chaque page devient un lot poussé sur l'exécuteur de synchronisation
+     * ({@code sync.parallel.threads}) ; au plus deux lots par thread sont en
+     * vol, la mémoire reste donc bornée quelle que soit la taille du backlog.
+     * Chaque lot tient dans un WriteBatch Firestore de taille
+     * {@code sync.push.batch-size} et s'exécute dans sa propre transaction,
+     * contexte de persistance vidé à la fin : un lot en échec n'annule pas
+     * les lots déjà validés, et une entité n'est marquée synchronisée qu'une
+     * fois le batch qui la contient validé.
      */
-    @Transactional
     public SyncResult syncPostgresToFirebase() {
-        SyncResult result = new SyncResult();
+        return syncPostgresToFirebase(new SyncResult());
+    }
+
+    public SyncResult syncPostgresToFirebase(SyncResult result) {
+        return syncPostgresToFirebase(null, result);
+    }
 
+    /**
+     * Pousse une seule collection ({@code users}, {@code signalements},
+     * {@code entreprises} ou {@code signalement_status}), ou toutes si
+     * {@code collectionName} est null
+     */
+    public SyncResult syncPostgresToFirebase(String collectionName, SyncResult result) {
+        // Une collection poussée par une autre instance est laissée à celle-ci
+        List<SyncLeadership.Lease> leases = new ArrayList<>();
         try {
-            // Synchroniser les utilisateurs
-            List<User> unsyncedUsers = userRepository.findNotSynced();
-            for (User user : unsyncedUsers) {
+            ChunkSubmitter submitter = new ChunkSubmitter();
+            Pageable chunk = PageRequest.of(0, getPushBatchSize());
+            Predicate<String> pushed = collection -> collectionName == null || collectionName.equals(collection);
+
+            // Utilisateurs et signalements : un lot par WriteBatch
+            if (pushed.test(COLLECTION_USERS) && lead("push:" + COLLECTION_USERS, "users", result, leases)) {
+                result.addExpected("users", userRepository.countNotSynced());
+                streamIds(0L, afterId -> userRepository.findNotSyncedIdsAfter(afterId, chunk), result,
+                        ids -> submitter.submit(() -> pushUsers(ids, result)));
+            }
+            if (pushed.test(COLLECTION_SIGNALEMENTS) && lead("push:" + COLLECTION_SIGNALEMENTS, "signalements", result, leases)) {
+                result.addExpected("signalements", signalementRepository.countNotSynced());
+                streamIds(0L, afterId -> signalementRepository.findNotSyncedIdsAfter(afterId, chunk), result,
+                        ids -> submitter.submit(() -> pushSignalements(ids, result)));
+            }
+
+            // Données de référence : seules les lignes modifiées depuis le dernier push
+            if (pushed.test(COLLECTION_ENTREPRISES) && lead("push:" + COLLECTION_ENTREPRISES, "entreprises", result, leases)) {
+                result.addExpected("entreprises", entrepriseRepository.countNotSynced());
+                streamIds(0, afterId -> entrepriseRepository.findNotSyncedIdsAfter(afterId, chunk), result,
+                        ids -> submitter.submit(() -> pushEntreprises(ids, result)));
+            }
+            if (pushed.test(COLLECTION_STATUS) && lead("push:" + COLLECTION_STATUS, "status", result, leases)) {
+                result.addExpected("status", signalementStatusRepository.countNotSynced());
+                submitter.submit(() -> pushStatuses(result));
+            }
+
+            submitter.awaitAll();
+            result.setSuccess(true);
+        } catch (Exception e) {
+            log.error("Erreur globale sync Postgres → Firebase", e);
+            result.setSuccess(false);
+            result.setErrorMessage(e.getMessage());
+        } finally {
+            leases.forEach(SyncLeadership.Lease::close);
+        }
+
+        return result;
+    }
+
+    /**
+     * Prend le leadership d'une tâche pour la durée de la synchronisation ;
+     * la synchronisation est annulée si le leadership est perdu en cours de route
+     *
+     * @return false si une autre instance mène déjà la tâche
+     */
+    private boolean lead(String task, String category, SyncResult result, List<SyncLeadership.Lease> leases) {
+        Optional<SyncLeadership.Lease> lease = syncLeadership.tryAcquire(task);
+        if (lease.isEmpty()) {
+            log.info("Tâche {} menée par une autre instance, ignorée", task);
+            result.incrementSkipped(category + "_other_leader");
+            return false;
+        }
+        lease.get().onLost(result::cancel);
+        leases.add(lease.get());
+        return true;
+    }
+
+    private Void pushUsers(List<Long> userIds, SyncResult result) {
+        if (result.isCancelled()) {
+            return null;
+        }
+        inTransaction(() -> {
+            PushBatch batch = new PushBatch(result);
+
+            // Firebase Auth d'abord pour tout le lot (import + mises à jour
+            // parallèles), puis les documents Firestore sont batchés
+            List<User> users = userRepository.findAllById(userIds);
+            Map<Long, FirebaseAuthProvisioner.Outcome> outcomes = authProvisioner.provision(users);
+            for (User user : users) {
                 try {
-                    syncUserToFirebase(user);
-                    result.incrementSuccess("users");
+                    FirebaseAuthProvisioner.Outcome outcome = outcomes.get(user.getId());
+                    if (!outcome.isSuccess()) {
+                        throw authFailure(outcome);
+                    }
+                    String firebaseUid = outcome.firebaseUid();
+                    batch.add("users", EntityType.USER, user.getId(), firebaseUid,
+                            COLLECTION_USERS,
+                            buildUserDocument(user, firebaseUid),
+                            firebaseVersion -> markUserSynced(user, firebaseVersion));
                 } catch (Exception e) {
                     log.error("Erreur sync user {}: {}", user.getId(), e.getMessage());
-                    result.incrementError("users");
-                    recordSyncError(EntityType.USER, user.getId(), e.getMessage());
+                    markUserSyncFailed(user, SyncFailures.message(e));
+                    handlePushFailure("users", EntityType.USER, user.getId(), user.getFirebaseUid(), e, result);
                 }
             }
+            batch.flush();
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+        return null;
+    }
 
-            // Synchroniser les signalements
-            List<Signalement> unsyncedSignalements = signalementRepository.findByFirebaseSyncedFalse();
-            for (Signalement signalement : unsyncedSignalements) {
+    private Void pushSignalements(List<Long> signalementIds, SyncResult result) {
+        if (result.isCancelled()) {
+            return null;
+        }
+        inTransaction(() -> {
+            PushBatch batch = new PushBatch(result);
+
+            for (Signalement signalement : signalementRepository.findAllById(signalementIds)) {
                 try {
-                    syncSignalementToFirebase(signalement);
-                    result.incrementSuccess("signalements");
+                    String docId = getSignalementDocId(signalement);
+                    batch.add("signalements", EntityType.SIGNALEMENT, signalement.getId(), docId,
+                            COLLECTION_SIGNALEMENTS,
+                            buildSignalementDocument(signalement),
+                            firebaseVersion -> markSignalementSynced(signalement, docId, firebaseVersion));
                 } catch (Exception e) {
                     log.error("Erreur sync signalement {}: {}", signalement.getId(), e.getMessage());
-                    result.incrementError("signalements");
-                    recordSyncError(EntityType.SIGNALEMENT, signalement.getId(), e.getMessage());
+                    handlePushFailure("signalements", EntityType.SIGNALEMENT, signalement.getId(),
+                            signalement.getFirebaseId(), e, result);
                 }
             }
+            batch.flush();
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+        return null;
+    }
+
+    private Void pushEntreprises(List<Integer> entrepriseIds, SyncResult result) {
+        if (result.isCancelled()) {
+            return null;
+        }
+        inTransaction(() -> {
+            PushBatch batch = new PushBatch(result);
 
-            // Synchroniser les entreprises
-            List<Entreprise> allEntreprises = entrepriseRepository.findAll();
-            for (Entreprise entreprise : allEntreprises) {
+            for (Entreprise entreprise : entrepriseRepository.findAllById(entrepriseIds)) {
                 try {
-                    syncEntrepriseToFirebase(entreprise);
-                    result.incrementSuccess("entreprises");
+                    String docId = String.valueOf(entreprise.getId());
+                    Long version = entreprise.getSyncVersion();
+                    batch.add("entreprises", EntityType.ENTREPRISE, entreprise.getId().longValue(), docId,
+                            COLLECTION_ENTREPRISES,
+                            buildEntrepriseDocument(entreprise),
+                            firebaseVersion -> markEntrepriseSynced(entreprise.getId(), version, firebaseVersion));
                 } catch (Exception e) {
                     log.error("Erreur sync entreprise {}: {}", entreprise.getId(), e.getMessage());
-                    result.incrementError("entreprises");
+                    handlePushFailure("entreprises", EntityType.ENTREPRISE, entreprise.getId().longValue(),
+                            String.valueOf(entreprise.getId()), e, result);
                 }
             }
+            batch.flush();
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+        return null;
+    }
 
-            // Synchroniser les status
-            List<SignalementStatus> allStatus = signalementStatusRepository.findAllByOrderByOrdreAsc();
-            for (SignalementStatus status : allStatus) {
+    private Void pushStatuses(SyncResult result) {
+        if (result.isCancelled()) {
+            return null;
+        }
+        inTransaction(() -> {
+            PushBatch batch = new PushBatch(result);
+
+            for (SignalementStatus status : signalementStatusRepository.findNotSynced()) {
                 try {
-                    syncStatusToFirebase(status);
-                    result.incrementSuccess("status");
+                    String docId = status.getCode();
+                    Long version = status.getSyncVersion();
+                    batch.add("status", EntityType.SIGNALEMENT_STATUS, status.getId().longValue(), docId,
+                            COLLECTION_STATUS,
+                            buildStatusDocument(status),
+                            firebaseVersion -> markStatusSynced(status.getId(), version));
                 } catch (Exception e) {
                     log.error("Erreur sync status {}: {}", status.getId(), e.getMessage());
-                    result.incrementError("status");
+                    handlePushFailure("status", EntityType.SIGNALEMENT_STATUS, status.getId().longValue(),
+                            status.getCode(), e, result);
                 }
             }
-
-            result.setSuccess(true);
-        } catch (Exception e) {
-            log.error("Erreur globale sync Postgres → Firebase", e);
-            result.setSuccess(false);
-            result.setErrorMessage(e.getMessage());
-        }
-
-        return result;
+            batch.flush();
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+        return null;
     }
 
     /**
      * Synchronise un utilisateur vers Firebase (Auth + Firestore)
      */
     @Transactional
-    public void syncUserToFirebase(User user) throws FirebaseAuthException, ExecutionException, InterruptedException {
+    public void syncUserToFirebase(User user) throws ExecutionException, InterruptedException {
         log.info("Synchronisation user {} vers Firebase", user.getId());
-        Firestore firestore = FirestoreClient.getFirestore();
+        long started = System.nanoTime();
 
         // 1. Créer/Mettre à jour dans Firebase Authentication
-        String firebaseUid;
-        if (user.getFirebaseUid() == null || user.getFirebaseUid().isEmpty()) {
-            PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-
-            // Créer un nouvel utilisateur Firebase Auth
-            UserRecord.CreateRequest request = new UserRecord.CreateRequest()
-                    .setEmail(user.getEmail())
-                    .setPassword(user.getPasswordTemp()) // Mot de passe temporaire
-                    .setDisplayName(user.getName())
-                    .setEmailVerified(false);
-
-            UserRecord firebaseUser = FirebaseAuth.getInstance().createUser(request);
-            firebaseUid = firebaseUser.getUid();
-
-            user.setFirebaseUid(firebaseUid);
-            log.info("Utilisateur créé dans Firebase Auth: {}", firebaseUid);
-        } else {
-            // Mettre à jour l'utilisateur existant
-            firebaseUid = user.getFirebaseUid();
-            UserRecord.UpdateRequest request = new UserRecord.UpdateRequest(firebaseUid)
-                    .setDisplayName(user.getName())
-                    .setEmail(user.getEmail());
+        String firebaseUid = syncUserToFirebaseAuth(user);
+
+        // 2. Synchroniser dans Firestore
+        Map<String, Object> data = buildUserDocument(user, firebaseUid);
+        long firebaseVersion = nextFirebaseVersion(data);
+        writeDocument(FirestoreGateway.DocumentWrite.set(COLLECTION_USERS, firebaseUid, data));
 
-            FirebaseAuth.getInstance().updateUser(request);
-            log.info("Utilisateur mis à jour dans Firebase Auth: {}", firebaseUid);
+        // 3. Marquer comme synchronisé
+        markUserSynced(user, firebaseVersion);
+
+        recordSyncSuccess(EntityType.USER, user.getId(), firebaseUid, elapsedMs(started));
+        log.info("User {} synchronisé avec succès vers Firebase", user.getId());
+    }
+
+    /**
+     * Crée (import avec le hash BCrypt) ou met à jour l'utilisateur dans
+     * Firebase Authentication et retourne son UID Firebase
+     */
+    private String syncUserToFirebaseAuth(User user) throws ExecutionException, InterruptedException {
+        FirebaseAuthProvisioner.Outcome outcome = authProvisioner.provision(List.of(user)).get(user.getId());
+        if (!outcome.isSuccess()) {
+            throw authFailure(outcome);
         }
+        String action = switch (outcome.action()) {
+            case CREATED -> "créé";
+            case LINKED -> "rattaché";
+            default -> "mis à jour";
+        };
+        log.info("Utilisateur {} dans Firebase Auth: {}", action, outcome.firebaseUid());
+        return outcome.firebaseUid();
+    }
 
-        // 2. Synchroniser dans Firestore
+    private static RuntimeException authFailure(FirebaseAuthProvisioner.Outcome outcome) {
+        String message = "Firebase Auth: " + outcome.error();
+        return outcome.permanent() ? new SyncFailures.PermanentSyncException(message) : new IllegalStateException(message);
+    }
+
+    /**
+     * Synchronise un signalement vers Firestore
+     */
+    @Transactional
+    public void syncSignalementToFirebase(Signalement signalement) throws ExecutionException, InterruptedException {
+        log.info("Synchronisation signalement {} vers Firebase", signalement.getId());
+        long started = System.nanoTime();
+
+        // Utiliser l'ID Firebase existant ou en générer un nouveau
+        String docId = getSignalementDocId(signalement);
+
+        Map<String, Object> data = buildSignalementDocument(signalement);
+        long firebaseVersion = nextFirebaseVersion(data);
+        writeDocument(FirestoreGateway.DocumentWrite.set(COLLECTION_SIGNALEMENTS, docId, data));
+
+        // Marquer comme synchronisé
+        markSignalementSynced(signalement, docId, firebaseVersion);
+
+        recordSyncSuccess(EntityType.SIGNALEMENT, signalement.getId(), docId, elapsedMs(started));
+        log.info("Signalement {} synchronisé avec succès vers Firebase", signalement.getId());
+    }
+
+    /**
+     * Synchronise une entreprise vers Firestore
+     */
+    @Transactional
+    public void syncEntrepriseToFirebase(Entreprise entreprise) throws ExecutionException, InterruptedException {
+        log.info("Synchronisation entreprise {} vers Firebase", entreprise.getId());
+
+        String docId = String.valueOf(entreprise.getId());
+        Long version = entreprise.getSyncVersion();
+        Map<String, Object> data = buildEntrepriseDocument(entreprise);
+        long firebaseVersion = nextFirebaseVersion(data);
+        writeDocument(FirestoreGateway.DocumentWrite.set(COLLECTION_ENTREPRISES, docId, data));
+        markEntrepriseSynced(entreprise.getId(), version, firebaseVersion);
+
+        log.info("Entreprise {} synchronisée avec succès vers Firebase", entreprise.getId());
+    }
+
+    /**
+     * Synchronise un status vers Firestore
+     */
+    @Transactional
+    public void syncStatusToFirebase(SignalementStatus status) throws ExecutionException, InterruptedException {
+        log.info("Synchronisation status {} vers Firebase", status.getId());
+
+        String docId = status.getCode();
+        Long version = status.getSyncVersion();
+        writeDocument(FirestoreGateway.DocumentWrite.set(COLLECTION_STATUS, docId,
+                buildStatusDocument(status)));
+        markStatusSynced(status.getId(), version);
+
+        log.info("Status {} synchronisé avec succès vers Firebase", status.getCode());
+    }
+
+    // ==================== CONSTRUCTION DES DOCUMENTS FIRESTORE ====================
+
+    private Map<String, Object> buildUserDocument(User user, String firebaseUid) {
         Map<String, Object> userData = new HashMap<>();
         userData.put("id", user.getId());
         userData.put("email", user.getEmail());
@@ -192,30 +474,11 @@ public class FirebaseSyncService {
         userData.put("createdAt", convertToDate(user.getCreatedAt()));
         userData.put("updatedAt", convertToDate(user.getUpdatedAt()));
         userData.put("syncedAt", new Date());
-
-        DocumentReference docRef = firestore.collection(COLLECTION_USERS).document(firebaseUid);
-        ApiFuture<WriteResult> result = docRef.set(userData);
-        result.get(); // Attendre la fin de l'opération
-
-        // 3. Marquer comme synchronisé
-        user.setFirebaseSynced(true);
-        user.setSyncedAt(LocalDateTime.now());
-        user.setFirebaseSyncError(null);
-        user.setPasswordTemp(user.getPasswordHash());
-        userRepository.save(user);
-
-        recordSyncSuccess(EntityType.USER, user.getId(), firebaseUid);
-        log.info("User {} synchronisé avec succès vers Firebase", user.getId());
+        userData.put(FIELD_VERSION, user.getFirebaseVersion());
+        return userData;
     }
 
-    /**
-     * Synchronise un signalement vers Firestore
-     */
-    @Transactional
-    public void syncSignalementToFirebase(Signalement signalement) throws ExecutionException, InterruptedException {
-        log.info("Synchronisation signalement {} vers Firebase", signalement.getId());
-        Firestore firestore = FirestoreClient.getFirestore();
-
+    private Map<String, Object> buildSignalementDocument(Signalement signalement) {
         Map<String, Object> data = new HashMap<>();
         data.put("id", signalement.getId());
         data.put("description", signalement.getDescription());
@@ -230,37 +493,15 @@ public class FirebaseSyncService {
         data.put("createdAt", convertToDate(signalement.getCreatedAt()));
         data.put("updatedAt", convertToDate(signalement.getUpdatedAt()));
         data.put("syncedAt", new Date());
-        data.put("surface",signalement.getSurface());
-        data.put("budget",signalement.getBudget());
-        data.put("entrepriseId",signalement.getEntreprise().getId());
-
-        // Utiliser l'ID Firebase existant ou en générer un nouveau
-        String docId = signalement.getFirebaseId() != null ?
-                signalement.getFirebaseId() :
-                String.valueOf(signalement.getId());
-
-        DocumentReference docRef = firestore.collection(COLLECTION_SIGNALEMENTS).document(docId);
-        ApiFuture<WriteResult> result = docRef.set(data);
-        result.get();
-
-        // Marquer comme synchronisé
-        signalement.setFirebaseId(docId);
-        signalement.setFirebaseSynced(true);
-        signalement.setLastSyncAt(LocalDateTime.now());
-        signalementRepository.save(signalement);
-
-        recordSyncSuccess(EntityType.SIGNALEMENT, signalement.getId(), docId);
-        log.info("Signalement {} synchronisé avec succès vers Firebase", signalement.getId());
+        // Firestore ne stocke pas de BigDecimal
+        data.put("surface", signalement.getSurface() != null ? signalement.getSurface().doubleValue() : null);
+        data.put("budget", signalement.getBudget() != null ? signalement.getBudget().doubleValue() : null);
+        data.put("entrepriseId", signalement.getEntreprise() != null ? signalement.getEntreprise().getId() : null);
+        data.put(FIELD_VERSION, signalement.getFirebaseVersion());
+        return data;
     }
 
-    /**
-     * Synchronise une entreprise vers Firestore
-     */
-    @Transactional
-    public void syncEntrepriseToFirebase(Entreprise entreprise) throws ExecutionException, InterruptedException {
-        log.info("Synchronisation entreprise {} vers Firebase", entreprise.getId());
-        Firestore firestore = FirestoreClient.getFirestore();
-
+    private Map<String, Object> buildEntrepriseDocument(Entreprise entreprise) {
         Map<String, Object> data = new HashMap<>();
         data.put("id", entreprise.getId());
         data.put("nom", entreprise.getNom());
@@ -277,23 +518,11 @@ public class FirebaseSyncService {
         data.put("createdAt", convertToDate(entreprise.getCreatedAt()));
         data.put("updatedAt", convertToDate(entreprise.getUpdatedAt()));
         data.put("syncedAt", new Date());
-
-        String docId = String.valueOf(entreprise.getId());
-        DocumentReference docRef = firestore.collection(COLLECTION_ENTREPRISES).document(docId);
-        ApiFuture<WriteResult> result = docRef.set(data);
-        result.get();
-
-        log.info("Entreprise {} synchronisée avec succès vers Firebase", entreprise.getId());
+        data.put(FIELD_VERSION, entreprise.getFirebaseVersion());
+        return data;
     }
 
-    /**
-     * Synchronise un status vers Firestore
-     */
-    @Transactional
-    public void syncStatusToFirebase(SignalementStatus status) throws ExecutionException, InterruptedException {
-        log.info("Synchronisation status {} vers Firebase", status.getId());
-        Firestore firestore = FirestoreClient.getFirestore();
-
+    private Map<String, Object> buildStatusDocument(SignalementStatus status) {
         Map<String, Object> data = new HashMap<>();
         data.put("id", status.getId());
         data.put("code", status.getCode());
@@ -302,69 +531,907 @@ public class FirebaseSyncService {
         data.put("ordre", status.getOrdre());
         data.put("color", status.getCouleur());
         data.put("syncedAt", new Date());
+        return data;
+    }
 
-        String docId = status.getCode();
-        DocumentReference docRef = firestore.collection(COLLECTION_STATUS).document(docId);
-        ApiFuture<WriteResult> result = docRef.set(data);
-        result.get();
+    private String getSignalementDocId(Signalement signalement) {
+        return signalement.getFirebaseId() != null ?
+                signalement.getFirebaseId() :
+                String.valueOf(signalement.getId());
+    }
 
-        log.info("Status {} synchronisé avec succès vers Firebase", status.getCode());
+    private void markUserSynced(User user, Long firebaseVersion) {
+        user.setFirebaseVersion(firebaseVersion);
+        user.setFirebaseSynced(true);
+        user.setSyncedAt(LocalDateTime.now());
+        user.setFirebaseSyncError(null);
+        userRepository.save(user);
+    }
+
+    private void markUserSyncFailed(User user, String error) {
+        user.setFirebaseSyncError(error);
+        userRepository.save(user);
+    }
+
+    private void markSignalementSynced(Signalement signalement, String docId, Long firebaseVersion) {
+        signalement.setFirebaseId(docId);
+        signalement.setFirebaseVersion(firebaseVersion);
+        signalement.setFirebaseSynced(true);
+        signalement.setLastSyncAt(LocalDateTime.now());
+        signalementRepository.save(signalement);
+    }
+
+    /**
+     * Enregistre la version poussée : une modification concurrente a déjà
+     * incrémenté syncVersion et reste donc à pousser
+     */
+    private void markEntrepriseSynced(Integer entrepriseId, Long version, Long firebaseVersion) {
+        entrepriseRepository.markSynced(entrepriseId, version != null ? version : 0L, firebaseVersion);
+    }
+
+    private void markStatusSynced(Integer statusId, Long version) {
+        signalementStatusRepository.markSynced(statusId, version != null ? version : 0L);
+    }
+
+    /**
+     * Version à écrire pour un document versionné : version de base + 1.
+     * Met à jour le champ du document et retourne la nouvelle version.
+     */
+    private static long nextFirebaseVersion(Map<String, Object> data) {
+        Object base = data.get(FIELD_VERSION);
+        long version = (base instanceof Number number ? number.longValue() : 0L) + 1;
+        data.put(FIELD_VERSION, version);
+        return version;
+    }
+
+    // ==================== ÉCRITURES FIRESTORE PAR BATCH ====================
+
+    /**
+     * Accumule les écritures Firestore et les valide par WriteBatch.
+     * Le callback de chaque entrée (marquage firebaseSynced) n'est exécuté
+     * qu'après la validation du batch qui la contient ; en cas d'échec du
+     * commit, toutes les entités du batch sont enregistrées en erreur.
+     * Quand une empreinte du dernier push existe ({@code sync.push.delta-enabled}),
+     * seuls les champs modifiés sont envoyés (mise à jour du document
+     * existant) et un document inchangé n'est pas réécrit ; si le document a
+     * été supprimé dans Firestore entre-temps, il est réécrit en entier.
+     */
+    private class PushBatch {
+        private final SyncResult result;
+        private final List<PushEntry> entries = new ArrayList<>();
+
+        PushBatch(SyncResult result) {
+            this.result = result;
+        }
+
+        void add(String category, EntityType entityType, Long entityId, String documentId,
+                 String collectionName, Map<String, Object> data, Consumer<Long> onCommitted) {
+            add(category, entityType, entityId, documentId, collectionName, data, onCommitted, null);
+        }
+
+        /**
+         * @param data        document à écrire, ou null pour supprimer le document ;
+         *                    s'il contient le champ version, celui-ci porte la
+         *                    version de base et est incrémenté à l'écriture
+         * @param onCommitted appelé après validation avec la version du document
+         *                    (null si le document n'est pas versionné)
+         * @param onFailed    appelé avec l'erreur si l'écriture échoue ; à défaut,
+         *                    une erreur permanente met l'entité en quarantaine
+         */
+        void add(String category, EntityType entityType, Long entityId, String documentId,
+                 String collectionName, Map<String, Object> data,
+                 Consumer<Long> onCommitted, Consumer<Exception> onFailed) {
+            entries.add(new PushEntry(category, entityType, entityId, documentId, collectionName, data, onCommitted, onFailed));
+            if (entries.size() >= getPushBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (entries.isEmpty()) {
+                return;
+            }
+
+            List<PushEntry> pending = new ArrayList<>(entries);
+            entries.clear();
+
+            // Delta : comparer chaque document à l'empreinte du dernier push
+            // (sans transaction englobante, lecture et enregistrement des états
+            // ont chacun leur transaction courte, l'appel Firestore aucune)
+            Map<String, SyncDocumentState> states = inTransaction(() -> loadDocumentStates(pending));
+            List<Map<String, String>> fingerprints = new ArrayList<>();
+            List<Long> versions = new ArrayList<>();
+            List<FirestoreGateway.DocumentWrite> writes = new ArrayList<>();
+            // Index dans pending de l'entrée à l'origine de chaque écriture
+            List<Integer> writeOwners = new ArrayList<>();
+            // Document complet de chaque écriture delta, réécrit si le document n'existe plus
+            Map<Integer, FirestoreGateway.DocumentWrite> fullWrites = new HashMap<>();
+            int skipped = 0;
+
+            for (int index = 0; index < pending.size(); index++) {
+                PushEntry entry = pending.get(index);
+                if (entry.data() == null) {
+                    fingerprints.add(null);
+                    versions.add(null);
+                    writes.add(FirestoreGateway.DocumentWrite.delete(entry.collectionName(), entry.documentId()));
+                    writeOwners.add(index);
+                    continue;
+                }
+
+                Map<String, String> fingerprint = DocumentFingerprints.of(entry.data(), VOLATILE_FIELDS);
+                fingerprints.add(fingerprint);
+                SyncDocumentState state = states.get(entry.documentKey());
+                boolean versioned = entry.data().containsKey(FIELD_VERSION);
+                Long baseVersion = versioned && entry.data().get(FIELD_VERSION) instanceof Number number ?
+                        number.longValue() : null;
+
+                if (!deltaPushEnabled || state == null) {
+                    versions.add(versioned ? nextFirebaseVersion(entry.data()) : null);
+                    writes.add(FirestoreGateway.DocumentWrite.set(entry.collectionName(), entry.documentId(), entry.data()));
+                    writeOwners.add(index);
+                    continue;
+                }
+
+                Set<String> changedFields = DocumentFingerprints.changedFields(state.getFieldHashes(), fingerprint);
+                // Document inchangé : aucune écriture, la version Firestore reste la même
+                if (changedFields.isEmpty() && (!versioned || baseVersion != null)) {
+                    skipped++;
+                    versions.add(baseVersion);
+                    result.incrementSkipped(entry.category());
+                    syncMetrics.recordWrites(entry.collectionName(), SyncMetrics.OUTCOME_SKIPPED, 1);
+                    continue;
+                }
+
+                Map<String, Object> delta = new HashMap<>();
+                Set<String> removedFields = new HashSet<>();
+                for (String field : changedFields) {
+                    if (entry.data().containsKey(field)) {
+                        delta.put(field, entry.data().get(field));
+                    } else {
+                        removedFields.add(field);
+                    }
+                }
+                delta.put("syncedAt", new Date());
+                if (versioned) {
+                    long version = nextFirebaseVersion(entry.data());
+                    delta.put(FIELD_VERSION, version);
+                    versions.add(version);
+                } else {
+                    versions.add(null);
+                }
+                Map<String, Object> full = new HashMap<>(entry.data());
+                full.putAll(delta);
+                fullWrites.put(writes.size(), FirestoreGateway.DocumentWrite.set(entry.collectionName(), entry.documentId(), full));
+                writes.add(FirestoreGateway.DocumentWrite.merge(entry.collectionName(), entry.documentId(), delta, removedFields));
+                writeOwners.add(index);
+            }
+
+            // Durée du commit, attribuée à chaque entité du batch
+            long started = System.nanoTime();
+            Map<Integer, Exception> failures = writes.isEmpty() ? Map.of()
+                    : commit(writes, writeOwners, fullWrites, started);
+            if (!writes.isEmpty()) {
+                log.info("Batch Firestore validé: {} écritures ({} en échec), {} documents inchangés",
+                        writes.size(), failures.size(), skipped);
+            } else {
+                log.info("Batch Firestore ignoré: {} documents inchangés", skipped);
+            }
+            Integer durationMs = elapsedMs(started);
+            inTransaction(() -> {
+                recordCommitted(pending, states, fingerprints, versions, failures, durationMs);
+                return null;
+            });
+        }
+
+        /**
+         * Enregistre les empreintes des documents écrits et notifie chaque
+         * entrée du résultat de son écriture
+         */
+        private void recordCommitted(List<PushEntry> pending, Map<String, SyncDocumentState> states,
+                                     List<Map<String, String>> fingerprints, List<Long> versions,
+                                     Map<Integer, Exception> failures, Integer durationMs) {
+            List<SyncDocumentState> updatedStates = new ArrayList<>();
+            List<SyncDocumentState> deletedStates = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                PushEntry entry = pending.get(i);
+                if (failures.containsKey(i)) {
+                    fail(entry, failures.get(i), durationMs);
+                    continue;
+                }
+                SyncDocumentState state = states.get(entry.documentKey());
+                if (entry.data() == null) {
+                    if (state != null) {
+                        deletedStates.add(state);
+                    }
+                } else {
+                    if (state == null) {
+                        state = SyncDocumentState.builder()
+                                .collectionName(entry.collectionName())
+                                .documentId(entry.documentId())
+                                .build();
+                    }
+                    state.setFieldHashes(fingerprints.get(i));
+                    state.setContentHash(DocumentFingerprints.hash(fingerprints.get(i)));
+                    state.setPushedAt(LocalDateTime.now());
+                    updatedStates.add(state);
+                }
+
+                try {
+                    if (entry.onCommitted() != null) {
+                        entry.onCommitted().accept(versions.get(i));
+                    }
+                    result.incrementSuccess(entry.category());
+                    recordSyncSuccess(entry.entityType(), entry.entityId(), entry.documentId(), durationMs);
+                } catch (Exception e) {
+                    log.error("Erreur marquage {} {}: {}", entry.entityType(), entry.entityId(), e.getMessage());
+                    fail(entry, e, null);
+                }
+            }
+            syncDocumentStateRepository.saveAll(updatedStates);
+            syncDocumentStateRepository.deleteAll(deletedStates);
+        }
+
+        /**
+         * Valide le WriteBatch. S'il est refusé pour une erreur permanente (un
+         * document invalide ou supprimé suffit à faire échouer tout le lot), les
+         * écritures sont rejouées une à une pour n'isoler que les documents en
+         * cause ; une écriture delta sur un document supprimé est remplacée par
+         * le document complet.
+         *
+         * @param fullWrites document complet de chaque écriture delta, par index dans writes
+         * @return erreur par index (dans pending) des entrées en échec
+         */
+        private Map<Integer, Exception> commit(List<FirestoreGateway.DocumentWrite> writes, List<Integer> writeOwners,
+                                               Map<Integer, FirestoreGateway.DocumentWrite> fullWrites, long started) {
+            Map<Integer, Exception> failures = new HashMap<>();
+            try {
+                firestoreGateway.commit(writes);
+                syncMetrics.recordLatency(SyncMetrics.OPERATION_COMMIT, started);
+                countWrites(writes, SyncMetrics.OUTCOME_SUCCESS);
+                return failures;
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                syncMetrics.recordLatency(SyncMetrics.OPERATION_COMMIT, started);
+                boolean replayable = writes.size() > 1 || isMissingDocument(e);
+                if (!replayable || !SyncFailures.isPermanent(e) || Thread.currentThread().isInterrupted()) {
+                    log.error("Échec du batch Firestore ({} écritures): {}", writes.size(), SyncFailures.message(e));
+                    countWrites(writes, SyncMetrics.OUTCOME_ERROR);
+                    writeOwners.forEach(index -> failures.put(index, e));
+                    return failures;
+                }
+                log.warn("Batch Firestore refusé ({}), écritures rejouées une à une", SyncFailures.message(e));
+            }
+
+            for (int i = 0; i < writes.size(); i++) {
+                try {
+                    try {
+                        writeDocument(writes.get(i));
+                    } catch (ExecutionException e) {
+                        if (!isMissingDocument(e) || !fullWrites.containsKey(i)) {
+                            throw e;
+                        }
+                        log.warn("Document {}/{} supprimé dans Firestore, réécrit en entier",
+                                writes.get(i).collectionName(), writes.get(i).documentId());
+                        writeDocument(fullWrites.get(i));
+                    }
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    failures.put(writeOwners.get(i), e);
+                }
+            }
+            return failures;
+        }
+
+        private boolean isMissingDocument(Exception error) {
+            return error instanceof ExecutionException
+                    && error.getCause() instanceof FirestoreGateway.MissingDocumentException;
+        }
+
+        private void fail(PushEntry entry, Exception error, Integer durationMs) {
+            if (entry.onFailed() != null) {
+                result.incrementError(entry.category());
+                recordSyncError(entry.entityType(), entry.entityId(), SyncFailures.message(error), durationMs);
+                entry.onFailed().accept(error);
+            } else {
+                handlePushFailure(entry.category(), entry.entityType(), entry.entityId(), entry.documentId(),
+                        entry.data(), error, result);
+            }
+        }
+
+        private Map<String, SyncDocumentState> loadDocumentStates(List<PushEntry> pending) {
+            Map<String, Set<String>> docIdsByCollection = new HashMap<>();
+            for (PushEntry entry : pending) {
+                docIdsByCollection.computeIfAbsent(entry.collectionName(), k -> new HashSet<>())
+                        .add(entry.documentId());
+            }
+
+            Map<String, SyncDocumentState> states = new HashMap<>();
+            docIdsByCollection.forEach((collection, docIds) ->
+                    syncDocumentStateRepository.findByCollectionNameAndDocumentIdIn(collection, docIds)
+                            .forEach(state -> states.put(state.getCollectionName() + "/" + state.getDocumentId(), state)));
+            return states;
+        }
+    }
+
+    private void countWrites(List<FirestoreGateway.DocumentWrite> writes, String outcome) {
+        writes.stream()
+                .collect(Collectors.groupingBy(FirestoreGateway.DocumentWrite::collectionName, Collectors.counting()))
+                .forEach((collection, count) -> syncMetrics.recordWrites(collection, outcome, count.intValue()));
+    }
+
+    /**
+     * Écriture Firestore unitaire (synchronisation d'une seule entité), mesurée
+     */
+    private void writeDocument(FirestoreGateway.DocumentWrite write) throws ExecutionException, InterruptedException {
+        long started = System.nanoTime();
+        try {
+            firestoreGateway.write(write);
+            syncMetrics.recordWrites(write.collectionName(), SyncMetrics.OUTCOME_SUCCESS, 1);
+        } catch (ExecutionException | RuntimeException e) {
+            syncMetrics.recordWrites(write.collectionName(), SyncMetrics.OUTCOME_ERROR, 1);
+            throw e;
+        } finally {
+            syncMetrics.recordLatency(SyncMetrics.OPERATION_WRITE, started);
+        }
+    }
+
+    private record PushEntry(String category, EntityType entityType, Long entityId, String documentId,
+                             String collectionName, Map<String, Object> data,
+                             Consumer<Long> onCommitted, Consumer<Exception> onFailed) {
+
+        String documentKey() {
+            return collectionName + "/" + documentId;
+        }
+    }
+
+    // ==================== OUTBOX (SYNC_QUEUE) ====================
+
+    /**
+     * Pousse vers Firebase les lignes de l'outbox réclamées par un worker.
+     * Chaque ligne passe en SUCCESS une fois le batch Firestore validé ;
+     * en cas d'échec elle est replanifiée via {@link SyncQueue#incrementRetry()}
+     * ou passe en FAILED quand le nombre maximal de tentatives est atteint.
+     * Lignes et entités sont lues dans une transaction courte ; Firebase Auth
+     * et Firestore sont appelés hors transaction, les états étant enregistrés
+     * après validation de chaque batch (voir {@link PushBatch#flush()}).
+     */
+    public SyncResult processQueueEntries(List<Long> queueIds) {
+        SyncResult result = new SyncResult();
+        List<QueuedWrite> queuedWrites = inTransaction(() -> prepareQueueEntries(queueIds, result));
+
+        PushBatch batch = new PushBatch(result);
+        for (QueuedWrite queued : queuedWrites) {
+            try {
+                addQueueEntryToBatch(batch, queued);
+            } catch (Exception e) {
+                rejectQueueEntry(queued.entry(), e, result);
+            }
+        }
+
+        batch.flush();
+        return result;
+    }
+
+    /**
+     * Écriture préparée pour une ligne de l'outbox ; pour un utilisateur, le
+     * document est construit une fois son UID Firebase Auth connu
+     */
+    private record QueuedWrite(SyncQueue entry, String category, String collectionName, String documentId,
+                               Map<String, Object> data, User user, Consumer<Long> onCommitted) {
+    }
+
+    private List<QueuedWrite> prepareQueueEntries(List<Long> queueIds, SyncResult result) {
+        List<QueuedWrite> queuedWrites = new ArrayList<>();
+        for (SyncQueue entry : coalesceQueueEntries(syncQueueRepository.findAllById(queueIds), result)) {
+            try {
+                QueuedWrite queued = prepareQueueEntry(entry);
+                if (queued != null) {
+                    queuedWrites.add(queued);
+                }
+            } catch (Exception e) {
+                rejectQueueEntry(entry, e, result);
+            }
+        }
+        return queuedWrites;
+    }
+
+    private void rejectQueueEntry(SyncQueue entry, Exception error, SyncResult result) {
+        log.error("Erreur outbox {} {}: {}", entry.getEntityType(), entry.getEntityId(), error.getMessage());
+        result.incrementError("queue");
+        inTransaction(() -> {
+            recordSyncError(entry.getEntityType(), entry.getEntityId(), SyncFailures.message(error));
+            failQueueEntry(entry, error);
+            return null;
+        });
+    }
+
+    /**
+     * Fusionne les entrées d'un même lot qui concernent la même entité
+     * (doublons créés par des transactions concurrentes) : seule la plus
+     * récente est poussée, les autres passent directement en SUCCESS.
+     */
+    private Collection<SyncQueue> coalesceQueueEntries(List<SyncQueue> entries, SyncResult result) {
+        Map<String, SyncQueue> latestByEntity = new LinkedHashMap<>();
+        entries.stream()
+                .sorted(Comparator.comparing(SyncQueue::getId))
+                .forEach(entry -> {
+                    String key = entry.getEntityType() + ":" + entry.getEntityId();
+                    SyncQueue previous = latestByEntity.put(key, entry);
+                    if (previous != null) {
+                        entry.absorbOlder(previous);
+                        previous.setCoalescedCount(0);
+                        previous.markSuccess();
+                        previous.setErrorMessage("Fusionnée dans l'entrée " + entry.getId());
+                        syncQueueRepository.save(previous);
+                        result.incrementSuccess("queue_coalesced");
+                    }
+                });
+
+        if (entries.size() > latestByEntity.size()) {
+            log.info("Outbox: {} entrées fusionnées, {} écritures Firestore évitées",
+                    entries.size(), entries.size() - latestByEntity.size());
+        }
+        return latestByEntity.values();
+    }
+
+    /**
+     * Charge l'entité d'une ligne et construit son document (dans la
+     * transaction de lecture) ; les marquages sont faits sur l'entité relue
+     * à la validation, pour ne pas écraser une modification concurrente
+     *
+     * @return null si la ligne est annulée (entité supprimée)
+     */
+    private QueuedWrite prepareQueueEntry(SyncQueue entry) {
+        Long entityId = entry.getEntityId();
+
+        if (entry.getAction() == SyncAction.DELETE) {
+            String collection = getCollectionName(entry.getEntityType());
+            String docId = entry.getFirebaseId() != null ? entry.getFirebaseId() : String.valueOf(entityId);
+            if (collection == null) {
+                cancelQueueEntry(entry, "Type d'entité non synchronisé: " + entry.getEntityType());
+                return null;
+            }
+            return new QueuedWrite(entry, collection, collection, docId, null, null,
+                    firebaseVersion -> completeQueueEntry(entry));
+        }
+
+        switch (entry.getEntityType()) {
+            case USER -> {
+                User user = userRepository.findById(entityId).orElse(null);
+                if (user == null) {
+                    cancelQueueEntry(entry, "Utilisateur supprimé");
+                    return null;
+                }
+                return new QueuedWrite(entry, "users", COLLECTION_USERS, null, null, user,
+                        firebaseVersion -> {
+                            userRepository.findById(entityId).ifPresent(synced -> {
+                                synced.setFirebaseUid(user.getFirebaseUid());
+                                markUserSynced(synced, firebaseVersion);
+                            });
+                            completeQueueEntry(entry);
+                        });
+            }
+            case SIGNALEMENT -> {
+                Signalement signalement = signalementRepository.findById(entityId).orElse(null);
+                if (signalement == null) {
+                    cancelQueueEntry(entry, "Signalement supprimé");
+                    return null;
+                }
+                String docId = getSignalementDocId(signalement);
+                return new QueuedWrite(entry, "signalements", COLLECTION_SIGNALEMENTS, docId,
+                        buildSignalementDocument(signalement), null,
+                        firebaseVersion -> {
+                            signalementRepository.findById(entityId)
+                                    .ifPresent(synced -> markSignalementSynced(synced, docId, firebaseVersion));
+                            completeQueueEntry(entry);
+                        });
+            }
+            case ENTREPRISE -> {
+                Entreprise entreprise = entrepriseRepository.findById(entityId.intValue()).orElse(null);
+                if (entreprise == null) {
+                    cancelQueueEntry(entry, "Entreprise supprimée");
+                    return null;
+                }
+                Long version = entreprise.getSyncVersion();
+                return new QueuedWrite(entry, "entreprises", COLLECTION_ENTREPRISES, String.valueOf(entreprise.getId()),
+                        buildEntrepriseDocument(entreprise), null,
+                        firebaseVersion -> {
+                            markEntrepriseSynced(entreprise.getId(), version, firebaseVersion);
+                            completeQueueEntry(entry);
+                        });
+            }
+            case SIGNALEMENT_STATUS -> {
+                SignalementStatus status = signalementStatusRepository.findById(entityId.intValue()).orElse(null);
+                if (status == null) {
+                    cancelQueueEntry(entry, "Status supprimé");
+                    return null;
+                }
+                Long version = status.getSyncVersion();
+                return new QueuedWrite(entry, "status", COLLECTION_STATUS, status.getCode(),
+                        buildStatusDocument(status), null,
+                        firebaseVersion -> {
+                            markStatusSynced(status.getId(), version);
+                            completeQueueEntry(entry);
+                        });
+            }
+            default -> {
+                cancelQueueEntry(entry, "Type d'entité non synchronisé: " + entry.getEntityType());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Ajoute une écriture préparée au batch, hors transaction : l'UID d'un
+     * utilisateur est obtenu de Firebase Auth avant de construire son document
+     */
+    private void addQueueEntryToBatch(PushBatch batch, QueuedWrite queued) throws ExecutionException, InterruptedException {
+        SyncQueue entry = queued.entry();
+        String documentId = queued.documentId();
+        Map<String, Object> data = queued.data();
+        if (queued.user() != null) {
+            documentId = syncUserToFirebaseAuth(queued.user());
+            data = buildUserDocument(queued.user(), documentId);
+        }
+        batch.add(queued.category(), entry.getEntityType(), entry.getEntityId(), documentId,
+                queued.collectionName(), data, queued.onCommitted(), error -> failQueueEntry(entry, error));
+    }
+
+    private String getCollectionName(EntityType entityType) {
+        return switch (entityType) {
+            case USER -> COLLECTION_USERS;
+            case SIGNALEMENT -> COLLECTION_SIGNALEMENTS;
+            case ENTREPRISE -> COLLECTION_ENTREPRISES;
+            case SIGNALEMENT_STATUS -> COLLECTION_STATUS;
+            default -> null;
+        };
+    }
+
+    private void completeQueueEntry(SyncQueue entry) {
+        entry.markSuccess();
+        syncQueueRepository.save(entry);
+        // L'entité est de nouveau synchronisée : sa quarantaine éventuelle est levée
+        syncQueueRepository.resolveDeadLetters(entry.getEntityType(), entry.getEntityId(),
+                "Résolue par l'entrée " + entry.getId());
+    }
+
+    private void cancelQueueEntry(SyncQueue entry, String reason) {
+        log.info("Entrée outbox {} annulée: {}", entry.getId(), reason);
+        entry.setStatus(SyncStatus.CANCELLED);
+        entry.setErrorMessage(reason);
+        entry.setProcessedAt(LocalDateTime.now());
+        syncQueueRepository.save(entry);
+    }
+
+    /**
+     * Une erreur transitoire replanifie l'entrée ; une erreur permanente, ou
+     * la dernière tentative épuisée, la met en quarantaine (DEAD_LETTER)
+     */
+    private void failQueueEntry(SyncQueue entry, Exception error) {
+        String message = SyncFailures.message(error);
+        SyncFailureKind kind = SyncFailures.classify(error);
+        entry.setErrorMessage(message);
+        entry.setFailureKind(kind);
+        if (kind == SyncFailureKind.TRANSIENT && entry.canRetry()) {
+            entry.incrementRetry();
+            syncMetrics.recordRetry(entry.getEntityType());
+        } else {
+            entry.markDeadLetter(kind, kind == SyncFailureKind.PERMANENT ? message : "Tentatives épuisées: " + message,
+                    entry.getDataSnapshot() == null ? failureSnapshot(error) : null);
+            syncMetrics.recordDeadLetter(entry.getEntityType());
+            log.warn("Entrée outbox {} ({} {}) mise en quarantaine: {}",
+                    entry.getId(), entry.getEntityType(), entry.getEntityId(), message);
+        }
+        syncQueueRepository.save(entry);
+    }
+
+    // ==================== QUARANTAINE ====================
+
+    /**
+     * Échec d'une entité poussée hors outbox : une erreur permanente la met en
+     * quarantaine (ligne sync_queue DEAD_LETTER avec l'erreur et un instantané),
+     * les push suivants l'ignorent jusqu'à son rejeu ; une erreur transitoire
+     * sera retentée au prochain push.
+     */
+    private void handlePushFailure(String category, EntityType entityType, Long entityId, String firebaseId,
+                                   Exception error, SyncResult result) {
+        handlePushFailure(category, entityType, entityId, firebaseId, null, error, result);
+    }
+
+    private void handlePushFailure(String category, EntityType entityType, Long entityId, String firebaseId,
+                                   Map<String, Object> document, Exception error, SyncResult result) {
+        String message = SyncFailures.message(error);
+        result.incrementError(category);
+        result.recordFailure(category, entityId, message);
+        recordSyncError(entityType, entityId, message);
+        if (!SyncFailures.isPermanent(error)
+                || syncQueueRepository.existsByEntityTypeAndEntityIdAndStatus(entityType, entityId, SyncStatus.DEAD_LETTER)) {
+            return;
+        }
+
+        SyncQueue entry = SyncQueue.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .firebaseId(firebaseId)
+                .action(SyncAction.UPDATE)
+                .direction(SyncDirection.POSTGRES_TO_FIREBASE)
+                .build();
+        entry.markDeadLetter(SyncFailureKind.PERMANENT, message,
+                document != null ? toSnapshot(document) : failureSnapshot(error));
+        syncQueueRepository.save(entry);
+        syncMetrics.recordDeadLetter(entityType);
+        log.warn("{} {} mis en quarantaine: {}", entityType, entityId, message);
+    }
+
+    /**
+     * Échec d'application d'un document lu dans Firestore : une erreur
+     * permanente met le document en quarantaine avec son contenu ; il est
+     * ignoré par les pulls suivants tant qu'il n'est pas modifié dans Firestore.
+     */
+    private void handlePullFailure(String category, EntityType entityType, FirestoreGateway.FirestoreDocument document,
+                                   Long localId, Exception error, SyncResult result) {
+        String message = SyncFailures.message(error);
+        log.error("Erreur traitement {} Firebase {}: {}", category, document.id(), message);
+        result.incrementError(category);
+        result.recordFailure(category, localId, message);
+        if (!SyncFailures.isPermanent(error)) {
+            return;
+        }
+
+        SyncQueue entry = syncQueueRepository.findFirstByDirectionAndEntityTypeAndFirebaseIdAndStatus(
+                        SyncDirection.FIREBASE_TO_POSTGRES, entityType, document.id(), SyncStatus.DEAD_LETTER)
+                .orElseGet(() -> SyncQueue.builder()
+                        .entityType(entityType)
+                        .entityId(localId != null ? localId : 0L)
+                        .firebaseId(document.id())
+                        .action(SyncAction.UPDATE)
+                        .direction(SyncDirection.FIREBASE_TO_POSTGRES)
+                        .build());
+        entry.markDeadLetter(SyncFailureKind.PERMANENT, message, toSnapshot(document.data()));
+        entry.setSnapshotHash(documentHash(document));
+        syncQueueRepository.save(entry);
+        syncMetrics.recordDeadLetter(entityType);
+    }
+
+    /**
+     * Documents de la page en quarantaine et inchangés depuis leur mise en quarantaine
+     */
+    private Set<String> quarantinedDocuments(EntityType entityType, List<FirestoreGateway.FirestoreDocument> documents) {
+        Map<String, FirestoreGateway.FirestoreDocument> byId = new HashMap<>();
+        documents.forEach(document -> byId.put(document.id(), document));
+
+        Set<String> quarantined = new HashSet<>();
+        for (SyncQueue entry : syncQueueRepository.findByDirectionAndEntityTypeAndStatusAndFirebaseIdIn(
+                SyncDirection.FIREBASE_TO_POSTGRES, entityType, SyncStatus.DEAD_LETTER, byId.keySet())) {
+            FirestoreGateway.FirestoreDocument document = byId.get(entry.getFirebaseId());
+            if (document != null && documentHash(document).equals(entry.getSnapshotHash())) {
+                quarantined.add(document.id());
+            }
+        }
+        return quarantined;
+    }
+
+    /**
+     * Réapplique, avec les mappers du pull, l'instantané (éventuellement
+     * corrigé) d'un document Firestore en quarantaine
+     *
+     * @return true si le document a été appliqué ; sinon l'entrée reste en
+     * quarantaine avec la nouvelle erreur
+     */
+    public boolean replayPulledDocument(Long queueId) {
+        return Boolean.TRUE.equals(inTransaction(() -> {
+            SyncQueue entry = syncQueueRepository.findById(queueId)
+                    .orElseThrow(() -> new IllegalArgumentException("Entrée introuvable: " + queueId));
+            // Empreinte effacée : le document n'est plus ignoré par le mapper
+            entry.setSnapshotHash(null);
+            Map<String, Object> data = entry.getDataSnapshot() != null ? entry.getDataSnapshot() : Map.of();
+            List<FirestoreGateway.FirestoreDocument> documents =
+                    List.of(new FirestoreGateway.FirestoreDocument(entry.getFirebaseId(), new HashMap<>(data)));
+
+            SyncResult result = new SyncResult();
+            switch (entry.getEntityType()) {
+                case USER -> applyUserDocuments(documents, result, new HashMap<>());
+                case SIGNALEMENT -> {
+                    ReferenceLookups lookups = new ReferenceLookups();
+                    lookups.preloadUsers(documents);
+                    applySignalementDocuments(documents, result, lookups);
+                }
+                case ENTREPRISE -> applyEntrepriseDocuments(documents, result);
+                default -> throw new IllegalArgumentException("Type non rejouable: " + entry.getEntityType());
+            }
+
+            if (result.getTotalErrors() > 0) {
+                return false;
+            }
+            entry.markSuccess();
+            syncQueueRepository.save(entry);
+            return true;
+        }));
+    }
+
+    /**
+     * Instantané stockable en jsonb : dates Firestore converties en ISO-8601
+     */
+    private static Map<String, Object> toSnapshot(Map<String, Object> data) {
+        Map<String, Object> snapshot = new HashMap<>();
+        data.forEach((field, value) -> {
+            if (value instanceof Timestamp timestamp) {
+                snapshot.put(field, timestamp.toDate().toInstant().toString());
+            } else if (value instanceof Date date) {
+                snapshot.put(field, date.toInstant().toString());
+            } else {
+                snapshot.put(field, value);
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Instantané minimal quand le document n'a pas pu être construit :
+     * type d'erreur et ligne qui l'a levée
+     */
+    private static Map<String, Object> failureSnapshot(Throwable error) {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("exception", error.getClass().getName());
+        if (error.getStackTrace().length > 0) {
+            snapshot.put("at", error.getStackTrace()[0].toString());
+        }
+        return snapshot;
+    }
+
+    private static String documentHash(FirestoreGateway.FirestoreDocument document) {
+        return DocumentFingerprints.hash(DocumentFingerprints.of(document.data(), Set.of()));
     }
 
     // ==================== FIREBASE → POSTGRES ====================
 
     /**
      * Synchronise toutes les entités de Firebase vers PostgreSQL
+     * (mode incrémental : seuls les documents modifiés depuis le dernier pull)
      */
-    @Transactional
     public SyncResult syncFirebaseToPostgres() {
-        SyncResult result = new SyncResult();
+        return syncFirebaseToPostgres(false);
+    }
+
+    /**
+     * Synchronise toutes les entités de Firebase vers PostgreSQL.
+     * Utilisateurs et entreprises sont lus en parallèle, puis les signalements
+     * (qui référencent les deux) ; chaque page est appliquée dans sa propre
+     * transaction (voir {@link #pullPages}).
+     *
+     * @param fullPull true pour ignorer les watermarks et tout re-télécharger
+     */
+    public SyncResult syncFirebaseToPostgres(boolean fullPull) {
+        return syncFirebaseToPostgres(fullPull, new SyncResult());
+    }
+
+    public SyncResult syncFirebaseToPostgres(boolean fullPull, SyncResult result) {
+        SyncResult pulled = result.child("fb_to_pg_");
 
         try {
-            // Synchroniser les utilisateurs
-            result.addFirebaseToPostgres(syncUsersFromFirebase());
+            // Synchroniser les utilisateurs et les entreprises
+            runInParallel(List.of(
+                    () -> {
+                        syncUsersFromFirebase(fullPull, pulled);
+                        return null;
+                    },
+                    () -> {
+                        syncEntreprisesFromFirebase(fullPull, pulled);
+                        return null;
+                    }
+            ));
 
             // Synchroniser les signalements
-            result.addFirebaseToPostgres(syncSignalementsFromFirebase());
+            if (!result.isCancelled()) {
+                syncSignalementsFromFirebase(fullPull, pulled);
+            }
+
+            result.setSuccess(true);
+        } catch (Exception e) {
+            log.error("Erreur globale sync Firebase → Postgres", e);
+            result.setSuccess(false);
+            result.setErrorMessage(e.getMessage());
+        }
 
-            // Synchroniser les entreprises
-            result.addFirebaseToPostgres(syncEntreprisesFromFirebase());
+        return result;
+    }
 
+    /**
+     * Récupère une seule collection ({@code users}, {@code signalements} ou
+     * {@code entreprises}) depuis Firebase, dans un résultat fourni par
+     * l'appelant (job en arrière-plan)
+     */
+    public SyncResult syncCollectionFromFirebase(String collectionName, boolean fullPull, SyncResult result) {
+        if (!LISTENED_COLLECTIONS.contains(collectionName)) {
+            throw new IllegalArgumentException("Collection non synchronisée: " + collectionName);
+        }
+        try {
+            switch (collectionName) {
+                case COLLECTION_USERS -> syncUsersFromFirebase(fullPull, result);
+                case COLLECTION_SIGNALEMENTS -> syncSignalementsFromFirebase(fullPull, result);
+                default -> syncEntreprisesFromFirebase(fullPull, result);
+            }
             result.setSuccess(true);
         } catch (Exception e) {
-            log.error("Erreur globale sync Firebase → Postgres", e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Erreur récupération {} depuis Firebase", collectionName, e);
             result.setSuccess(false);
             result.setErrorMessage(e.getMessage());
         }
-
         return result;
     }
 
+    public SyncResult syncUsersFromFirebase() throws ExecutionException, InterruptedException {
+        return syncUsersFromFirebase(false);
+    }
+
     /**
      * Synchronise les utilisateurs depuis Firebase vers PostgreSQL
      */
-    @Transactional
-    public SyncResult syncUsersFromFirebase() throws ExecutionException, InterruptedException {
-        log.info("Synchronisation utilisateurs depuis Firebase");
-        SyncResult result = new SyncResult();
-        Firestore firestore = FirestoreClient.getFirestore();
+    public SyncResult syncUsersFromFirebase(boolean fullPull) throws ExecutionException, InterruptedException {
+        return syncUsersFromFirebase(fullPull, new SyncResult());
+    }
+
+    private SyncResult syncUsersFromFirebase(boolean fullPull, SyncResult result)
+            throws ExecutionException, InterruptedException {
+        log.info("Synchronisation utilisateurs depuis Firebase (full: {})", fullPull);
+        Map<String, Role> rolesByCode = new HashMap<>();
+
+        pullCollection(COLLECTION_USERS, fullPull, result,
+                documents -> applyUserDocuments(documents, result, rolesByCode));
+
+        return result;
+    }
 
-        // Récupérer tous les documents de la collection users
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_USERS).get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+    private void applyUserDocuments(List<FirestoreGateway.FirestoreDocument> documents, SyncResult result,
+                                    Map<String, Role> rolesByCode) {
+        // Utilisateurs existants de la page en une requête IN
+        Map<String, User> usersByUid = new HashMap<>();
+        Set<String> uids = documents.stream()
+                .map(FirestoreGateway.FirestoreDocument::id)
+                .collect(Collectors.toSet());
+        for (User user : userRepository.findByFirebaseUidIn(uids)) {
+            usersByUid.put(user.getFirebaseUid(), user);
+        }
+        Set<String> quarantined = quarantinedDocuments(EntityType.USER, documents);
 
-        for (QueryDocumentSnapshot document : documents) {
+        for (FirestoreGateway.FirestoreDocument document : documents) {
+            if (quarantined.contains(document.id())) {
+                result.incrementSkipped("users_quarantined");
+                continue;
+            }
             try {
-                Map<String, Object> data = document.getData();
-                String firebaseUid = document.getId();
+                Map<String, Object> data = document.data();
+                String firebaseUid = document.id();
 
                 // Vérifier si l'utilisateur existe déjà
-                Optional<User> existingUser = userRepository.findByFirebaseUid(firebaseUid);
+                Optional<User> existingUser = Optional.ofNullable(usersByUid.get(firebaseUid));
 
                 if (existingUser.isPresent()) {
                     // Mise à jour de l'utilisateur existant
                     User user = existingUser.get();
+                    PullDecision decision = comparePulledVersion(EntityType.USER, user.getId(),
+                            user.getFirebaseVersion(), !Boolean.TRUE.equals(user.getFirebaseSynced()),
+                            user.getUpdatedAt(), document);
+                    if (decision == PullDecision.UNCHANGED) {
+                        result.incrementSkipped("users");
+                        continue;
+                    }
+                    if (decision == PullDecision.CONFLICT_LOCAL) {
+                        // La version locale sera poussée par-dessus le document
+                        user.setFirebaseVersion(document.getLong(FIELD_VERSION));
+                        userRepository.save(user);
+                        result.incrementSuccess("users_kept_local");
+                        continue;
+                    }
                     updateUserFromFirebaseData(user, data);
+                    user.setFirebaseVersion(document.getLong(FIELD_VERSION));
                     userRepository.save(user);
                     result.incrementSuccess("users_updated");
                     log.info("User mis à jour depuis Firebase: {}", firebaseUid);
@@ -374,57 +1441,95 @@ public class FirebaseSyncService {
                     user.setSyncedAt(LocalDateTime.now());
                     user.setFirebaseUid(firebaseUid);
                     user.setEmail(document.getString("email"));
-                    user.setRole(roleRepository.findByCode(document.getString("roleCode")).get());
+                    user.setRole(rolesByCode.computeIfAbsent(document.getString("roleCode"),
+                            code -> roleRepository.findByCode(code).get()));
                     user.setPasswordHash(document.getString("email"));
                     user.setFirebaseSynced(true);
                     user.setIsLocked(false);
                     user.setCreatedAt(LocalDateTime.now());
                     user.setUpdatedAt(LocalDateTime.now());
                     user.setId(document.getLong("id"));
+                    user.setFirebaseVersion(document.getLong(FIELD_VERSION));
                     userRepository.save(user);
                     // Note: On ne crée pas automatiquement un user depuis Firebase
                     // car il faut un mot de passe hashé et un rôle
                     result.incrementSuccess("users_updated");
                 }
             } catch (Exception e) {
-                log.error("Erreur traitement user Firebase: {}", e.getMessage());
-                result.incrementError("users");
+                User local = usersByUid.get(document.id());
+                handlePullFailure("users", EntityType.USER, document, local != null ? local.getId() : null, e, result);
             }
         }
+    }
 
-        return result;
+    public SyncResult syncSignalementsFromFirebase() throws ExecutionException, InterruptedException {
+        return syncSignalementsFromFirebase(false);
     }
 
     /**
      * Synchronise les signalements depuis Firebase vers PostgreSQL
      */
-    @Transactional
-    public SyncResult syncSignalementsFromFirebase() throws ExecutionException, InterruptedException {
-        log.info("Synchronisation signalements depuis Firebase");
-        SyncResult result = new SyncResult();
-        Firestore firestore = FirestoreClient.getFirestore();
+    public SyncResult syncSignalementsFromFirebase(boolean fullPull) throws ExecutionException, InterruptedException {
+        return syncSignalementsFromFirebase(fullPull, new SyncResult());
+    }
+
+    private SyncResult syncSignalementsFromFirebase(boolean fullPull, SyncResult result)
+            throws ExecutionException, InterruptedException {
+        log.info("Synchronisation signalements depuis Firebase (full: {})", fullPull);
+        ReferenceLookups lookups = new ReferenceLookups();
 
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_SIGNALEMENTS).get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+        pullCollection(COLLECTION_SIGNALEMENTS, fullPull, result,
+                documents -> applySignalementDocuments(documents, result, lookups));
+
+        return result;
+    }
 
-        for (QueryDocumentSnapshot document : documents) {
+    private void applySignalementDocuments(List<FirestoreGateway.FirestoreDocument> documents, SyncResult result,
+                                           ReferenceLookups lookups) {
+        // Résolution de toute la page en une requête indexée
+        Map<String, Signalement> signalementsByDocId = resolveSignalementsByDocId(documents);
+        lookups.preloadUsers(documents);
+        Set<String> quarantined = quarantinedDocuments(EntityType.SIGNALEMENT, documents);
+
+        for (FirestoreGateway.FirestoreDocument document : documents) {
+            if (quarantined.contains(document.id())) {
+                result.incrementSkipped("signalements_quarantined");
+                continue;
+            }
             try {
-                Map<String, Object> data = document.getData();
-                String firebaseId = document.getId();
+                Map<String, Object> data = document.data();
+                String firebaseId = document.id();
 
                 // Chercher le signalement par firebaseId ou par id
-                Signalement signalement = findSignalementByFirebaseId(firebaseId, data);
+                Signalement signalement = signalementsByDocId.get(firebaseId);
 
                 if (signalement != null) {
                     // Mise à jour
-                    updateSignalementFromFirebaseData(signalement, data);
+                    SignalementStatus localStatus = signalement.getStatus();
+                    LocalDateTime localUpdatedAt = signalement.getUpdatedAt();
+                    PullDecision decision = comparePulledVersion(EntityType.SIGNALEMENT, signalement.getId(),
+                            signalement.getFirebaseVersion(), !Boolean.TRUE.equals(signalement.getFirebaseSynced()),
+                            localUpdatedAt, document);
+                    if (decision == PullDecision.UNCHANGED) {
+                        result.incrementSkipped("signalements");
+                        continue;
+                    }
+                    if (decision != PullDecision.CONFLICT_LOCAL) {
+                        updateSignalementFromFirebaseData(signalement, data, lookups);
+                    }
+                    if (decision == PullDecision.CONFLICT_LOCAL || decision == PullDecision.CONFLICT_REMOTE) {
+                        resolveStatusConflict(signalement, localStatus, localUpdatedAt, decision, document, lookups);
+                    }
+                    signalement.setFirebaseVersion(document.getLong(FIELD_VERSION));
                     signalementRepository.save(signalement);
-                    result.incrementSuccess("signalements_updated");
+                    result.incrementSuccess(decision == PullDecision.CONFLICT_LOCAL ?
+                            "signalements_kept_local" : "signalements_updated");
                     log.info("Signalement mis à jour depuis Firebase: {}", firebaseId);
                 } else {
                     // Créer un nouveau signalement
-                    Signalement newSignalement = createSignalementFromFirebaseData(data, firebaseId);
+                    Signalement newSignalement = createSignalementFromFirebaseData(data, firebaseId, lookups);
                     if (newSignalement != null) {
+                        newSignalement.setFirebaseVersion(document.getLong(FIELD_VERSION));
                         signalementRepository.save(newSignalement);
                         result.incrementSuccess("signalements_created");
                         log.info("Nouveau signalement créé depuis Firebase: {}", firebaseId);
@@ -433,39 +1538,70 @@ public class FirebaseSyncService {
                     }
                 }
             } catch (Exception e) {
-                log.error("Erreur traitement signalement Firebase: {}", e.getMessage());
-                result.incrementError("signalements");
+                Signalement local = signalementsByDocId.get(document.id());
+                handlePullFailure("signalements", EntityType.SIGNALEMENT, document,
+                        local != null ? local.getId() : document.getLong("id"), e, result);
             }
         }
+    }
 
-        return result;
+    public SyncResult syncEntreprisesFromFirebase() throws ExecutionException, InterruptedException {
+        return syncEntreprisesFromFirebase(false);
     }
 
     /**
      * Synchronise les entreprises depuis Firebase vers PostgreSQL
      */
-    @Transactional
-    public SyncResult syncEntreprisesFromFirebase() throws ExecutionException, InterruptedException {
-        log.info("Synchronisation entreprises depuis Firebase");
-        SyncResult result = new SyncResult();
-        Firestore firestore = FirestoreClient.getFirestore();
+    public SyncResult syncEntreprisesFromFirebase(boolean fullPull) throws ExecutionException, InterruptedException {
+        return syncEntreprisesFromFirebase(fullPull, new SyncResult());
+    }
 
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_ENTREPRISES).get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+    private SyncResult syncEntreprisesFromFirebase(boolean fullPull, SyncResult result)
+            throws ExecutionException, InterruptedException {
+        log.info("Synchronisation entreprises depuis Firebase (full: {})", fullPull);
 
-        for (QueryDocumentSnapshot document : documents) {
+        pullCollection(COLLECTION_ENTREPRISES, fullPull, result,
+                documents -> applyEntrepriseDocuments(documents, result));
+
+        return result;
+    }
+
+    private void applyEntrepriseDocuments(List<FirestoreGateway.FirestoreDocument> documents, SyncResult result) {
+        Set<String> quarantined = quarantinedDocuments(EntityType.ENTREPRISE, documents);
+
+        for (FirestoreGateway.FirestoreDocument document : documents) {
+            if (quarantined.contains(document.id())) {
+                result.incrementSkipped("entreprises_quarantined");
+                continue;
+            }
             try {
-                Map<String, Object> data = document.getData();
-                Integer id = data.get("id") != null ?
-                        ((Long) data.get("id")).intValue() : null;
+                Map<String, Object> data = document.data();
+                Integer id = toInteger(data.get("id"));
 
                 if (id != null) {
                     Optional<Entreprise> existing = entrepriseRepository.findById(id);
                     if (existing.isPresent()) {
                         // Mise à jour
                         Entreprise entreprise = existing.get();
+                        Long remoteVersion = document.getLong(FIELD_VERSION);
+                        PullDecision decision = comparePulledVersion(EntityType.ENTREPRISE, id.longValue(),
+                                entreprise.getFirebaseVersion(), entreprise.isFirebaseSyncPending(),
+                                entreprise.getUpdatedAt(), document);
+                        if (decision == PullDecision.UNCHANGED) {
+                            result.incrementSkipped("entreprises");
+                            continue;
+                        }
+                        if (decision == PullDecision.CONFLICT_LOCAL) {
+                            // Reste à pousser : la version locale remplacera le document
+                            entreprise.setFirebaseVersion(remoteVersion);
+                            entrepriseRepository.save(entreprise);
+                            result.incrementSuccess("entreprises_kept_local");
+                            continue;
+                        }
                         updateEntrepriseFromFirebaseData(entreprise, data);
-                        entrepriseRepository.save(entreprise);
+                        entreprise = entrepriseRepository.saveAndFlush(entreprise);
+                        // Données venant de Firestore : rien à repousser
+                        markEntrepriseSynced(entreprise.getId(), entreprise.getSyncVersion(), remoteVersion);
                         result.incrementSuccess("entreprises_updated");
                     } else {
                         // Créer nouvelle entreprise
@@ -477,14 +1613,242 @@ public class FirebaseSyncService {
                     }
                 }
             } catch (Exception e) {
-                log.error("Erreur traitement entreprise Firebase: {}", e.getMessage());
-                result.incrementError("entreprises");
+                handlePullFailure("entreprises", EntityType.ENTREPRISE, document, document.getLong("id"), e, result);
+            }
+        }
+    }
+
+    // ==================== CONFLITS ====================
+
+    /**
+     * Comparaison d'un document lu avec l'entité locale correspondante
+     */
+    private enum PullDecision {
+        UNCHANGED,        // aller-retour de notre push : même version, updatedAt non postérieur
+        APPLY,            // modifié dans Firestore uniquement
+        CONFLICT_REMOTE,  // modifié des deux côtés, Firestore l'emporte
+        CONFLICT_LOCAL    // modifié des deux côtés, PostgreSQL l'emporte
+    }
+
+    /**
+     * Compare la version du document à celle enregistrée lors de la dernière
+     * synchronisation de l'entité, puis son updatedAt à celui de l'entité ;
+     * un conflit est résolu et tracé par {@link SyncConflictResolver}.
+     *
+     * @param localPending l'entité a des modifications locales non poussées
+     */
+    private PullDecision comparePulledVersion(EntityType entityType, Long entityId, Long baseVersion,
+                                              boolean localPending, LocalDateTime localUpdatedAt,
+                                              FirestoreGateway.FirestoreDocument document) {
+        Long remoteVersion = document.getLong(FIELD_VERSION);
+        LocalDateTime remoteUpdatedAt = getUpdatedAt(document);
+        // Même version : seul un updatedAt postérieur à la dernière écriture
+        // locale (push ou pull, qui ont rafraîchi updatedAt) trahit une
+        // modification par un client qui n'incrémente pas la version
+        boolean editedWithoutVersion = remoteUpdatedAt != null
+                && (localUpdatedAt == null || remoteUpdatedAt.isAfter(localUpdatedAt));
+        if (remoteVersion != null && remoteVersion.equals(baseVersion) && !editedWithoutVersion) {
+            return PullDecision.UNCHANGED;
+        }
+        // Modifié hors du serveur : l'empreinte du dernier push ne décrit plus le document
+        forgetPushedDocuments(getCollectionName(entityType), List.of(document.id()));
+        if (!localPending) {
+            return PullDecision.APPLY;
+        }
+
+        SyncConflictResolver.Winner winner = conflictResolver.resolve(localUpdatedAt, remoteUpdatedAt);
+        conflictResolver.record(entityType, entityId, winner, baseVersion, remoteVersion, localUpdatedAt, remoteUpdatedAt);
+        return winner == SyncConflictResolver.Winner.LOCAL ? PullDecision.CONFLICT_LOCAL : PullDecision.CONFLICT_REMOTE;
+    }
+
+    /**
+     * Applique la règle propre au statut ({@code sync.conflict.status-policy})
+     * après résolution d'un conflit sur un signalement ; le signalement reste
+     * à pousser tant qu'il diffère du document.
+     */
+    private void resolveStatusConflict(Signalement signalement, SignalementStatus localStatus,
+                                       LocalDateTime localUpdatedAt, PullDecision decision,
+                                       FirestoreGateway.FirestoreDocument document, ReferenceLookups lookups) {
+        String remoteStatusCode = document.getString("statusCode");
+        boolean statusKeptLocal = conflictResolver.resolveStatus(localUpdatedAt, getUpdatedAt(document))
+                == SyncConflictResolver.Winner.LOCAL;
+
+        if (statusKeptLocal) {
+            signalement.setStatus(localStatus);
+        } else if (remoteStatusCode != null) {
+            lookups.status(remoteStatusCode).ifPresent(signalement::setStatus);
+        }
+
+        boolean differsFromDocument = decision == PullDecision.CONFLICT_LOCAL
+                || (statusKeptLocal && localStatus != null && !localStatus.getCode().equals(remoteStatusCode));
+        signalement.setFirebaseSynced(!differsFromDocument);
+    }
+
+    // ==================== PULL PAGINÉ PAR WATERMARK ====================
+
+    /**
+     * Parcourt une collection Firestore par pages de {@code sync.pull.page-size}
+     * documents à l'aide de curseurs de requête.
+     * En mode incrémental, seuls les documents dont {@code updatedAt} est
+     * postérieur ou égal au watermark de la collection sont lus.
+     * Chaque page est appliquée dans sa propre transaction, qui avance aussi le
+     * watermark ; le contexte de persistance est vidé après chaque page, les
+     * entités de référence mises en cache par les traitements (statuts,
+     * entreprises, rôles) sont donc utilisées détachées.
+     * En mode complet, toute la collection est relue (y compris les documents
+     * sans {@code updatedAt}) et le watermark est recalculé : il repart de
+     * zéro et n'avance qu'avec les documents effectivement lus, ce qui corrige
+     * une valeur faussée (horloge d'un client en avance, document supprimé).
+     */
+    private void pullCollection(String collectionName, boolean fullPull, SyncResult result,
+                                Consumer<List<FirestoreGateway.FirestoreDocument>> pageHandler)
+            throws ExecutionException, InterruptedException {
+        List<SyncLeadership.Lease> leases = new ArrayList<>();
+        if (!lead("pull:" + collectionName, collectionName, result, leases)) {
+            return;
+        }
+        try {
+            pullPages(collectionName, fullPull, result, pageHandler);
+        } finally {
+            leases.forEach(SyncLeadership.Lease::close);
+        }
+    }
+
+    private void pullPages(String collectionName, boolean fullPull, SyncResult result,
+                           Consumer<List<FirestoreGateway.FirestoreDocument>> pageHandler)
+            throws ExecutionException, InterruptedException {
+        SyncWatermark watermark = syncWatermarkRepository.findByCollectionName(collectionName)
+                .orElseGet(() -> SyncWatermark.builder().collectionName(collectionName).build());
+
+        int pageSize = Math.max(pullPageSize, 1);
+        LocalDateTime updatedSince = fullPull ? null : watermark.getLastUpdatedAt();
+        if (fullPull) {
+            // Enregistré avec la première page ; un pull interrompu laisse un watermark plus ancien, jamais trop récent
+            watermark.setLastUpdatedAt(null);
+        }
+
+        FirestoreGateway.FirestoreDocument cursor = null;
+        int pulled = 0;
+        while (!result.isCancelled()) {
+            long started = System.nanoTime();
+            List<FirestoreGateway.FirestoreDocument> documents;
+            try {
+                documents = firestoreGateway.fetchPage(collectionName, updatedSince, cursor, pageSize);
+            } finally {
+                syncMetrics.recordLatency(SyncMetrics.OPERATION_FETCH, started);
+            }
+            if (documents.isEmpty()) {
+                break;
+            }
+
+            pulled += documents.size();
+            int pulledSoFar = pulled;
+            SyncWatermark current = watermark;
+            watermark = inTransaction(() -> {
+                pageHandler.accept(documents);
+                SyncWatermark advanced = advanceWatermark(current, documents, pulledSoFar);
+                entityManager.flush();
+                entityManager.clear();
+                return advanced;
+            });
+
+            if (documents.size() < pageSize) {
+                break;
             }
+            cursor = documents.get(documents.size() - 1);
+        }
+
+        log.info("Collection {} : {} documents lus depuis Firebase (watermark: {})",
+                collectionName, pulled, watermark.getLastUpdatedAt());
+    }
+
+    private SyncWatermark advanceWatermark(SyncWatermark watermark, List<FirestoreGateway.FirestoreDocument> documents, int pulled) {
+        for (FirestoreGateway.FirestoreDocument document : documents) {
+            watermark.advanceTo(getUpdatedAt(document));
         }
+        watermark.setLastPulledAt(LocalDateTime.now());
+        watermark.setLastPullCount(pulled);
+        return syncWatermarkRepository.save(watermark);
+    }
+
+    // ==================== MODE ÉCOUTE (TEMPS RÉEL) ====================
+
+    /**
+     * Requête d'écoute d'une collection : tous les documents modifiés depuis
+     * le watermark stocké, ou toute la collection si aucun pull n'a eu lieu.
+     * Le premier instantané livré par le listener rattrape ainsi les
+     * modifications survenues pendant un arrêt du serveur.
+     */
+    @Transactional(readOnly = true)
+    public Query buildListenerQuery(Firestore firestore, String collectionName) {
+        LocalDateTime mark = syncWatermarkRepository.findByCollectionName(collectionName)
+                .map(SyncWatermark::getLastUpdatedAt)
+                .orElse(null);
+        if (mark == null) {
+            return firestore.collection(collectionName);
+        }
+        return firestore.collection(collectionName)
+                .whereGreaterThanOrEqualTo(FIELD_UPDATED_AT, Timestamp.of(convertToDate(mark)));
+    }
+
+    /**
+     * Applique des documents reçus par un listener Firestore avec les mêmes
+     * mappers que le pull, dans une transaction courte, puis avance le
+     * watermark de la collection.
+     */
+    public SyncResult applyListenerDocuments(String collectionName, List<FirestoreGateway.FirestoreDocument> documents) {
+        SyncResult result = new SyncResult();
+        inTransaction(() -> {
+            switch (collectionName) {
+                case COLLECTION_USERS -> applyUserDocuments(documents, result, new HashMap<>());
+                case COLLECTION_SIGNALEMENTS -> {
+                    ReferenceLookups lookups = new ReferenceLookups();
+                    lookups.preloadUsers(documents);
+                    applySignalementDocuments(documents, result, lookups);
+                }
+                case COLLECTION_ENTREPRISES -> applyEntrepriseDocuments(documents, result);
+                default -> throw new IllegalArgumentException("Collection non écoutée: " + collectionName);
+            }
 
+            SyncWatermark watermark = syncWatermarkRepository.findByCollectionName(collectionName)
+                    .orElseGet(() -> SyncWatermark.builder().collectionName(collectionName).build());
+            advanceWatermark(watermark, documents, documents.size());
+            return null;
+        });
+        result.setSuccess(true);
         return result;
     }
 
+    /**
+     * Documents supprimés dans Firestore (reçus par un listener) : leur
+     * prochain push réécrira le document complet
+     */
+    @Transactional
+    public void forgetRemovedDocuments(String collectionName, Collection<String> documentIds) {
+        forgetPushedDocuments(collectionName, documentIds);
+    }
+
+    /**
+     * Oublie l'empreinte du dernier push : le push suivant écrit le document
+     * entier au lieu d'un delta calculé sur un contenu périmé
+     */
+    private void forgetPushedDocuments(String collectionName, Collection<String> documentIds) {
+        if (!documentIds.isEmpty()) {
+            syncDocumentStateRepository.deleteDocuments(collectionName, documentIds);
+        }
+    }
+
+    private LocalDateTime getUpdatedAt(FirestoreGateway.FirestoreDocument document) {
+        Object value = document.get(FIELD_UPDATED_AT);
+        if (value instanceof Timestamp timestamp) {
+            return convertToLocalDateTime(timestamp.toDate());
+        }
+        if (value instanceof Date date) {
+            return convertToLocalDateTime(date);
+        }
+        return null;
+    }
+
     // ==================== MÉTHODES UTILITAIRES ====================
 
     private void updateUserFromFirebaseData(User user, Map<String, Object> data) {
@@ -498,30 +1862,45 @@ public class FirebaseSyncService {
         user.setSyncedAt(LocalDateTime.now());
     }
 
-    private Signalement findSignalementByFirebaseId(String firebaseId, Map<String, Object> data) {
-        // Chercher par firebaseId
-        List<Signalement> byFirebaseId = signalementRepository.findAll().stream()
-                .filter(s -> firebaseId.equals(s.getFirebaseId()))
-                .collect(Collectors.toList());
-
-        if (!byFirebaseId.isEmpty()) {
-            return byFirebaseId.get(0);
+    /**
+     * Associe les documents d'une page à leurs signalements locaux :
+     * d'abord par firebaseId (idx_signalement_firebase_id), puis par l'ID
+     * PostgreSQL stocké dans le document pour ceux qui ne sont pas encore liés.
+     */
+    private Map<String, Signalement> resolveSignalementsByDocId(List<FirestoreGateway.FirestoreDocument> documents) {
+        Set<String> docIds = documents.stream()
+                .map(FirestoreGateway.FirestoreDocument::id)
+                .collect(Collectors.toSet());
+
+        Map<String, Signalement> byDocId = new HashMap<>();
+        for (Signalement signalement : signalementRepository.findByFirebaseIdIn(docIds)) {
+            byDocId.put(signalement.getFirebaseId(), signalement);
         }
 
-        // Chercher par ID PostgreSQL
-        try {
-            Long id = data.get("id") != null ? ((Number) data.get("id")).longValue() : null;
-            if (id != null) {
-                return signalementRepository.findById(id).orElse(null);
+        // Repli sur l'ID PostgreSQL
+        Map<Long, String> docIdByLocalId = new HashMap<>();
+        for (FirestoreGateway.FirestoreDocument document : documents) {
+            if (byDocId.containsKey(document.id())) {
+                continue;
+            }
+            Object id = document.get("id");
+            if (id instanceof Number number) {
+                docIdByLocalId.put(number.longValue(), document.id());
+            } else if (id != null) {
+                log.warn("Impossible de récupérer l'ID du document {}: {}", document.id(), id);
+            }
+        }
+        if (!docIdByLocalId.isEmpty()) {
+            for (Signalement signalement : signalementRepository.findAllById(docIdByLocalId.keySet())) {
+                byDocId.putIfAbsent(docIdByLocalId.get(signalement.getId()), signalement);
             }
-        } catch (Exception e) {
-            log.warn("Impossible de récupérer l'ID: {}", e.getMessage());
         }
 
-        return null;
+        return byDocId;
     }
 
-    private void updateSignalementFromFirebaseData(Signalement signalement, Map<String, Object> data) {
+    private void updateSignalementFromFirebaseData(Signalement signalement, Map<String, Object> data,
+                                                   ReferenceLookups lookups) {
         if (data.containsKey("description")) {
             signalement.setDescription((String) data.get("description"));
         }
@@ -529,35 +1908,41 @@ public class FirebaseSyncService {
             signalement.setAdresse((String) data.get("adresse"));
         }
         if (data.containsKey("latitude")) {
-            signalement.setLatitude(BigDecimal.valueOf((Double) data.get("latitude")));
+            signalement.setLatitude(toBigDecimal(data.get("latitude")));
         }
         if (data.containsKey("longitude")) {
-            signalement.setLongitude(BigDecimal.valueOf((Double) data.get("longitude")));
+            signalement.setLongitude(toBigDecimal(data.get("longitude")));
         }
 //        if (data.containsKey("photoUrl")) {
 //            signalement.setPhotoUrl((String) data.get("photoUrl"));
 //        }
         if (data.containsKey("statusCode")) {
             String statusCode = (String) data.get("statusCode");
-            signalementStatusRepository.findByCode(statusCode)
+            lookups.status(statusCode)
                     .ifPresent(signalement::setStatus);
         }
-        if(data.containsKey("entrepriseId")) {
-            Entreprise entreprise = entrepriseRepository.findById(Integer.parseInt((String) data.get("entrepriseId"))).get();
-            signalement.setEntreprise(entreprise);
+        if (data.containsKey("entrepriseId")) {
+            // Écrit en nombre par le back-office, parfois en chaîne par l'application mobile
+            Integer entrepriseId = toInteger(data.get("entrepriseId"));
+            if (entrepriseId == null) {
+                signalement.setEntreprise(null);
+            } else {
+                lookups.entreprise(entrepriseId).ifPresent(signalement::setEntreprise);
+            }
         }
-        if(data.containsKey("surface")){
-            signalement.setSurface(BigDecimal.valueOf((Double) data.get("surface")));
+        if (data.containsKey("surface")) {
+            signalement.setSurface(toBigDecimal(data.get("surface")));
         }
-        if(data.containsKey("budget")){
-            signalement.setBudget(BigDecimal.valueOf((Double) data.get("budget")));
+        if (data.containsKey("budget")) {
+            signalement.setBudget(toBigDecimal(data.get("budget")));
         }
 
         signalement.setFirebaseSynced(true);
         signalement.setLastSyncAt(LocalDateTime.now());
     }
 
-    private Signalement createSignalementFromFirebaseData(Map<String, Object> data, String firebaseId) {
+    private Signalement createSignalementFromFirebaseData(Map<String, Object> data, String firebaseId,
+                                                          ReferenceLookups lookups) {
         try {
             // Récupérer l'utilisateur
             String userId = data.get("userId") != null ? data.get("userId").toString() : null;
@@ -566,7 +1951,7 @@ public class FirebaseSyncService {
                 return null;
             }
 
-            User user = userRepository.findByFirebaseUid(userId).orElse(null);
+            User user = lookups.user(userId).orElse(null);
             if (user == null) {
                 log.error("User introuvable pour le signalement Firebase: {}", firebaseId);
                 return null;
@@ -574,36 +1959,29 @@ public class FirebaseSyncService {
 
             // Récupérer le status
             String statusCode = data.get("statusCode") != null ? (String) data.get("statusCode") : "NOUVEAU";
-            SignalementStatus status = signalementStatusRepository.findByCode(statusCode)
-                    .orElse(signalementStatusRepository.findByCode("NOUVEAU").orElse(null));
+            SignalementStatus status = lookups.status(statusCode)
+                    .orElse(lookups.status("NOUVEAU").orElse(null));
 
             if (status == null) {
                 log.error("Status introuvable pour le signalement Firebase: {}", firebaseId);
                 return null;
             }
 
-            Entreprise entreprise = null;
-
-            if(data.containsKey("entrepriseId")) {
-                 entreprise = entrepriseRepository.findById(Integer.parseInt((String) data.get("entrepriseId"))).get();
-            }
-            System.out.println("AIZA LE CAST TSY METY 1");
+            Integer entrepriseId = toInteger(data.get("entrepriseId"));
+            Entreprise entreprise = entrepriseId != null ? lookups.entreprise(entrepriseId).orElse(null) : null;
 
             // Créer le signalement
-            System.out.println("AIZA LE CAST TSY METY 1");
             Signalement signalement = Signalement.builder()
                     .description((String) data.get("description"))
                     .adresse((String) data.get("adresse"))
-                    .latitude(data.get("latitude") != null ?
-                            BigDecimal.valueOf(Double.valueOf(data.get("latitude").toString())) : null)
-                    .longitude(data.get("longitude") != null ?
-                            BigDecimal.valueOf(Double.valueOf(data.get("longitude").toString())) : null)
+                    .latitude(toBigDecimal(data.get("latitude")))
+                    .longitude(toBigDecimal(data.get("longitude")))
 //                    .photoUrl((String) data.get("photoUrl"))
                     .user(user)
                     .status(status)
                     .entreprise(entreprise)
-                    .surface(data.get("surface")!=null?BigDecimal.valueOf(Double.valueOf(data.get("surface").toString())):null)
-                    .budget(data.get("budget")!=null?BigDecimal.valueOf(Double.valueOf(data.get("budget").toString())):null)
+                    .surface(toBigDecimal(data.get("surface")))
+                    .budget(toBigDecimal(data.get("budget")))
                     .firebaseId(firebaseId)
                     .firebaseSynced(true)
                     .build();
@@ -615,6 +1993,55 @@ public class FirebaseSyncService {
         }
     }
 
+    /**
+     * Données de référence d'un pull de signalements : statuts et entreprises
+     * sont chargés une fois par exécution, les utilisateurs référencés par
+     * chaque page en une requête IN sur firebase_uid.
+     */
+    private class ReferenceLookups {
+        private final Map<String, SignalementStatus> statusesByCode = new HashMap<>();
+        private final Map<Integer, Entreprise> entreprisesById = new HashMap<>();
+        private final Map<String, User> usersByFirebaseUid = new HashMap<>();
+
+        ReferenceLookups() {
+            for (SignalementStatus status : signalementStatusRepository.findAll()) {
+                statusesByCode.put(status.getCode(), status);
+            }
+            for (Entreprise entreprise : entrepriseRepository.findAll()) {
+                entreprisesById.put(entreprise.getId(), entreprise);
+            }
+        }
+
+        void preloadUsers(List<FirestoreGateway.FirestoreDocument> documents) {
+            Set<String> missing = documents.stream()
+                    .map(document -> document.get("userId"))
+                    .filter(Objects::nonNull)
+                    .map(Object::toString)
+                    .filter(uid -> !usersByFirebaseUid.containsKey(uid))
+                    .collect(Collectors.toSet());
+            if (missing.isEmpty()) {
+                return;
+            }
+            for (User user : userRepository.findByFirebaseUidIn(missing)) {
+                usersByFirebaseUid.put(user.getFirebaseUid(), user);
+            }
+        }
+
+        Optional<SignalementStatus> status(String code) {
+            return Optional.ofNullable(statusesByCode.get(code));
+        }
+
+        Optional<Entreprise> entreprise(Integer id) {
+            // Entreprise créée après le chargement : repli sur la base
+            return Optional.ofNullable(entreprisesById.computeIfAbsent(id,
+                    key -> entrepriseRepository.findById(key).orElse(null)));
+        }
+
+        Optional<User> user(String firebaseUid) {
+            return Optional.ofNullable(usersByFirebaseUid.get(firebaseUid));
+        }
+    }
+
     private void updateEntrepriseFromFirebaseData(Entreprise entreprise, Map<String, Object> data) {
         if (data.containsKey("nom")) {
             entreprise.setNom((String) data.get("nom"));
@@ -662,9 +2089,32 @@ public class FirebaseSyncService {
         }
     }
 
+    /**
+     * Identifiant lu dans un document : nombre ou chaîne selon le client qui l'a écrit
+     */
+    private static Integer toInteger(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return Integer.valueOf(text.trim());
+        }
+        return null;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return new BigDecimal(text.trim());
+        }
+        return null;
+    }
+
     // ==================== GESTION DES ERREURS ET HISTORIQUE ====================
 
-    private void recordSyncSuccess(EntityType entityType, Long entityId, String firebaseId) {
+    private void recordSyncSuccess(EntityType entityType, Long entityId, String firebaseId, Integer durationMs) {
         Map<String, Object> firebaseResponse = new HashMap<>();
         firebaseResponse.put("firebaseId", firebaseId);
         firebaseResponse.put("status", "success");
@@ -676,12 +2126,17 @@ public class FirebaseSyncService {
                 .direction(SyncDirection.POSTGRES_TO_FIREBASE)
                 .status(SyncStatus.SUCCESS)
                 .firebaseResponse(firebaseResponse)
+                .durationMs(durationMs)
                 .syncedAt(LocalDateTime.now())
                 .build();
-        syncHistoryRepository.save(history);
+        syncHistoryService.record(history);
     }
 
     private void recordSyncError(EntityType entityType, Long entityId, String errorMessage) {
+        recordSyncError(entityType, entityId, errorMessage, null);
+    }
+
+    private void recordSyncError(EntityType entityType, Long entityId, String errorMessage, Integer durationMs) {
         SyncHistory history = SyncHistory.builder()
                 .entityType(entityType)
                 .entityId(entityId)
@@ -689,9 +2144,141 @@ public class FirebaseSyncService {
                 .direction(SyncDirection.POSTGRES_TO_FIREBASE)
                 .status(SyncStatus.FAILED)
                 .errorMessage(errorMessage)
+                .durationMs(durationMs)
                 .syncedAt(LocalDateTime.now())
                 .build();
-        syncHistoryRepository.save(history);
+        syncHistoryService.record(history);
+    }
+
+    private static int elapsedMs(long startedNanos) {
+        return (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    // ==================== EXÉCUTION PARALLÈLE ====================
+
+    @PostConstruct
+    void initSyncExecutor() {
+        int threads = Math.max(parallelThreads, 1);
+        AtomicInteger counter = new AtomicInteger();
+        // File bornée : au-delà, le thread appelant exécute la tâche lui-même
+        syncExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "firebase-sync-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void shutdownSyncExecutor() {
+        syncExecutor.shutdownNow();
+    }
+
+    /**
+     * Exécute des tâches indépendantes sur l'exécuteur de synchronisation et
+     * attend leur fin ; la première erreur non gérée par une tâche est relancée.
+     */
+    private void runInParallel(List<Callable<Void>> tasks) throws ExecutionException, InterruptedException {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(syncExecutor.submit(task));
+        }
+
+        ExecutionException firstFailure = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.error("Tâche de synchronisation en échec: {}", e.getCause().getMessage());
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    /**
+     * Lit des identifiants page par page (keyset : {@code id > dernier ID lu})
+     * et transmet chaque page au consommateur, jusqu'à épuisement ou annulation.
+     */
+    private <ID> void streamIds(ID firstAfter, Function<ID, List<ID>> nextPage, SyncResult result,
+                                Consumer<List<ID>> pageConsumer) {
+        ID afterId = firstAfter;
+        while (!result.isCancelled()) {
+            List<ID> ids = nextPage.apply(afterId);
+            if (ids.isEmpty()) {
+                return;
+            }
+            pageConsumer.accept(ids);
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * Soumet des lots à l'exécuteur de synchronisation en limitant le nombre
+     * de lots en vol à deux par thread : au-delà, on attend le plus ancien.
+     */
+    private class ChunkSubmitter {
+        private final Deque<Future<Void>> inFlight = new ArrayDeque<>();
+        private final int maxInFlight = Math.max(parallelThreads, 1) * 2;
+        private ExecutionException firstFailure;
+
+        void submit(Callable<Void> task) {
+            while (inFlight.size() >= maxInFlight) {
+                awaitOldest();
+            }
+            inFlight.add(syncExecutor.submit(task));
+        }
+
+        void awaitAll() throws ExecutionException {
+            while (!inFlight.isEmpty()) {
+                awaitOldest();
+            }
+            if (firstFailure != null) {
+                throw firstFailure;
+            }
+        }
+
+        private void awaitOldest() {
+            try {
+                inFlight.poll().get();
+            } catch (ExecutionException e) {
+                log.error("Lot de synchronisation en échec: {}", e.getCause().getMessage());
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inFlight.forEach(future -> future.cancel(false));
+                inFlight.clear();
+                throw new IllegalStateException("Synchronisation interrompue", e);
+            }
+        }
+    }
+
+    /**
+     * Exécute un traitement dans une nouvelle transaction (threads de l'exécuteur)
+     */
+    private <T> T inTransaction(Callable<T> work) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return work.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
+
+    private int getPushBatchSize() {
+        return Math.min(Math.max(pushBatchSize, 1), FIRESTORE_MAX_BATCH_SIZE);
     }
 
     // ==================== HELPERS ====================
@@ -712,41 +2299,158 @@ public class FirebaseSyncService {
 
     // ==================== CLASSE RÉSULTAT ====================
 
-    @lombok.Data
+    /**
+     * Résultat d'une synchronisation ; les compteurs sont partagés entre les
+     * threads de l'exécuteur et reposent donc sur des LongAdder.
+     * Un résultat enfant ({@link #child(String)}) répercute immédiatement ses
+     * compteurs, préfixés, sur son parent : un job suit ainsi la progression
+     * de toutes les phases et peut demander leur annulation.
+     */
     public static class SyncResult {
-        private boolean success;
-        private String errorMessage;
-        private Map<String, Integer> successCounts = new HashMap<>();
-        private Map<String, Integer> errorCounts = new HashMap<>();
+        private static final int MAX_FAILURES = 100;
+
+        @lombok.Getter
+        @lombok.Setter
+        private volatile boolean success;
+        @lombok.Getter
+        @lombok.Setter
+        private volatile String errorMessage;
+        private final Map<String, LongAdder> successCounts = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> errorCounts = new ConcurrentHashMap<>();
+        // Entités à jour dont l'écriture Firestore a été évitée (push delta)
+        private final Map<String, LongAdder> skippedCounts = new ConcurrentHashMap<>();
+        // Nombre d'entités à traiter par collection, connu au démarrage du push
+        private final Map<String, LongAdder> expectedCounts = new ConcurrentHashMap<>();
+        // Début du push : premier volume attendu annoncé
+        @lombok.Getter
+        private volatile LocalDateTime expectedSince;
+        // Dernières entités en échec, avec leur erreur (bornées)
+        private final Deque<Map<String, Object>> failures = new ConcurrentLinkedDeque<>();
+        private final SyncResult parent;
+        private final String prefix;
+        private volatile boolean cancelled;
+
+        public SyncResult() {
+            this(null, "");
+        }
+
+        private SyncResult(SyncResult parent, String prefix) {
+            this.parent = parent;
+            this.prefix = prefix;
+        }
+
+        public SyncResult child(String childPrefix) {
+            return new SyncResult(this, childPrefix);
+        }
 
         public void incrementSuccess(String category) {
-            successCounts.put(category, successCounts.getOrDefault(category, 0) + 1);
+            add(successCounts, category, 1);
+            if (parent != null) {
+                parent.incrementSuccess(prefix + category);
+            }
         }
 
         public void incrementError(String category) {
-            errorCounts.put(category, errorCounts.getOrDefault(category, 0) + 1);
+            add(errorCounts, category, 1);
+            if (parent != null) {
+                parent.incrementError(prefix + category);
+            }
         }
 
-        public void addPostgresToFirebase(SyncResult other) {
-            other.successCounts.forEach((key, value) ->
-                    successCounts.merge("pg_to_fb_" + key, value, Integer::sum));
-            other.errorCounts.forEach((key, value) ->
-                    errorCounts.merge("pg_to_fb_" + key, value, Integer::sum));
+        public void incrementSkipped(String category) {
+            add(skippedCounts, category, 1);
+            if (parent != null) {
+                parent.incrementSkipped(prefix + category);
+            }
+        }
+
+        public void recordFailure(String category, Long entityId, String error) {
+            Map<String, Object> failure = new LinkedHashMap<>();
+            failure.put("category", category);
+            failure.put("entityId", entityId);
+            failure.put("error", error);
+            failures.addLast(failure);
+            while (failures.size() > MAX_FAILURES) {
+                failures.pollFirst();
+            }
+            if (parent != null) {
+                parent.recordFailure(prefix + category, entityId, error);
+            }
+        }
+
+        public List<Map<String, Object>> getFailures() {
+            return new ArrayList<>(failures);
+        }
+
+        public void addExpected(String category, long count) {
+            if (expectedSince == null) {
+                expectedSince = LocalDateTime.now();
+            }
+            add(expectedCounts, category, count);
+            if (parent != null) {
+                parent.addExpected(prefix + category, count);
+            }
+        }
+
+        /**
+         * Demande l'arrêt de la synchronisation ; les lots en cours se terminent,
+         * les suivants ne sont pas lancés.
+         */
+        public void cancel() {
+            if (parent != null) {
+                parent.cancel();
+            }
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled || (parent != null && parent.isCancelled());
         }
 
-        public void addFirebaseToPostgres(SyncResult other) {
-            other.successCounts.forEach((key, value) ->
-                    successCounts.merge("fb_to_pg_" + key, value, Integer::sum));
-            other.errorCounts.forEach((key, value) ->
-                    errorCounts.merge("fb_to_pg_" + key, value, Integer::sum));
+        public Map<String, Integer> getSuccessCounts() {
+            return snapshot(successCounts);
+        }
+
+        public Map<String, Integer> getErrorCounts() {
+            return snapshot(errorCounts);
+        }
+
+        public Map<String, Integer> getSkippedCounts() {
+            return snapshot(skippedCounts);
+        }
+
+        public Map<String, Integer> getExpectedCounts() {
+            return snapshot(expectedCounts);
         }
 
         public int getTotalSuccess() {
-            return successCounts.values().stream().mapToInt(Integer::intValue).sum();
+            return (int) total(successCounts);
         }
 
         public int getTotalErrors() {
-            return errorCounts.values().stream().mapToInt(Integer::intValue).sum();
+            return (int) total(errorCounts);
+        }
+
+        public int getTotalSkipped() {
+            return (int) total(skippedCounts);
+        }
+
+        public int getTotalExpected() {
+            return (int) total(expectedCounts);
+        }
+
+        private static void add(Map<String, LongAdder> counts, String category, long value) {
+            counts.computeIfAbsent(category, key -> new LongAdder()).add(value);
+        }
+
+        private static long total(Map<String, LongAdder> counts) {
+            return counts.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        private static Map<String, Integer> snapshot(Map<String, LongAdder> counts) {
+            Map<String, Integer> snapshot = new HashMap<>();
+            counts.forEach((key, value) -> snapshot.put(key, value.intValue()));
+            return snapshot;
         }
     }
-}
\ No newline at end of file
+}
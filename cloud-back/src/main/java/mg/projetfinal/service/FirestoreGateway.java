@@ -0,0 +1,140 @@
+package mg.projetfinal.service;
+
+import mg.projetfinal.utils.SyncFailures;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Accès à Firestore et Firebase Authentication utilisé par la synchronisation.
+ * L'implémentation de production ({@link FirebaseFirestoreGateway}) s'appuie
+ * sur le SDK Firebase ; {@link InMemoryFirestoreGateway} permet de mesurer
+ * la synchronisation sans projet Google (latence et pannes simulées).
+ * Sélection via {@code sync.gateway=firebase|in-memory}.
+ */
+public interface FirestoreGateway {
+
+    String FIELD_UPDATED_AT = "updatedAt";
+
+    /**
+     * Indique si le backend est joignable (Firebase initialisé)
+     */
+    boolean isAvailable();
+
+    /**
+     * Indique si le backend répond effectivement (réseau compris) ; sondé
+     * périodiquement par {@link SyncConnectivity}
+     */
+    default boolean isReachable() {
+        return isAvailable();
+    }
+
+    /**
+     * Valide atomiquement un lot d'écritures (au plus 500, limite d'un WriteBatch)
+     */
+    void commit(List<DocumentWrite> writes) throws ExecutionException, InterruptedException;
+
+    default void write(DocumentWrite write) throws ExecutionException, InterruptedException {
+        commit(List.of(write));
+    }
+
+    /**
+     * Lit une page de documents.
+     * Sans {@code updatedSince}, toute la collection est parcourue par ID de
+     * document ; sinon seuls les documents dont {@code updatedAt} est postérieur
+     * ou égal sont lus, triés par {@code updatedAt} puis par ID.
+     *
+     * @param after dernier document de la page précédente, ou null
+     */
+    List<FirestoreDocument> fetchPage(String collectionName, LocalDateTime updatedSince,
+                                      FirestoreDocument after, int limit)
+            throws ExecutionException, InterruptedException;
+
+    /**
+     * Importe un lot d'utilisateurs Firebase Authentication (au plus 1000)
+     * avec leur hash BCrypt existant.
+     * Comme l'API Firebase, un UID déjà présent est remplacé et l'unicité des
+     * emails n'est pas vérifiée : l'appelant doit écarter les comptes existants
+     * ({@link #findAuthUidsByEmail}) et choisir des UID stables.
+     *
+     * @return raison de l'échec par index dans {@code users} ; vide si tout est importé
+     */
+    Map<Integer, String> importAuthUsers(List<AuthUserImport> users)
+            throws ExecutionException, InterruptedException;
+
+    /**
+     * UID des comptes Firebase Authentication existants pour ces emails
+     * (créés par l'application mobile ou par un import précédent)
+     *
+     * @return UID par email en minuscules ; les emails sans compte sont absents
+     */
+    Map<String, String> findAuthUidsByEmail(Collection<String> emails)
+            throws ExecutionException, InterruptedException;
+
+    void updateAuthUser(String uid, String email, String displayName)
+            throws ExecutionException, InterruptedException;
+
+    /**
+     * Document Firestore lu : identifiant et champs
+     */
+    record FirestoreDocument(String id, Map<String, Object> data) {
+
+        public Object get(String field) {
+            return data.get(field);
+        }
+
+        public String getString(String field) {
+            Object value = data.get(field);
+            return value != null ? value.toString() : null;
+        }
+
+        public Long getLong(String field) {
+            Object value = data.get(field);
+            return value instanceof Number number ? number.longValue() : null;
+        }
+    }
+
+    /**
+     * Utilisateur à importer : UID choisi par l'appelant, hash BCrypt ($2a$…)
+     */
+    record AuthUserImport(String uid, String email, String displayName, String bcryptHash) {
+    }
+
+    enum WriteType {
+        SET,        // remplace le document
+        MERGE,      // met à jour les champs d'un document existant, supprime removedFields
+        DELETE
+    }
+
+    /**
+     * Écriture MERGE refusée : le document n'existe plus dans Firestore
+     * (supprimé depuis le dernier push). Le lot entier est refusé.
+     */
+    class MissingDocumentException extends SyncFailures.PermanentSyncException {
+
+        public MissingDocumentException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Écriture d'un document dans un lot
+     */
+    record DocumentWrite(WriteType type, String collectionName, String documentId,
+                         Map<String, Object> fields, Set<String> removedFields) {
+
+        public static DocumentWrite set(String collectionName, String documentId, Map<String, Object> fields) {
+            return new DocumentWrite(WriteType.SET, collectionName, documentId, fields, Set.of());
+        }
+
+        public static DocumentWrite merge(String collectionName, String documentId,
+                                          Map<String, Object> fields, Set<String> removedFields) {
+            return new DocumentWrite(WriteType.MERGE, collectionName, documentId, fields, removedFields);
+        }
+
+        public static DocumentWrite delete(String collectionName, String documentId) {
+            return new DocumentWrite(WriteType.DELETE, collectionName, documentId, Map.of(), Set.of());
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package mg.projetfinal.service;
+
+import com.google.cloud.firestore.*;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.config.FirebaseConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mode écoute : applique en continu dans PostgreSQL les modifications des
+ * collections Firestore suivies, via des snapshot listeners.
+ * Chaque listener repart du watermark stocké de sa collection ; les
+ * changements sont appliqués par lots de {@code sync.listener.batch-size}
+ * documents, chacun dans sa propre transaction. Les événements de toutes les
+ * collections sont traités sur un seul thread, dans l'ordre de réception.
+ * Les signalements ne sont écoutés qu'une fois le premier instantané des
+ * utilisateurs et des entreprises appliqué, pour que leurs références existent.
+ * Une seule instance écoute à la fois (leadership "listener", voir
+ * {@link SyncLeadership}) ; les autres retentent toutes les
+ * {@code sync.cluster.standby-retry-ms} ms et prennent le relais si elle
+ * disparaît.
+ * Pour un émulateur Firestore, définir FIRESTORE_EMULATOR_HOST ou passer une
+ * instance à {@link #start(Firestore)}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "sync.listener.enabled", havingValue = "true")
+public class FirestoreListenerService {
+
+    private static final String COLLECTION_SIGNALEMENTS = "signalements";
+    private static final String LEADERSHIP_TASK = "listener";
+
+    private final FirebaseSyncService firebaseSyncService;
+    private final SyncLeadership syncLeadership;
+
+    @Value("${sync.listener.batch-size:50}")
+    private int batchSize;
+
+    @Value("${sync.listener.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${sync.cluster.standby-retry-ms:30000}")
+    private long standbyRetryMs;
+
+    private final Map<String, ListenerRegistration> registrations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "firestore-listener");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger pendingReferenceSnapshots = new AtomicInteger();
+    private volatile Firestore firestore;
+    private volatile SyncLeadership.Lease lease;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!FirebaseConfig.isInitialized()) {
+            log.warn("Mode écoute Firestore désactivé : Firebase n'est pas initialisé");
+            return;
+        }
+        executor.execute(this::lead);
+    }
+
+    /**
+     * Démarre l'écoute si cette instance obtient le leadership, sinon retente plus tard
+     */
+    private void lead() {
+        Optional<SyncLeadership.Lease> acquired = syncLeadership.tryAcquire(LEADERSHIP_TASK);
+        if (acquired.isEmpty()) {
+            log.debug("Écoute Firestore menée par une autre instance, nouvel essai dans {} ms", standbyRetryMs);
+            executor.schedule(this::lead, standbyRetryMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+        lease = acquired.get();
+        lease.onLost(() -> executor.execute(() -> {
+            log.warn("Leadership de l'écoute Firestore perdu, arrêt des listeners");
+            stop();
+            lease = null;
+            lead();
+        }));
+        start(FirebaseConfig.getFirestore());
+    }
+
+    /**
+     * Abonne les listeners sur l'instance Firestore fournie (production,
+     * émulateur ou implémentation de test).
+     */
+    public synchronized void start(Firestore firestore) {
+        stop();
+        this.firestore = firestore;
+
+        List<String> referenceCollections = FirebaseSyncService.LISTENED_COLLECTIONS.stream()
+                .filter(collectionName -> !COLLECTION_SIGNALEMENTS.equals(collectionName))
+                .toList();
+        pendingReferenceSnapshots.set(referenceCollections.size());
+        referenceCollections.forEach(this::subscribe);
+    }
+
+    public synchronized void stop() {
+        registrations.values().forEach(ListenerRegistration::remove);
+        registrations.clear();
+        firestore = null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stop();
+        executor.shutdownNow();
+        SyncLeadership.Lease current = lease;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    public boolean isListening(String collectionName) {
+        return registrations.containsKey(collectionName);
+    }
+
+    private void subscribe(String collectionName) {
+        Firestore current = firestore;
+        if (current == null) {
+            return;
+        }
+        Query query = firebaseSyncService.buildListenerQuery(current, collectionName);
+        ListenerRegistration registration = query.addSnapshotListener(executor,
+                (snapshot, error) -> onSnapshot(collectionName, snapshot, error));
+        ListenerRegistration previous = registrations.put(collectionName, registration);
+        if (previous != null) {
+            previous.remove();
+        }
+        log.info("Écoute Firestore démarrée sur la collection {}", collectionName);
+    }
+
+    private void onSnapshot(String collectionName, QuerySnapshot snapshot, FirestoreException error) {
+        if (error != null) {
+            log.error("Listener Firestore {} interrompu: {}", collectionName, error.getMessage());
+            ListenerRegistration registration = registrations.remove(collectionName);
+            if (registration != null) {
+                registration.remove();
+            }
+            // Réabonnement à partir du watermark, qui couvre les changements manqués
+            executor.schedule(() -> {
+                if (firestore != null && !registrations.containsKey(collectionName)) {
+                    subscribe(collectionName);
+                }
+            }, retryDelayMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (snapshot == null) {
+            return;
+        }
+
+        List<FirestoreGateway.FirestoreDocument> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            // Les suppressions ne sont pas propagées, comme pour le pull ;
+            // seule l'empreinte du dernier push est oubliée
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                removed.add(change.getDocument().getId());
+            } else {
+                changed.add(FirebaseFirestoreGateway.toDocument(change.getDocument()));
+            }
+        }
+        applyChanges(collectionName, changed, removed);
+
+        if (!COLLECTION_SIGNALEMENTS.equals(collectionName)
+                && !registrations.containsKey(COLLECTION_SIGNALEMENTS)
+                && pendingReferenceSnapshots.get() > 0
+                && pendingReferenceSnapshots.decrementAndGet() == 0) {
+            subscribe(COLLECTION_SIGNALEMENTS);
+        }
+    }
+
+    /**
+     * Applique les changements d'un instantané : documents ajoutés ou modifiés
+     * par lots, identifiants des documents supprimés
+     */
+    void applyChanges(String collectionName, List<FirestoreGateway.FirestoreDocument> changed, List<String> removed) {
+        if (!removed.isEmpty()) {
+            try {
+                firebaseSyncService.forgetRemovedDocuments(collectionName, removed);
+            } catch (Exception e) {
+                log.error("Erreur suppression des empreintes {} : {}", collectionName, e.getMessage());
+            }
+        }
+        applyInBatches(collectionName, changed);
+    }
+
+    private void applyInBatches(String collectionName, List<FirestoreGateway.FirestoreDocument> documents) {
+        int size = Math.max(batchSize, 1);
+        for (int i = 0; i < documents.size(); i += size) {
+            List<FirestoreGateway.FirestoreDocument> batch = documents.subList(i, Math.min(i + size, documents.size()));
+            try {
+                FirebaseSyncService.SyncResult result = firebaseSyncService.applyListenerDocuments(collectionName, batch);
+                log.debug("Listener {} : {} documents appliqués, {} erreurs",
+                        collectionName, result.getTotalSuccess(), result.getTotalErrors());
+            } catch (Exception e) {
+                log.error("Erreur application des changements {} depuis Firebase: {}", collectionName, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package mg.projetfinal.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firestore et Firebase Auth simulés en mémoire, pour mesurer la
+ * synchronisation sans projet Google.
+ * Chaque appel attend {@code latency-ms} (± {@code jitter-ms}) et échoue avec
+ * la probabilité {@code failure-rate} ; les latences observées sont
+ * conservées par opération pour le calcul des percentiles.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "sync.gateway", havingValue = "in-memory")
+public class InMemoryFirestoreGateway implements FirestoreGateway {
+
+    public static final String OP_COMMIT = "commit";
+    public static final String OP_FETCH = "fetch";
+    public static final String OP_AUTH = "auth";
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+
+    private final Map<String, NavigableMap<String, Map<String, Object>>> collections = new ConcurrentHashMap<>();
+    // Comptes Auth : email par UID (plusieurs UID peuvent partager un email, comme avec importUsers)
+    private final Map<String, String> authEmailsByUid = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Long>> latenciesNanos = new ConcurrentHashMap<>();
+
+    public InMemoryFirestoreGateway(
+            @Value("${sync.gateway.in-memory.latency-ms:0}") long latencyMs,
+            @Value("${sync.gateway.in-memory.jitter-ms:0}") long jitterMs,
+            @Value("${sync.gateway.in-memory.failure-rate:0}") double failureRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+        log.info("Passerelle Firestore en mémoire (latence {} ± {} ms, taux d'échec {})",
+                latencyMs, jitterMs, failureRate);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public void commit(List<DocumentWrite> writes) throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            simulateCall();
+            // Un lot est atomique : appliqué en entier sous verrou
+            synchronized (this) {
+                for (DocumentWrite write : writes) {
+                    if (write.type() == WriteType.MERGE
+                            && !collection(write.collectionName()).containsKey(write.documentId())) {
+                        throw new ExecutionException(new MissingDocumentException(
+                                "NOT_FOUND: " + write.collectionName() + "/" + write.documentId()));
+                    }
+                }
+                for (DocumentWrite write : writes) {
+                    NavigableMap<String, Map<String, Object>> collection = collection(write.collectionName());
+                    switch (write.type()) {
+                        case SET -> collection.put(write.documentId(), new HashMap<>(write.fields()));
+                        case MERGE -> {
+                            Map<String, Object> document = collection.get(write.documentId());
+                            document.putAll(write.fields());
+                            write.removedFields().forEach(document::remove);
+                        }
+                        case DELETE -> collection.remove(write.documentId());
+                    }
+                }
+            }
+        } finally {
+            record(OP_COMMIT, start);
+        }
+    }
+
+    @Override
+    public List<FirestoreDocument> fetchPage(String collectionName, LocalDateTime updatedSince,
+                                             FirestoreDocument after, int limit)
+            throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            simulateCall();
+            List<FirestoreDocument> documents = new ArrayList<>();
+            synchronized (this) {
+                collection(collectionName).forEach((id, data) ->
+                        documents.add(new FirestoreDocument(id, new HashMap<>(data))));
+            }
+
+            Comparator<FirestoreDocument> order = Comparator.comparing(FirestoreDocument::id);
+            if (updatedSince != null) {
+                documents.removeIf(document -> updatedAt(document) == null || updatedAt(document).isBefore(updatedSince));
+                order = Comparator.comparing(this::updatedAt).thenComparing(FirestoreDocument::id);
+            }
+            documents.sort(order);
+
+            int from = 0;
+            if (after != null) {
+                while (from < documents.size() && order.compare(documents.get(from), after) <= 0) {
+                    from++;
+                }
+            }
+            return new ArrayList<>(documents.subList(from, Math.min(from + limit, documents.size())));
+        } finally {
+            record(OP_FETCH, start);
+        }
+    }
+
+    @Override
+    public Map<Integer, String> importAuthUsers(List<AuthUserImport> users)
+            throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            simulateCall();
+            // Comme importUsers : un UID existant est remplacé, l'email n'est pas vérifié
+            for (AuthUserImport user : users) {
+                authEmailsByUid.put(user.uid(), user.email());
+            }
+            return new HashMap<>();
+        } finally {
+            record(OP_AUTH, start);
+        }
+    }
+
+    @Override
+    public Map<String, String> findAuthUidsByEmail(Collection<String> emails)
+            throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            simulateCall();
+            Set<String> wanted = new HashSet<>();
+            emails.forEach(email -> wanted.add(email.toLowerCase(Locale.ROOT)));
+            Map<String, String> uids = new HashMap<>();
+            new TreeMap<>(authEmailsByUid).forEach((uid, email) -> {
+                String key = email.toLowerCase(Locale.ROOT);
+                if (wanted.contains(key)) {
+                    uids.putIfAbsent(key, uid);
+                }
+            });
+            return uids;
+        } finally {
+            record(OP_AUTH, start);
+        }
+    }
+
+    @Override
+    public void updateAuthUser(String uid, String email, String displayName)
+            throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            simulateCall();
+            authEmailsByUid.put(uid, email);
+        } finally {
+            record(OP_AUTH, start);
+        }
+    }
+
+    // ==================== INSPECTION ====================
+
+    public Optional<Map<String, Object>> getDocument(String collectionName, String documentId) {
+        return Optional.ofNullable(collection(collectionName).get(documentId)).map(HashMap::new);
+    }
+
+    public int countDocuments(String collectionName) {
+        return collection(collectionName).size();
+    }
+
+    public int countAuthUsers() {
+        return authEmailsByUid.size();
+    }
+
+    /**
+     * Latences observées pour une opération, en nanosecondes, triées
+     */
+    public long[] getLatenciesNanos(String operation) {
+        return latenciesNanos.getOrDefault(operation, new ConcurrentLinkedQueue<>()).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+    }
+
+    public synchronized void reset() {
+        collections.clear();
+        authEmailsByUid.clear();
+        latenciesNanos.clear();
+    }
+
+    private NavigableMap<String, Map<String, Object>> collection(String collectionName) {
+        return collections.computeIfAbsent(collectionName, name -> Collections.synchronizedNavigableMap(new TreeMap<>()));
+    }
+
+    private void simulateCall() throws ExecutionException, InterruptedException {
+        long delay = latencyMs;
+        if (jitterMs > 0) {
+            delay += ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1);
+        }
+        if (delay > 0) {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new ExecutionException(new IllegalStateException("UNAVAILABLE: échec simulé"));
+        }
+    }
+
+    private void record(String operation, long startNanos) {
+        latenciesNanos.computeIfAbsent(operation, op -> new ConcurrentLinkedQueue<>())
+                .add(System.nanoTime() - startNanos);
+    }
+
+    private LocalDateTime updatedAt(FirestoreDocument document) {
+        Object value = document.get(FIELD_UPDATED_AT);
+        if (value instanceof Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime;
+        }
+        return null;
+    }
+}
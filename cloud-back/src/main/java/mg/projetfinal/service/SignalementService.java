@@ -2,17 +2,22 @@ package mg.projetfinal.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.dto.SignalementMarkerDTO;
 import mg.projetfinal.entity.Signalement;
 import mg.projetfinal.entity.SignalementStatus;
 import mg.projetfinal.entity.User;
+import mg.projetfinal.enums.EntityType;
+import mg.projetfinal.enums.SyncAction;
 import mg.projetfinal.repository.SignalementRepository;
+import mg.projetfinal.utils.ClusterPyramid;
+import mg.projetfinal.utils.GeoUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +29,8 @@ public class SignalementService {
     private final SignalementRepository signalementRepository;
     private final HistoriqueStatusService historiqueStatusService;
     private final FirebasePushNotificationService pushNotificationService;
+    private final SyncQueueService syncQueueService;
+    private final SignalementSpatialIndex spatialIndex;
 
     public Signalement create(Signalement signalement, User user) {
         log.info("Création d'un nouveau signalement pour l'utilisateur: {}", user.getId());
@@ -44,6 +51,8 @@ public class SignalementService {
         if (signalement.getStatus() != null) {
             historiqueStatusService.createInitialHistorique(savedSignalement, user);
         }
+
+        syncQueueService.enqueue(EntityType.SIGNALEMENT, savedSignalement.getId(), SyncAction.CREATE);
         
         return savedSignalement;
     }
@@ -64,7 +73,10 @@ public class SignalementService {
             existingSignalement.setFirebaseSynced(false);
         }
         
-        return signalementRepository.save(existingSignalement);
+        Signalement saved = signalementRepository.save(existingSignalement);
+        syncQueueService.enqueue(EntityType.SIGNALEMENT, saved.getId(), saved.getFirebaseId(),
+                SyncAction.UPDATE, SyncQueueService.PRIORITY_NORMAL, buildSyncSnapshot(saved));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -79,6 +91,19 @@ public class SignalementService {
         return signalementRepository.findAll();
     }
 
+    /**
+     * Marqueurs de carte (id, position, code de statut, titre court), du plus
+     * récent au plus ancien, en une seule requête ; filtrés par statut si
+     * {@code statusCode} est renseigné
+     */
+    @Transactional(readOnly = true)
+    public List<SignalementMarkerDTO> findMapMarkers(String statusCode) {
+        if (statusCode == null || statusCode.isBlank()) {
+            return signalementRepository.findAllMarkers();
+        }
+        return signalementRepository.findMarkersByStatusCode(statusCode);
+    }
+
     @Transactional(readOnly = true)
     public List<Signalement> findAllOrderByDateDesc() {
         log.debug("Récupération de tous les signalements triés par date");
@@ -88,11 +113,12 @@ public class SignalementService {
     public void delete(Long id) {
         log.info("Suppression du signalement avec l'ID: {}", id);
         
-        if (!signalementRepository.existsById(id)) {
-            throw new IllegalArgumentException("Signalement non trouvé avec l'ID: " + id);
-        }
+        Signalement signalement = signalementRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Signalement non trouvé avec l'ID: " + id));
         
-        signalementRepository.deleteById(id);
+        signalementRepository.delete(signalement);
+        syncQueueService.enqueue(EntityType.SIGNALEMENT, id, signalement.getFirebaseId(),
+                SyncAction.DELETE, SyncQueueService.PRIORITY_NORMAL);
     }
 
     @Transactional(readOnly = true)
@@ -121,20 +147,96 @@ public class SignalementService {
 
     @Transactional(readOnly = true)
     public List<Signalement> findByLocation(BigDecimal latitude, BigDecimal longitude, double radiusKm) {
+        return findByLocation(latitude, longitude, radiusKm, null);
+    }
+
+    /**
+     * Signalements à au plus {@code radiusKm} km, du plus proche au plus éloigné,
+     * limités aux {@code limit} plus proches si précisé.
+     * Les candidats viennent de l'index spatial, ou à défaut d'une requête SQL
+     * filtrée par rectangle englobant ; seuls ceux retenus sont chargés.
+     */
+    @Transactional(readOnly = true)
+    public List<Signalement> findByLocation(BigDecimal latitude, BigDecimal longitude, double radiusKm, Integer limit) {
         log.debug("Recherche des signalements dans un rayon de {} km autour de ({}, {})", 
                 radiusKm, latitude, longitude);
-        
-        return signalementRepository.findAll().stream()
-                .filter(signalement -> {
-                    double distance = calculateDistance(
-                            latitude.doubleValue(), 
-                            longitude.doubleValue(),
-                            signalement.getLatitude().doubleValue(),
-                            signalement.getLongitude().doubleValue()
-                    );
-                    return distance <= radiusKm;
-                })
-                .collect(Collectors.toList());
+
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        int max = limit != null && limit > 0 ? limit : Integer.MAX_VALUE;
+
+        if (spatialIndex.isReady()) {
+            long[] ids = spatialIndex.withinRadius(lat, lon, radiusKm);
+            return findAllInOrder(ids.length > max ? Arrays.copyOf(ids, max) : ids);
+        }
+
+        double latitudeDelta = radiusKm / GeoUtils.KM_PER_DEGREE;
+        double longitudeDelta = GeoUtils.longitudeDelta(lat, radiusKm);
+        double minLongitude = lon - longitudeDelta;
+        double maxLongitude = lon + longitudeDelta;
+        if (minLongitude < -180 || maxLongitude > 180) {
+            // Cercle à cheval sur l'antiméridien : seule la latitude filtre
+            minLongitude = -180;
+            maxLongitude = 180;
+        }
+        List<Long> ids = signalementRepository.findIdsWithinRadius(lat, lon, radiusKm,
+                lat - latitudeDelta, lat + latitudeDelta, minLongitude, maxLongitude, max);
+        return findAllInOrder(ids.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * Signalements du rectangle (vue de carte) ; {@code minLongitude > maxLongitude}
+     * pour un rectangle qui traverse l'antiméridien
+     */
+    @Transactional(readOnly = true)
+    public List<Signalement> findInBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        log.debug("Recherche des signalements dans le rectangle ({}, {}) - ({}, {})",
+                minLatitude, minLongitude, maxLatitude, maxLongitude);
+
+        if (spatialIndex.isReady()) {
+            return findAllInOrder(spatialIndex.withinBox(minLatitude, minLongitude, maxLatitude, maxLongitude));
+        }
+        List<Long> ids = new ArrayList<>();
+        if (minLongitude <= maxLongitude) {
+            ids.addAll(signalementRepository.findIdsInBox(minLatitude, maxLatitude, minLongitude, maxLongitude));
+        } else {
+            ids.addAll(signalementRepository.findIdsInBox(minLatitude, maxLatitude, minLongitude, 180));
+            ids.addAll(signalementRepository.findIdsInBox(minLatitude, maxLatitude, -180, maxLongitude));
+        }
+        return findAllInOrder(ids.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * Groupes de signalements du rectangle au niveau de zoom donné, lus dans la
+     * pyramide précalculée ; à défaut, regroupés à la volée depuis la base
+     */
+    @Transactional(readOnly = true)
+    public List<ClusterPyramid.Cluster> findMapClusters(double minLatitude, double minLongitude,
+                                                        double maxLatitude, double maxLongitude, int zoom) {
+        if (spatialIndex.isReady()) {
+            return spatialIndex.clusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom);
+        }
+        int level = Math.max(0, Math.min(zoom, spatialIndex.getClusterMaxZoom()));
+        ClusterPyramid pyramid = spatialIndex.newPyramid(level, level);
+        loadMapPoints(minLatitude, minLongitude, maxLatitude, maxLongitude)
+                .forEach(point -> pyramid.put(point.id(), point.latitude(), point.longitude(), point.status()));
+        return pyramid.clusters(minLatitude, minLongitude, maxLatitude, maxLongitude, level);
+    }
+
+    /**
+     * Signalements du rectangle réduits à leur position et leur statut
+     */
+    @Transactional(readOnly = true)
+    public List<ClusterPyramid.Point> findMapPoints(double minLatitude, double minLongitude,
+                                                    double maxLatitude, double maxLongitude) {
+        if (spatialIndex.isReady()) {
+            return spatialIndex.points(minLatitude, minLongitude, maxLatitude, maxLongitude);
+        }
+        return loadMapPoints(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+
+    public int getMapClusterMaxZoom() {
+        return spatialIndex.getClusterMaxZoom();
     }
 
     public Signalement changeStatus(Long id, SignalementStatus newStatus, User modifiedBy, String commentaire) {
@@ -156,6 +258,8 @@ public class SignalementService {
         signalement.setFirebaseSynced(false);
         
         Signalement saved = signalementRepository.save(signalement);
+        syncQueueService.enqueue(EntityType.SIGNALEMENT, saved.getId(), saved.getFirebaseId(),
+                SyncAction.UPDATE, SyncQueueService.PRIORITY_HIGH, buildSyncSnapshot(saved));
 
         // Envoyer une notification push à chaque changement de statut
         try {
@@ -242,18 +346,48 @@ public class SignalementService {
                 .count();
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int EARTH_RADIUS = 6371;
-        
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return EARTH_RADIUS * c;
+    /**
+     * Champs suivis dans le snapshot de l'outbox (dernière valeur connue)
+     */
+    private Map<String, Object> buildSyncSnapshot(Signalement signalement) {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("statusCode", signalement.getStatus() != null ? signalement.getStatus().getCode() : null);
+        snapshot.put("niveau", signalement.getNiveau());
+        snapshot.put("budget", signalement.getBudget());
+        return snapshot;
+    }
+
+    private List<ClusterPyramid.Point> loadMapPoints(double minLatitude, double minLongitude,
+                                                     double maxLatitude, double maxLongitude) {
+        List<Object[]> rows = new ArrayList<>();
+        if (minLongitude <= maxLongitude) {
+            rows.addAll(findLocationsInBox(minLatitude, maxLatitude, minLongitude, maxLongitude));
+        } else {
+            rows.addAll(findLocationsInBox(minLatitude, maxLatitude, minLongitude, 180));
+            rows.addAll(findLocationsInBox(minLatitude, maxLatitude, -180, maxLongitude));
+        }
+        return rows.stream()
+                .map(row -> new ClusterPyramid.Point((Long) row[0], ((BigDecimal) row[1]).doubleValue(),
+                        ((BigDecimal) row[2]).doubleValue(), (String) row[3]))
+                .collect(Collectors.toList());
+    }
+
+    private List<Object[]> findLocationsInBox(double minLatitude, double maxLatitude,
+                                              double minLongitude, double maxLongitude) {
+        return signalementRepository.findLocationsInBox(BigDecimal.valueOf(minLatitude), BigDecimal.valueOf(maxLatitude),
+                BigDecimal.valueOf(minLongitude), BigDecimal.valueOf(maxLongitude));
+    }
+
+    /**
+     * Charge les signalements dans l'ordre des IDs fournis
+     */
+    private List<Signalement> findAllInOrder(long[] ids) {
+        List<Long> idList = Arrays.stream(ids).boxed().toList();
+        Map<Long, Signalement> byId = signalementRepository.findAllById(idList).stream()
+                .collect(Collectors.toMap(Signalement::getId, Function.identity()));
+        return idList.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
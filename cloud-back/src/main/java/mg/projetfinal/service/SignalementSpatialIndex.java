@@ -0,0 +1,238 @@
+package mg.projetfinal.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.repository.SignalementRepository;
+import mg.projetfinal.utils.ClusterPyramid;
+import mg.projetfinal.utils.SpatialGridIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Index spatial en mémoire des signalements (ID, coordonnées, statut) : grille
+ * pour les recherches par rayon et par rectangle sans charger la table, et
+ * pyramide de regroupements par niveau de zoom pour la carte.
+ * Construit au démarrage, tenu à jour après chaque commit qui crée, déplace
+ * ou supprime un signalement (voir {@link SignalementSpatialIndexListener}),
+ * et reconstruit toutes les {@code signalement.spatial-index.rebuild-interval-ms}
+ * ms pour rattraper les modifications faites hors JPA. Les modifications
+ * survenues pendant une reconstruction sont rejouées sur le nouvel index.
+ * Désactivé ({@code signalement.spatial-index.enabled=false}), les recherches
+ * passent par les requêtes SQL de {@link SignalementRepository}.
+ * Les {@link ChangeListener} (cache des tuiles vectorielles) sont prévenus de
+ * chaque point modifié et de chaque reconstruction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SignalementSpatialIndex {
+
+    private final SignalementRepository signalementRepository;
+
+    @Value("${signalement.spatial-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${signalement.spatial-index.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
+    @Value("${signalement.map.cluster-max-zoom:15}")
+    private int clusterMaxZoom;
+
+    @Value("${signalement.map.cluster-radius-px:64}")
+    private int clusterRadiusPixels;
+
+    private volatile Indexes index;
+    // Modifications à rejouer sur l'index en cours de reconstruction (null hors reconstruction)
+    private List<Consumer<Indexes>> pendingChanges;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    private record Indexes(SpatialGridIndex grid, ClusterPyramid clusters) {
+
+        ClusterPyramid.Point put(long id, double latitude, double longitude, String status) {
+            grid.put(id, latitude, longitude);
+            return clusters.put(id, latitude, longitude, status);
+        }
+
+        ClusterPyramid.Point remove(long id) {
+            grid.remove(id);
+            return clusters.remove(id);
+        }
+    }
+
+    /**
+     * Abonné aux modifications de l'index, appelé après leur application
+     */
+    public interface ChangeListener {
+
+        /**
+         * Point ajouté ({@code previous} null), déplacé ou changé de statut,
+         * ou supprimé ({@code current} null)
+         */
+        void onPointChanged(ClusterPyramid.Point previous, ClusterPyramid.Point current);
+
+        /**
+         * Index remplacé par une reconstruction : tout peut avoir changé
+         */
+        void onRebuilt();
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${signalement.spatial-index.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${signalement.spatial-index.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            Indexes fresh = new Indexes(new SpatialGridIndex(cellSizeDegrees), newPyramid(0, clusterMaxZoom));
+            for (Object[] location : signalementRepository.findAllLocations()) {
+                try {
+                    fresh.put((Long) location[0], toDouble(location[1]), toDouble(location[2]), (String) location[3]);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Signalement {} non indexé: {}", location[0], e.getMessage());
+                }
+            }
+            synchronized (this) {
+                pendingChanges.forEach(change -> change.accept(fresh));
+                index = fresh;
+            }
+            changeListeners.forEach(ChangeListener::onRebuilt);
+            log.info("Index spatial des signalements construit : {} points en {} ms",
+                    fresh.grid().size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Construction de l'index spatial des signalements impossible: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    /**
+     * Indique si l'index est construit ; sinon les recherches passent par la base
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * IDs des signalements à au plus {@code radiusKm} km, du plus proche au plus éloigné
+     */
+    public long[] withinRadius(double latitude, double longitude, double radiusKm) {
+        return current().grid().withinRadius(latitude, longitude, radiusKm);
+    }
+
+    public long[] withinBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        return current().grid().withinBox(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+
+    /**
+     * Regroupements du rectangle au niveau de zoom donné (au plus
+     * {@code signalement.map.cluster-max-zoom})
+     */
+    public List<ClusterPyramid.Cluster> clusters(double minLatitude, double minLongitude,
+                                                 double maxLatitude, double maxLongitude, int zoom) {
+        return current().clusters().clusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom);
+    }
+
+    /**
+     * Points du rectangle avec leur statut, sans passer par la base
+     */
+    public List<ClusterPyramid.Point> points(double minLatitude, double minLongitude,
+                                             double maxLatitude, double maxLongitude) {
+        Indexes current = current();
+        List<ClusterPyramid.Point> points = new ArrayList<>();
+        for (long id : current.grid().withinBox(minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+            ClusterPyramid.Point point = current.clusters().get(id);
+            if (point != null) {
+                points.add(point);
+            }
+        }
+        return points;
+    }
+
+    public int getClusterMaxZoom() {
+        return clusterMaxZoom;
+    }
+
+    public int getClusterRadiusPixels() {
+        return clusterRadiusPixels;
+    }
+
+    /**
+     * Pyramide de regroupement vide, de la taille de cellule configurée
+     */
+    public ClusterPyramid newPyramid(int minZoom, int maxZoom) {
+        return new ClusterPyramid(minZoom, maxZoom, clusterRadiusPixels);
+    }
+
+    public void put(Long id, BigDecimal latitude, BigDecimal longitude, String status) {
+        if (id == null || latitude == null || longitude == null) {
+            return;
+        }
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        apply(index -> index.put(id, lat, lon, status), new ClusterPyramid.Point(id, lat, lon, status));
+    }
+
+    public void remove(Long id) {
+        if (id != null) {
+            apply(index -> index.remove(id), null);
+        }
+    }
+
+    /**
+     * @param change  modification, rendant le point tel qu'il était avant
+     * @param current le point après modification (null si supprimé)
+     */
+    private synchronized void apply(Function<Indexes, ClusterPyramid.Point> change, ClusterPyramid.Point current) {
+        try {
+            if (index != null) {
+                ClusterPyramid.Point previous = change.apply(index);
+                if (!Objects.equals(previous, current)) {
+                    changeListeners.forEach(listener -> listener.onPointChanged(previous, current));
+                }
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change::apply);
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Signalement non indexé: {}", e.getMessage());
+        }
+    }
+
+    private Indexes current() {
+        Indexes current = index;
+        if (current == null) {
+            throw new IllegalStateException("Index spatial des signalements non construit");
+        }
+        return current;
+    }
+
+    private static double toDouble(Object value) {
+        return ((Number) value).doubleValue();
+    }
+}
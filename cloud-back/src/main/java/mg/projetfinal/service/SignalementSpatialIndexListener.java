@@ -0,0 +1,56 @@
+package mg.projetfinal.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import mg.projetfinal.entity.Signalement;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+/**
+ * Répercute dans {@link SignalementSpatialIndex} les signalements créés,
+ * déplacés, changés de statut ou supprimés, une fois la transaction validée (rien n'est indexé
+ * si elle est annulée). Quel que soit le chemin d'écriture JPA : services,
+ * pull Firebase, initialisation des données.
+ */
+@Component
+@RequiredArgsConstructor
+public class SignalementSpatialIndexListener {
+
+    // Résolu à l'usage : l'index dépend du repository, donc de l'EntityManagerFactory qui crée ce listener
+    private final ObjectProvider<SignalementSpatialIndex> spatialIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Signalement signalement) {
+        Long id = signalement.getId();
+        BigDecimal latitude = signalement.getLatitude();
+        BigDecimal longitude = signalement.getLongitude();
+        String status = signalement.getStatus() != null ? signalement.getStatus().getCode() : null;
+        afterCommit(() -> spatialIndex.getObject().put(id, latitude, longitude, status));
+    }
+
+    @PostRemove
+    public void onRemoved(Signalement signalement) {
+        Long id = signalement.getId();
+        afterCommit(() -> spatialIndex.getObject().remove(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
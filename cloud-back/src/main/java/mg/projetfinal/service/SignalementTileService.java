@@ -0,0 +1,217 @@
+package mg.projetfinal.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.mapper.SignalementMapper;
+import mg.projetfinal.utils.ClusterPyramid;
+import mg.projetfinal.utils.GeoUtils;
+import mg.projetfinal.utils.VectorTileEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tuiles vectorielles (Mapbox Vector Tile) des signalements, couche
+ * {@code signalements} : groupes de la pyramide jusqu'au zoom de regroupement
+ * maximal, points individuels au-delà.
+ * Les tuiles produites depuis l'index spatial sont gardées en cache (LRU) par
+ * (z, x, y). Un signalement ajouté, déplacé, changé de statut ou supprimé
+ * n'invalide, à chaque zoom, que les tuiles où il apparaissait et où il
+ * apparaît désormais (marge et cellule de regroupement comprises) ; une
+ * reconstruction de l'index vide le cache.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SignalementTileService implements SignalementSpatialIndex.ChangeListener {
+
+    public static final String LAYER_NAME = "signalements";
+    private static final int TILE_SIZE = 256;
+
+    private final SignalementService signalementService;
+    private final SignalementSpatialIndex spatialIndex;
+    private final SignalementMapper signalementMapper;
+
+    @Value("${signalement.tiles.max-zoom:22}")
+    private int maxZoom;
+
+    @Value("${signalement.tiles.extent:4096}")
+    private int extent;
+
+    @Value("${signalement.tiles.buffer-px:16}")
+    private int bufferPixels;
+
+    @Value("${signalement.tiles.cache-size:10000}")
+    private int cacheSize;
+
+    private Map<Long, byte[]> cache;
+    // Incrémenté à chaque invalidation : une tuile calculée pendant une modification n'est pas mise en cache
+    private long version;
+    private long hits;
+    private long misses;
+
+    @PostConstruct
+    public void init() {
+        if (maxZoom < 0 || maxZoom > 24) {
+            throw new IllegalStateException("signalement.tiles.max-zoom doit être entre 0 et 24");
+        }
+        cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        spatialIndex.addChangeListener(this);
+    }
+
+    /**
+     * Tuile {@code z/x/y} encodée en MVT ; tableau vide si aucun signalement
+     */
+    public byte[] getTile(int z, int x, int y) {
+        if (z < 0 || z > maxZoom) {
+            throw new IllegalArgumentException("Zoom hors limites (0 à " + maxZoom + "): " + z);
+        }
+        long tiles = 1L << z;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Tuile inexistante au zoom " + z + ": " + x + "/" + y);
+        }
+
+        long key = tileKey(z, x, y);
+        long startVersion;
+        synchronized (this) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            startVersion = version;
+        }
+
+        // Sans index, la tuile vient de la base et ne serait pas invalidée : pas de cache
+        boolean cacheable = spatialIndex.isReady();
+        byte[] tile = render(z, x, y);
+        if (cacheable) {
+            synchronized (this) {
+                if (version == startVersion) {
+                    cache.put(key, tile);
+                }
+            }
+        }
+        return tile;
+    }
+
+    public synchronized Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxSize", cacheSize);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        return stats;
+    }
+
+    @Override
+    public void onPointChanged(ClusterPyramid.Point previous, ClusterPyramid.Point current) {
+        synchronized (this) {
+            version++;
+            if (cache.isEmpty()) {
+                return;
+            }
+            if (previous != null) {
+                invalidate(previous);
+            }
+            if (current != null) {
+                invalidate(current);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onRebuilt() {
+        version++;
+        cache.clear();
+    }
+
+    // ==================== ENCODAGE ====================
+
+    private byte[] render(int z, int x, int y) {
+        double buffer = (double) bufferPixels / TILE_SIZE;
+        double north = GeoUtils.tileLatitude(y - buffer, z);
+        double south = GeoUtils.tileLatitude(y + 1 + buffer, z);
+        double west = Math.max(-180, GeoUtils.tileLongitude(x - buffer, z));
+        double east = Math.min(180, GeoUtils.tileLongitude(x + 1 + buffer, z));
+
+        VectorTileEncoder encoder = new VectorTileEncoder(extent);
+        if (z > signalementService.getMapClusterMaxZoom()) {
+            for (ClusterPyramid.Point point : signalementService.findMapPoints(south, west, north, east)) {
+                Map<String, Object> properties = new LinkedHashMap<>();
+                properties.put("count", 1);
+                properties.put("status", point.status());
+                properties.put("color", signalementMapper.colorForStatus(point.status()));
+                addFeature(encoder, z, x, y, point.id(), point.latitude(), point.longitude(), properties);
+            }
+        } else {
+            for (ClusterPyramid.Cluster cluster : signalementService.findMapClusters(south, west, north, east, z)) {
+                Map<String, Object> properties = new LinkedHashMap<>();
+                properties.put("count", cluster.count());
+                if (cluster.id() != null) {
+                    String status = cluster.statuses().keySet().iterator().next();
+                    properties.put("status", status);
+                    properties.put("color", signalementMapper.colorForStatus(status));
+                } else {
+                    cluster.statuses().forEach((status, count) -> properties.put("count_" + status, count));
+                }
+                addFeature(encoder, z, x, y, cluster.id(), cluster.latitude(), cluster.longitude(), properties);
+            }
+        }
+        return encoder.encode(LAYER_NAME);
+    }
+
+    private void addFeature(VectorTileEncoder encoder, int z, int x, int y, Long id,
+                            double latitude, double longitude, Map<String, Object> properties) {
+        long tiles = 1L << z;
+        long tileX = Math.round((GeoUtils.mercatorX(longitude) * tiles - x) * extent);
+        long tileY = Math.round((GeoUtils.mercatorY(latitude) * tiles - y) * extent);
+        long margin = (long) bufferPixels * extent / TILE_SIZE;
+        if (tileX < -margin || tileX > extent + margin || tileY < -margin || tileY > extent + margin) {
+            return;
+        }
+        encoder.addPoint(id, (int) tileX, (int) tileY, properties);
+    }
+
+    // ==================== CACHE ====================
+
+    /**
+     * Retire, à chaque zoom, les tuiles dont la zone (marge comprise) peut
+     * contenir le point ou le barycentre de sa cellule de regroupement
+     */
+    private void invalidate(ClusterPyramid.Point point) {
+        double mercatorX = GeoUtils.mercatorX(point.longitude());
+        double mercatorY = GeoUtils.mercatorY(point.latitude());
+        int clusterMaxZoom = signalementService.getMapClusterMaxZoom();
+
+        for (int z = 0; z <= maxZoom; z++) {
+            long tiles = 1L << z;
+            double margin = bufferPixels + (z <= clusterMaxZoom ? spatialIndex.getClusterRadiusPixels() : 0);
+            double pixelX = mercatorX * tiles * TILE_SIZE;
+            double pixelY = mercatorY * tiles * TILE_SIZE;
+            long firstX = Math.max(0, (long) Math.floor((pixelX - margin) / TILE_SIZE));
+            long lastX = Math.min(tiles - 1, (long) Math.floor((pixelX + margin) / TILE_SIZE));
+            long firstY = Math.max(0, (long) Math.floor((pixelY - margin) / TILE_SIZE));
+            long lastY = Math.min(tiles - 1, (long) Math.floor((pixelY + margin) / TILE_SIZE));
+            for (long x = firstX; x <= lastX; x++) {
+                for (long y = firstY; y <= lastY; y++) {
+                    cache.remove(tileKey(z, x, y));
+                }
+            }
+        }
+    }
+
+    private static long tileKey(int z, long x, long y) {
+        return ((long) z << 50) | (x << 25) | y;
+    }
+}
@@ -0,0 +1,94 @@
+package mg.projetfinal.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.entity.SyncHistory;
+import mg.projetfinal.enums.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Résolution des conflits détectés lors du pull : une entité est en conflit
+ * quand sa copie locale n'a pas encore été poussée et que la version du
+ * document Firestore a changé depuis la dernière synchronisation.
+ * La règle générale ({@code sync.conflict.policy}) peut être surchargée pour
+ * le statut des signalements ({@code sync.conflict.status-policy}). Chaque
+ * conflit est tracé dans sync_history avec le statut CONFLICT.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncConflictResolver {
+
+    private final SyncHistoryService syncHistoryService;
+
+    @Value("${sync.conflict.policy:NEWEST}")
+    private ConflictPolicy policy;
+
+    @Value("${sync.conflict.status-policy:LOCAL_WINS}")
+    private ConflictPolicy statusPolicy;
+
+    public enum Winner {
+        LOCAL,
+        REMOTE
+    }
+
+    /**
+     * Version retenue pour l'entité
+     */
+    public Winner resolve(LocalDateTime localUpdatedAt, LocalDateTime remoteUpdatedAt) {
+        return winner(policy, localUpdatedAt, remoteUpdatedAt);
+    }
+
+    /**
+     * Version retenue pour le statut d'un signalement
+     */
+    public Winner resolveStatus(LocalDateTime localUpdatedAt, LocalDateTime remoteUpdatedAt) {
+        return winner(statusPolicy, localUpdatedAt, remoteUpdatedAt);
+    }
+
+    public void record(EntityType entityType, Long entityId, Winner winner,
+                       Long baseVersion, Long remoteVersion,
+                       LocalDateTime localUpdatedAt, LocalDateTime remoteUpdatedAt) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("policy", policy.name());
+        details.put("winner", winner.name());
+        details.put("baseVersion", baseVersion);
+        details.put("remoteVersion", remoteVersion);
+        details.put("localUpdatedAt", localUpdatedAt != null ? localUpdatedAt.toString() : null);
+        details.put("remoteUpdatedAt", remoteUpdatedAt != null ? remoteUpdatedAt.toString() : null);
+
+        log.warn("Conflit {} {} (version {} → {}) résolu en faveur de {}",
+                entityType, entityId, baseVersion, remoteVersion, winner);
+
+        syncHistoryService.record(SyncHistory.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .action(SyncAction.UPDATE)
+                .direction(SyncDirection.FIREBASE_TO_POSTGRES)
+                .status(SyncStatus.CONFLICT)
+                .errorMessage(winner == Winner.LOCAL ?
+                        "Conflit résolu : version locale conservée" :
+                        "Conflit résolu : version Firestore appliquée")
+                .firebaseResponse(details)
+                .syncedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private static Winner winner(ConflictPolicy policy, LocalDateTime localUpdatedAt, LocalDateTime remoteUpdatedAt) {
+        return switch (policy) {
+            case LOCAL_WINS -> Winner.LOCAL;
+            case REMOTE_WINS -> Winner.REMOTE;
+            case NEWEST -> {
+                if (remoteUpdatedAt == null) {
+                    yield Winner.LOCAL;
+                }
+                yield localUpdatedAt == null || remoteUpdatedAt.isAfter(localUpdatedAt) ? Winner.REMOTE : Winner.LOCAL;
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package mg.projetfinal.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * État de la connexion à Firebase, pour le fonctionnement hors ligne.
+ * Hors ligne quand {@code app.mode} n'est pas "online" ou que Firestore ne
+ * répond pas ; sondé toutes les {@code sync.connectivity.check-interval-ms} ms,
+ * et immédiatement après un lot outbox en échec. Tant que l'instance est hors
+ * ligne, les modifications s'accumulent dans sync_queue sans consommer de
+ * tentatives ; le {@link SyncOutboxWorker} les vide au retour de la connexion.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncConnectivity {
+
+    private final FirestoreGateway firestoreGateway;
+
+    @Value("${app.mode:online}")
+    private String appMode;
+
+    private volatile boolean online;
+    private volatile LocalDateTime changedAt = LocalDateTime.now();
+    private volatile LocalDateTime checkedAt;
+
+    @PostConstruct
+    void init() {
+        online = probe();
+        checkedAt = LocalDateTime.now();
+        log.info("Synchronisation Firebase au démarrage : {}", online ? "en ligne" : "hors ligne");
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    @Scheduled(fixedDelayString = "${sync.connectivity.check-interval-ms:15000}")
+    public void refresh() {
+        check();
+    }
+
+    /**
+     * Sonde Firebase et met à jour l'état
+     *
+     * @return true si la connexion vient d'être rétablie
+     */
+    public synchronized boolean check() {
+        boolean reachable = probe();
+        checkedAt = LocalDateTime.now();
+        if (reachable == online) {
+            return false;
+        }
+        online = reachable;
+        changedAt = checkedAt;
+        if (reachable) {
+            log.info("Connexion Firebase rétablie, reprise de la synchronisation");
+        } else {
+            log.warn("Firebase injoignable, synchronisation suspendue (modifications conservées dans sync_queue)");
+        }
+        return reachable;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> connectivity = new LinkedHashMap<>();
+        connectivity.put("mode", appMode);
+        connectivity.put("online", online);
+        connectivity.put("since", changedAt.toString());
+        connectivity.put("checkedAt", checkedAt != null ? checkedAt.toString() : null);
+        return connectivity;
+    }
+
+    private boolean probe() {
+        if (!"online".equalsIgnoreCase(appMode)) {
+            return false;
+        }
+        try {
+            return firestoreGateway.isReachable();
+        } catch (Exception e) {
+            log.debug("Sonde Firebase en échec: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package mg.projetfinal.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.entity.SyncQueue;
+import mg.projetfinal.enums.EntityType;
+import mg.projetfinal.enums.SyncDirection;
+import mg.projetfinal.enums.SyncStatus;
+import mg.projetfinal.repository.SyncQueueRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Consultation, correction et rejeu des entrées de sync_queue en quarantaine
+ * (DEAD_LETTER).
+ * <ul>
+ *     <li>PostgreSQL → Firebase : l'entité est relue en base au rejeu ; on la
+ *     corrige par les API habituelles puis on la remet en file, le worker outbox
+ *     la pousse.</li>
+ *     <li>Firebase → PostgreSQL : l'instantané du document peut être corrigé
+ *     ici, il est réappliqué immédiatement au rejeu avec les mappers du pull.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncDeadLetterService {
+
+    private final SyncQueueRepository syncQueueRepository;
+    private final FirebaseSyncService firebaseSyncService;
+
+    @Transactional(readOnly = true)
+    public Page<SyncQueue> list(EntityType entityType, int page, int size) {
+        return syncQueueRepository.findDeadLetters(entityType, PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 200)));
+    }
+
+    /**
+     * Corrige l'instantané d'un document Firestore en quarantaine ; une valeur
+     * null supprime le champ
+     */
+    @Transactional
+    public SyncQueue fix(Long id, Map<String, Object> changes) {
+        SyncQueue entry = getDeadLetter(id);
+        if (entry.getDirection() != SyncDirection.FIREBASE_TO_POSTGRES) {
+            throw new IllegalArgumentException("Entrée " + id + " : corriger l'entité elle-même, " +
+                    "elle est relue en base au rejeu");
+        }
+
+        Map<String, Object> snapshot = entry.getDataSnapshot() != null ?
+                new HashMap<>(entry.getDataSnapshot()) : new HashMap<>();
+        changes.forEach((field, value) -> {
+            if (value == null) {
+                snapshot.remove(field);
+            } else {
+                snapshot.put(field, value);
+            }
+        });
+        entry.setDataSnapshot(snapshot);
+        log.info("Instantané de l'entrée {} corrigé: {}", id, changes.keySet());
+        return syncQueueRepository.save(entry);
+    }
+
+    /**
+     * Rejoue les entrées désignées, ou toutes celles en quarantaine (d'un type
+     * d'entité si précisé) quand aucun ID n'est fourni
+     *
+     * @return nombre d'entrées remises en file, réappliquées, toujours en échec
+     */
+    public Map<String, Object> replay(List<Long> ids, EntityType entityType) {
+        List<Long> targets = ids != null && !ids.isEmpty() ? ids : syncQueueRepository.findDeadLetterIds(entityType);
+
+        int requeued = 0;
+        int applied = 0;
+        List<Map<String, Object>> failed = new ArrayList<>();
+        for (Long id : targets) {
+            try {
+                SyncQueue entry = getDeadLetter(id);
+                if (entry.getDirection() == SyncDirection.FIREBASE_TO_POSTGRES) {
+                    if (firebaseSyncService.replayPulledDocument(id)) {
+                        applied++;
+                    } else {
+                        failed.add(failure(id, syncQueueRepository.findById(id)
+                                .map(SyncQueue::getErrorMessage).orElse(null)));
+                    }
+                } else {
+                    entry.replay();
+                    syncQueueRepository.save(entry);
+                    requeued++;
+                }
+            } catch (Exception e) {
+                failed.add(failure(id, e.getMessage()));
+            }
+        }
+
+        log.info("Rejeu de la quarantaine: {} remises en file, {} réappliquées, {} en échec",
+                requeued, applied, failed.size());
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requested", targets.size());
+        summary.put("requeued", requeued);
+        summary.put("applied", applied);
+        summary.put("failed", failed);
+        return summary;
+    }
+
+    private SyncQueue getDeadLetter(Long id) {
+        SyncQueue entry = syncQueueRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Entrée introuvable: " + id));
+        if (entry.getStatus() != SyncStatus.DEAD_LETTER) {
+            throw new IllegalStateException("Entrée " + id + " hors quarantaine (" + entry.getStatus() + ")");
+        }
+        return entry;
+    }
+
+    private static Map<String, Object> failure(Long id, String error) {
+        Map<String, Object> failure = new LinkedHashMap<>();
+        failure.put("id", id);
+        failure.put("error", error);
+        return failure;
+    }
+}
@@ -0,0 +1,206 @@
+package mg.projetfinal.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.entity.SyncHistory;
+import mg.projetfinal.repository.SyncHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Écriture différée de sync_history.
+ * Les lignes sont accumulées en mémoire et insérées par lots JDBC
+ * ({@code sync.history.flush-interval-ms}), dans une transaction propre :
+ * la synchronisation n'attend plus un INSERT par entité, et un rollback de
+ * l'appelant n'emporte pas l'historique des autres threads. Au-delà de
+ * {@code sync.history.buffer-capacity} lignes en attente, l'appelant vide
+ * lui-même le tampon.
+ * Les lignes plus anciennes que {@code sync.history.retention-days} jours sont
+ * compactées chaque nuit en agrégats journaliers (sync_history_daily), par
+ * lots de {@code sync.history.compaction-batch-size} lignes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncHistoryService {
+
+    private static final String INSERT_SQL = "INSERT INTO sync_history " +
+            "(sync_queue_id, entity_type, entity_id, action, direction, status, error_message, " +
+            "firebase_response, duration_ms, synced_by, synced_at, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyncHistoryRepository syncHistoryRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final SyncLeadership syncLeadership;
+
+    @Value("${sync.history.flush-size:500}")
+    private int flushSize;
+
+    @Value("${sync.history.buffer-capacity:20000}")
+    private int bufferCapacity;
+
+    @Value("${sync.history.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${sync.history.compaction-batch-size:5000}")
+    private int compactionBatchSize;
+
+    private final ConcurrentLinkedQueue<SyncHistory> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Ajoute une ligne d'historique au tampon
+     */
+    public void record(SyncHistory history) {
+        buffer.add(history);
+        if (buffered.incrementAndGet() >= bufferCapacity) {
+            flush();
+        }
+    }
+
+    /**
+     * Insère les lignes en attente par lots JDBC de {@code sync.history.flush-size}
+     */
+    @Scheduled(fixedDelayString = "${sync.history.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<SyncHistory> batch = new ArrayList<>();
+            SyncHistory history;
+            while ((history = buffer.poll()) != null) {
+                buffered.decrementAndGet();
+                batch.add(history);
+                if (batch.size() >= Math.max(flushSize, 1)) {
+                    insert(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getBufferedCount() {
+        return buffered.get();
+    }
+
+    /**
+     * Cumule les lignes anciennes dans sync_history_daily puis les supprime,
+     * lot par lot (une transaction par lot) ; une seule instance compacte
+     */
+    @Scheduled(cron = "${sync.history.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        syncLeadership.tryAcquire("history-compaction").ifPresent(lease -> {
+            try (lease) {
+                compactOlderRows();
+            }
+        });
+    }
+
+    private void compactOlderRows() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int batches = 0;
+        while (true) {
+            Integer aggregates = newTransaction.execute(status ->
+                    syncHistoryRepository.rollUpOlderThan(cutoff, Math.max(compactionBatchSize, 1)));
+            if (aggregates == null || aggregates == 0) {
+                break;
+            }
+            batches++;
+        }
+        if (batches > 0) {
+            log.info("Compaction sync_history : {} lots antérieurs au {} cumulés par jour", batches, cutoff.toLocalDate());
+        }
+    }
+
+    /**
+     * Insère un lot ; un lot refusé par une contrainte est coupé en deux et
+     * réessayé, pour n'écarter que la ou les lignes en cause
+     */
+    private void insert(List<SyncHistory> batch) {
+        try {
+            insertBatch(batch);
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                SyncHistory history = batch.get(0);
+                log.error("Ligne sync_history écartée ({} {}, statut {}): {}", history.getEntityType(),
+                        history.getEntityId(), history.getStatus(), e.getMostSpecificCause().getMessage());
+                return;
+            }
+            int middle = batch.size() / 2;
+            insert(batch.subList(0, middle));
+            insert(batch.subList(middle, batch.size()));
+        } catch (Exception e) {
+            log.error("Écriture de {} lignes sync_history impossible: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void insertBatch(List<SyncHistory> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        newTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                (statement, history) -> {
+                    statement.setObject(1, history.getSyncQueueId(), Types.BIGINT);
+                    statement.setString(2, history.getEntityType().name());
+                    statement.setLong(3, history.getEntityId());
+                    statement.setString(4, history.getAction().name());
+                    statement.setString(5, history.getDirection().name());
+                    statement.setString(6, history.getStatus().name());
+                    statement.setString(7, history.getErrorMessage());
+                    statement.setString(8, toJson(history.getFirebaseResponse()));
+                    statement.setObject(9, history.getDurationMs(), Types.INTEGER);
+                    statement.setObject(10, history.getSyncedBy() != null ? history.getSyncedBy().getId() : null, Types.BIGINT);
+                    statement.setTimestamp(11, history.getSyncedAt() != null ? Timestamp.valueOf(history.getSyncedAt()) : now);
+                    statement.setTimestamp(12, now);
+                }));
+    }
+
+    private String toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("firebase_response non sérialisable: {}", e.getMessage());
+            return null;
+        }
+    }
+}
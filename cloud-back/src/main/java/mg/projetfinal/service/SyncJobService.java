@@ -0,0 +1,297 @@
+package mg.projetfinal.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exécute les synchronisations complètes en arrière-plan.
+ * Un seul job tourne à la fois : un démarrage concurrent est refusé.
+ * Les jobs terminés sont conservés en mémoire (les {@code sync.jobs.history-size}
+ * derniers) pour permettre leur consultation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncJobService {
+
+    private final FirebaseSyncService firebaseSyncService;
+
+    @Value("${sync.jobs.history-size:20}")
+    private int historySize;
+
+    private final Map<String, SyncJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicReference<SyncJob> runningJob = new AtomicReference<>();
+    private ExecutorService executor;
+
+    public enum JobType {
+        ALL,        // PostgreSQL → Firebase puis Firebase → PostgreSQL
+        PUSH,       // PostgreSQL → Firebase
+        PULL        // Firebase → PostgreSQL
+    }
+
+    public enum JobState {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sync-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        SyncJob job = runningJob.get();
+        if (job != null) {
+            job.getResult().cancel();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Démarre un job de synchronisation et retourne immédiatement.
+     *
+     * @throws IllegalStateException si un job est déjà en cours
+     */
+    public SyncJob startJob(JobType type, boolean fullPull) {
+        return startJob(type, null, fullPull);
+    }
+
+    /**
+     * Démarre un job limité à une collection ({@code PUSH} ou {@code PULL}),
+     * ou portant sur toutes si {@code collection} est null
+     *
+     * @throws IllegalStateException si un job est déjà en cours
+     */
+    public SyncJob startJob(JobType type, String collection, boolean fullPull) {
+        if (collection != null && type == JobType.ALL) {
+            throw new IllegalArgumentException("Une synchronisation complète porte sur toutes les collections");
+        }
+        SyncJob job = new SyncJob(UUID.randomUUID().toString(), type, collection, fullPull);
+        if (!runningJob.compareAndSet(null, job)) {
+            throw new IllegalStateException("Une synchronisation est déjà en cours: " + runningJob.get().getId());
+        }
+
+        jobs.put(job.getId(), job);
+        pruneHistory();
+        log.info("Job de synchronisation {} démarré ({}, collection: {}, full: {})",
+                job.getId(), type, collection != null ? collection : "toutes", fullPull);
+
+        try {
+            executor.submit(() -> run(job));
+        } catch (RuntimeException e) {
+            runningJob.set(null);
+            job.finish(JobState.FAILED, e.getMessage());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<SyncJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public Optional<SyncJob> getRunningJob() {
+        return Optional.ofNullable(runningJob.get());
+    }
+
+    public List<SyncJob> getJobs() {
+        List<SyncJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparing(SyncJob::getStartedAt).reversed());
+        return list;
+    }
+
+    /**
+     * Demande l'annulation d'un job ; les lots déjà envoyés à Firestore
+     * se terminent, les suivants ne sont pas lancés.
+     *
+     * @return false si le job est inconnu ou déjà terminé
+     */
+    public boolean cancelJob(String jobId) {
+        SyncJob job = jobs.get(jobId);
+        if (job == null || job.getState() != JobState.RUNNING) {
+            return false;
+        }
+        log.info("Annulation demandée pour le job de synchronisation {}", jobId);
+        job.getResult().cancel();
+        return true;
+    }
+
+    private void run(SyncJob job) {
+        FirebaseSyncService.SyncResult result = job.getResult();
+        try {
+            switch (job.getType()) {
+                case ALL -> firebaseSyncService.syncAll(job.isFullPull(), result);
+                case PUSH -> firebaseSyncService.syncPostgresToFirebase(job.getCollection(), result);
+                case PULL -> {
+                    if (job.getCollection() == null) {
+                        firebaseSyncService.syncFirebaseToPostgres(job.isFullPull(), result);
+                    } else {
+                        firebaseSyncService.syncCollectionFromFirebase(job.getCollection(), job.isFullPull(), result);
+                    }
+                }
+            }
+
+            if (result.isCancelled()) {
+                job.finish(JobState.CANCELLED, null);
+            } else if (result.isSuccess()) {
+                job.finish(JobState.COMPLETED, null);
+            } else {
+                job.finish(JobState.FAILED, result.getErrorMessage());
+            }
+        } catch (Exception e) {
+            log.error("Erreur job de synchronisation {}", job.getId(), e);
+            job.finish(JobState.FAILED, e.getMessage());
+        } finally {
+            runningJob.compareAndSet(job, null);
+            log.info("Job de synchronisation {} terminé: {} - Succès: {} | Erreurs: {}",
+                    job.getId(), job.getState(), result.getTotalSuccess(), result.getTotalErrors());
+        }
+    }
+
+    private void pruneHistory() {
+        if (jobs.size() <= Math.max(historySize, 1)) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.getState() != JobState.RUNNING)
+                .sorted(Comparator.comparing(SyncJob::getStartedAt))
+                .limit(jobs.size() - Math.max(historySize, 1))
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    /**
+     * Job de synchronisation et sa progression
+     */
+    @Getter
+    public static class SyncJob {
+        private final String id;
+        private final JobType type;
+        private final String collection;  // null : toutes les collections
+        private final boolean fullPull;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final FirebaseSyncService.SyncResult result = new FirebaseSyncService.SyncResult();
+        private volatile JobState state = JobState.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile String errorMessage;
+
+        SyncJob(String id, JobType type, String collection, boolean fullPull) {
+            this.id = id;
+            this.type = type;
+            this.collection = collection;
+            this.fullPull = fullPull;
+        }
+
+        void finish(JobState finalState, String error) {
+            this.errorMessage = error;
+            this.finishedAt = LocalDateTime.now();
+            this.state = finalState;
+        }
+
+        public long getProcessed() {
+            return (long) result.getTotalSuccess() + result.getTotalErrors() + result.getTotalSkipped();
+        }
+
+        public long getElapsedMs() {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            return Duration.between(startedAt, end).toMillis();
+        }
+
+        /**
+         * Entités traitées par seconde depuis le démarrage
+         */
+        public double getThroughput() {
+            long elapsedMs = getElapsedMs();
+            return elapsedMs > 0 ? getProcessed() * 1000.0 / elapsedMs : 0.0;
+        }
+
+        /**
+         * Estimation du temps restant, à partir des volumes connus au démarrage
+         * du push et du débit du push seul ; null tant qu'aucune estimation
+         * n'est possible (phase de pull, volume Firestore inconnu à l'avance).
+         */
+        public Long getEtaMs() {
+            if (state != JobState.RUNNING) {
+                return 0L;
+            }
+            LocalDateTime pushStartedAt = result.getExpectedSince();
+            if (pushStartedAt == null) {
+                return null;
+            }
+            long pushProcessed = getPushProcessed();
+            long pushElapsedMs = Duration.between(pushStartedAt, LocalDateTime.now()).toMillis();
+            long remaining = result.getTotalExpected() - pushProcessed;
+            if (pushProcessed <= 0 || pushElapsedMs <= 0 || remaining <= 0) {
+                return null;
+            }
+            return remaining * pushElapsedMs / pushProcessed;
+        }
+
+        /**
+         * Entités traitées par le push : compteurs des collections dont le
+         * volume attendu est connu (les compteurs du pull n'en ont pas)
+         */
+        public long getPushProcessed() {
+            Map<String, Integer> expected = result.getExpectedCounts();
+            long processed = 0;
+            for (Map<String, Integer> counts : List.of(result.getSuccessCounts(), result.getErrorCounts(),
+                    result.getSkippedCounts())) {
+                for (Map.Entry<String, Integer> counter : counts.entrySet()) {
+                    if (expected.containsKey(collectionOf(counter.getKey()))) {
+                        processed += counter.getValue();
+                    }
+                }
+            }
+            return processed;
+        }
+
+        /**
+         * Entités traitées et en échec par collection
+         */
+        public Map<String, Map<String, Integer>> getCollections() {
+            Map<String, Map<String, Integer>> collections = new TreeMap<>();
+            result.getExpectedCounts().forEach((key, value) ->
+                    collections.computeIfAbsent(collectionOf(key), k -> new HashMap<>()).merge("expected", value, Integer::sum));
+            result.getSuccessCounts().forEach((key, value) ->
+                    collections.computeIfAbsent(collectionOf(key), k -> new HashMap<>()).merge("processed", value, Integer::sum));
+            result.getSkippedCounts().forEach((key, value) ->
+                    collections.computeIfAbsent(collectionOf(key), k -> new HashMap<>()).merge("processed", value, Integer::sum));
+            result.getErrorCounts().forEach((key, value) -> {
+                Map<String, Integer> counts = collections.computeIfAbsent(collectionOf(key), k -> new HashMap<>());
+                counts.merge("processed", value, Integer::sum);
+                counts.merge("failed", value, Integer::sum);
+            });
+            return collections;
+        }
+
+        // "fb_to_pg_users_updated" → "fb_to_pg_users"
+        private static String collectionOf(String counter) {
+            for (String suffix : List.of("_updated", "_created", "_kept_local", "_not_found", "_invalid_data",
+                    "_quarantined", "_other_leader")) {
+                if (counter.endsWith(suffix)) {
+                    return counter.substring(0, counter.length() - suffix.length());
+                }
+            }
+            return counter;
+        }
+    }
+}
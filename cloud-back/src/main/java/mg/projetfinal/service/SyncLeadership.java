@@ -0,0 +1,268 @@
+package mg.projetfinal.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Élection d'un leader par tâche de synchronisation entre les instances
+ * (push ou pull d'une collection, mode écoute, maintenance de l'outbox),
+ * par verrous consultatifs PostgreSQL de session.
+ * Tous les baux d'une instance partagent une connexion dédiée, prise une fois
+ * dans le pool : un verrou n'est relâché qu'explicitement ou à la fermeture de
+ * la session, donc automatiquement si l'instance meurt. La connexion est
+ * vérifiée toutes les {@code sync.cluster.heartbeat-ms} ms ; si elle est
+ * perdue, les baux sont repris sur une nouvelle session, et ceux qu'une autre
+ * instance a obtenus entre-temps sont déclarés perdus (leurs détenteurs
+ * s'arrêtent). Une tâche déjà menée localement n'est pas relancée en
+ * parallèle sur la même instance.
+ * Hors PostgreSQL, ou avec {@code sync.cluster.enabled=false}, chaque instance
+ * se considère leader (exclusion locale uniquement).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncLeadership {
+
+    // Espace de clés des verrous consultatifs de la synchronisation ("SYNC")
+    private static final int LOCK_NAMESPACE = 0x53594E43;
+
+    private final DataSource dataSource;
+
+    @Value("${sync.cluster.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sync.cluster.node-id:}")
+    private String configuredNodeId;
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final Object sessionLock = new Object();
+    private Connection session;
+    private volatile boolean advisoryLocks;
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ?
+                configuredNodeId : ManagementFactory.getRuntimeMXBean().getName();
+        if (!enabled) {
+            log.info("Élection de leader désactivée : instance {} seule responsable de la synchronisation", nodeId);
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            advisoryLocks = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Base inaccessible au démarrage, élection de leader en attente: {}", e.getMessage());
+            advisoryLocks = true;
+        }
+        if (!advisoryLocks) {
+            log.warn("Base non PostgreSQL : pas de verrous consultatifs, élection de leader locale uniquement");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        new ArrayList<>(leases.values()).forEach(Lease::close);
+        synchronized (sessionLock) {
+            closeSession();
+        }
+    }
+
+    /**
+     * Tente de devenir leader de la tâche, sans attendre
+     *
+     * @return le bail à fermer en fin de tâche, vide si une autre instance
+     * (ou un autre thread de celle-ci) la mène déjà
+     */
+    public Optional<Lease> tryAcquire(String name) {
+        Lease lease = new Lease(name);
+        if (leases.putIfAbsent(name, lease) != null) {
+            return Optional.empty();
+        }
+        if (!advisoryLocks) {
+            return Optional.of(lease);
+        }
+        synchronized (sessionLock) {
+            try {
+                if (lock(name)) {
+                    return Optional.of(lease);
+                }
+            } catch (SQLException e) {
+                log.error("Verrou de leader {} indisponible: {}", name, e.getMessage());
+                closeSession();
+            }
+        }
+        leases.remove(name, lease);
+        return Optional.empty();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Tâches menées par cette instance, pour le statut de synchronisation
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> leadership = new LinkedHashMap<>();
+        Map<String, Object> held = new TreeMap<>();
+        leases.values().forEach(lease -> held.put(lease.name, lease.acquiredAt.toString()));
+        leadership.put("nodeId", nodeId);
+        leadership.put("advisoryLocks", advisoryLocks);
+        leadership.put("leases", held);
+        return leadership;
+    }
+
+    /**
+     * Vérifie la session des verrous et reprend les baux si elle a été perdue
+     */
+    @Scheduled(fixedDelayString = "${sync.cluster.heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!advisoryLocks || leases.isEmpty()) {
+            return;
+        }
+        List<Lease> lost = new ArrayList<>();
+        synchronized (sessionLock) {
+            if (isSessionValid()) {
+                return;
+            }
+            log.warn("Session des verrous de leader perdue, reprise de {} bail(aux)", leases.size());
+            closeSession();
+            for (Lease lease : leases.values()) {
+                try {
+                    if (!lock(lease.name)) {
+                        lost.add(lease);
+                    }
+                } catch (SQLException e) {
+                    closeSession();
+                    lost.add(lease);
+                }
+            }
+        }
+        for (Lease lease : lost) {
+            log.error("Leadership {} perdu par l'instance {}", lease.name, nodeId);
+            lease.lose();
+        }
+    }
+
+    private boolean lock(String name) throws SQLException {
+        try (PreparedStatement statement = session().prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, name.hashCode());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(String name) {
+        synchronized (sessionLock) {
+            if (session == null) {
+                return;
+            }
+            try (PreparedStatement statement = session.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+                statement.setInt(1, LOCK_NAMESPACE);
+                statement.setInt(2, name.hashCode());
+                statement.execute();
+            } catch (SQLException e) {
+                // La fermeture de la session relâche de toute façon le verrou
+                log.warn("Libération du verrou de leader {} impossible: {}", name, e.getMessage());
+                closeSession();
+            }
+        }
+    }
+
+    private Connection session() throws SQLException {
+        if (session == null) {
+            session = dataSource.getConnection();
+            session.setAutoCommit(true);
+        }
+        return session;
+    }
+
+    private boolean isSessionValid() {
+        try {
+            return session != null && session.isValid(5);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeSession() {
+        if (session == null) {
+            return;
+        }
+        try {
+            session.close();
+        } catch (SQLException e) {
+            log.debug("Fermeture de la session des verrous: {}", e.getMessage());
+        }
+        session = null;
+    }
+
+    /**
+     * Leadership d'une tâche, relâché par {@link #close()}
+     */
+    public class Lease implements AutoCloseable {
+        private final String name;
+        private final LocalDateTime acquiredAt = LocalDateTime.now();
+        private final List<Runnable> lostListeners = new CopyOnWriteArrayList<>();
+        private volatile boolean lost;
+        private volatile boolean closed;
+
+        private Lease(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isLost() {
+            return lost;
+        }
+
+        /**
+         * Action exécutée si le verrou est obtenu par une autre instance
+         * pendant la tâche (session perdue)
+         */
+        public void onLost(Runnable listener) {
+            lostListeners.add(listener);
+            if (lost) {
+                listener.run();
+            }
+        }
+
+        private void lose() {
+            lost = true;
+            leases.remove(name, this);
+            lostListeners.forEach(Runnable::run);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (leases.remove(name, this) && advisoryLocks) {
+                unlock(name);
+            }
+        }
+    }
+}
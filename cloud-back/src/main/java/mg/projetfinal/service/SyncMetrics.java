@@ -0,0 +1,345 @@
+package mg.projetfinal.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.entity.SyncWatermark;
+import mg.projetfinal.enums.EntityType;
+import mg.projetfinal.enums.SyncStatus;
+import mg.projetfinal.repository.*;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Métriques de la synchronisation Firebase, exportées par Micrometer
+ * (/actuator/metrics, /actuator/prometheus) et reprises par /api/sync/status :
+ * <ul>
+ *     <li>sync.backlog / sync.backlog.oldest.age : entités locales non poussées
+ *     (hors quarantaine) et âge (s) de la plus ancienne, par collection ;</li>
+ *     <li>sync.writes / sync.writes.rate : écritures Firestore par collection et
+ *     résultat, et débit (écritures/s) sur le dernier intervalle ;</li>
+ *     <li>sync.firestore.latency : durée des appels Firestore/Auth par opération
+ *     (percentiles et histogramme) ;</li>
+ *     <li>sync.queue.depth, sync.queue.retries, sync.queue.dead.letters :
+ *     état de l'outbox sync_queue (la profondeur DEAD_LETTER compte les
+ *     entités en quarantaine) ;</li>
+ *     <li>sync.watermark.age : temps écoulé (s) depuis le dernier pull réussi.</li>
+ * </ul>
+ * Les jauges qui demandent une requête SQL sont rafraîchies toutes les
+ * {@code sync.metrics.refresh-ms} millisecondes, jamais lors d'un scrape.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncMetrics {
+
+    public static final String COLLECTION_USERS = "users";
+    public static final String COLLECTION_SIGNALEMENTS = "signalements";
+    public static final String COLLECTION_ENTREPRISES = "entreprises";
+    public static final String COLLECTION_STATUS = "signalement_status";
+
+    public static final String OPERATION_COMMIT = "commit";
+    public static final String OPERATION_WRITE = "write";
+    public static final String OPERATION_FETCH = "fetch";
+    public static final String OPERATION_AUTH_IMPORT = "auth_import";
+    public static final String OPERATION_AUTH_LOOKUP = "auth_lookup";
+    public static final String OPERATION_AUTH_UPDATE = "auth_update";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String OUTCOME_SKIPPED = "skipped";
+
+    private static final List<String> COLLECTIONS =
+            List.of(COLLECTION_USERS, COLLECTION_SIGNALEMENTS, COLLECTION_ENTREPRISES, COLLECTION_STATUS);
+    private static final List<String> OUTCOMES = List.of(OUTCOME_SUCCESS, OUTCOME_ERROR, OUTCOME_SKIPPED);
+    private static final List<String> OPERATIONS =
+            List.of(OPERATION_COMMIT, OPERATION_WRITE, OPERATION_FETCH, OPERATION_AUTH_IMPORT, OPERATION_AUTH_LOOKUP,
+                    OPERATION_AUTH_UPDATE);
+
+    private final MeterRegistry meterRegistry;
+    private final UserRepository userRepository;
+    private final SignalementRepository signalementRepository;
+    private final EntrepriseRepository entrepriseRepository;
+    private final SignalementStatusRepository signalementStatusRepository;
+    private final SyncQueueRepository syncQueueRepository;
+    private final SyncWatermarkRepository syncWatermarkRepository;
+    private final SyncHistoryService syncHistoryService;
+
+    // Valeurs des jauges, mises à jour par refresh()
+    private final Map<String, AtomicLong> backlog = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> oldestAgeSeconds = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> watermarkAgeSeconds = new LinkedHashMap<>();
+    private final Map<String, AtomicReference<Double>> writeRates = new LinkedHashMap<>();
+    private final Map<SyncStatus, AtomicLong> queueDepth = new EnumMap<>(SyncStatus.class);
+    private final AtomicLong queueOldestAgeSeconds = new AtomicLong();
+    private final Map<String, Map<String, Object>> watermarks = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> writeCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> retryCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> deadLetterCounters = new ConcurrentHashMap<>();
+    private final Map<String, LocalDateTime> lastPushedAt = new ConcurrentHashMap<>();
+
+    // Écritures réussies au rafraîchissement précédent, pour le débit
+    private final Map<String, Double> previousWrites = new HashMap<>();
+    private long previousRefreshNanos;
+    private volatile LocalDateTime refreshedAt;
+
+    @PostConstruct
+    void init() {
+        for (String collection : COLLECTIONS) {
+            backlog.put(collection, gauge("sync.backlog",
+                    "Entités locales non poussées vers Firestore (hors quarantaine)", collection));
+            oldestAgeSeconds.put(collection, gauge("sync.backlog.oldest.age",
+                    "Âge (s) de la plus ancienne modification locale non poussée", collection));
+            watermarkAgeSeconds.put(collection, gauge("sync.watermark.age",
+                    "Temps écoulé (s) depuis le dernier pull réussi", collection));
+            AtomicReference<Double> rate = new AtomicReference<>(0.0);
+            Gauge.builder("sync.writes.rate", rate, AtomicReference::get)
+                    .description("Écritures Firestore réussies par seconde (dernier intervalle)")
+                    .tag("collection", collection)
+                    .register(meterRegistry);
+            writeRates.put(collection, rate);
+            for (String outcome : OUTCOMES) {
+                writeCounter(collection, outcome);
+            }
+        }
+        for (SyncStatus status : SyncStatus.values()) {
+            AtomicLong depth = new AtomicLong();
+            Gauge.builder("sync.queue.depth", depth, AtomicLong::get)
+                    .description("Lignes sync_queue par statut")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+            queueDepth.put(status, depth);
+        }
+        Gauge.builder("sync.queue.oldest.age", queueOldestAgeSeconds, AtomicLong::get)
+                .description("Âge (s) de la plus ancienne ligne PENDING de sync_queue")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("sync.history.buffered", syncHistoryService, SyncHistoryService::getBufferedCount)
+                .description("Lignes sync_history en attente d'écriture")
+                .register(meterRegistry);
+        OPERATIONS.forEach(this::latencyTimer);
+        previousRefreshNanos = System.nanoTime();
+    }
+
+    /**
+     * Rafraîchit les jauges calculées en base
+     */
+    @Scheduled(fixedDelayString = "${sync.metrics.refresh-ms:15000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+
+        updateBacklog(COLLECTION_USERS, now, userRepository::countNotSynced,
+                userRepository::findOldestNotSyncedUpdatedAt);
+        updateBacklog(COLLECTION_SIGNALEMENTS, now, signalementRepository::countNotSynced,
+                signalementRepository::findOldestNotSyncedUpdatedAt);
+        updateBacklog(COLLECTION_ENTREPRISES, now, entrepriseRepository::countNotSynced,
+                entrepriseRepository::findOldestNotSyncedUpdatedAt);
+        updateBacklog(COLLECTION_STATUS, now, signalementStatusRepository::countNotSynced,
+                signalementStatusRepository::findOldestNotSyncedUpdatedAt);
+
+        queueDepth.forEach((status, depth) -> depth.set(syncQueueRepository.countByStatus(status)));
+        queueOldestAgeSeconds.set(ageSeconds(syncQueueRepository.findOldestPendingCreatedAt(), now));
+
+        for (SyncWatermark watermark : syncWatermarkRepository.findAll()) {
+            Map<String, Object> mark = new LinkedHashMap<>();
+            mark.put("lastUpdatedAt", watermark.getLastUpdatedAt());
+            mark.put("lastPulledAt", watermark.getLastPulledAt());
+            mark.put("lastPullCount", watermark.getLastPullCount());
+            watermarks.put(watermark.getCollectionName(), mark);
+            AtomicLong age = watermarkAgeSeconds.get(watermark.getCollectionName());
+            if (age != null) {
+                age.set(ageSeconds(watermark.getLastPulledAt(), now));
+            }
+        }
+
+        updateWriteRates();
+        refreshedAt = now;
+    }
+
+    /**
+     * Compte les écritures Firestore d'une collection
+     */
+    public void recordWrites(String collection, String outcome, int count) {
+        if (count <= 0) {
+            return;
+        }
+        writeCounter(collection, outcome).increment(count);
+        if (OUTCOME_SUCCESS.equals(outcome)) {
+            lastPushedAt.put(collection, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Enregistre la durée d'un appel Firestore/Auth commencé à {@code startedNanos}
+     */
+    public void recordLatency(String operation, long startedNanos) {
+        latencyTimer(operation).record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Une ligne sync_queue en échec a été replanifiée
+     */
+    public void recordRetry(EntityType entityType) {
+        retryCounters.computeIfAbsent(entityType.name(), type -> Counter.builder("sync.queue.retries")
+                .description("Lignes sync_queue replanifiées après un échec")
+                .tag("entity", type)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * Une entité ou un document passe en quarantaine (DEAD_LETTER)
+     */
+    public void recordDeadLetter(EntityType entityType) {
+        deadLetterCounters.computeIfAbsent(entityType.name(), type -> Counter.builder("sync.queue.dead.letters")
+                .description("Mises en quarantaine (erreur permanente ou tentatives épuisées)")
+                .tag("entity", type)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * Vue des métriques pour /api/sync/status
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+
+        Map<String, Object> collections = new LinkedHashMap<>();
+        for (String collection : COLLECTIONS) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("unsynced", backlog.get(collection).get());
+            stats.put("oldestUnsyncedAgeSeconds", oldestAgeSeconds.get(collection).get());
+            stats.put("writesPerSecond", round(writeRates.get(collection).get()));
+            Map<String, Long> writes = new LinkedHashMap<>();
+            for (String outcome : OUTCOMES) {
+                writes.put(outcome, (long) writeCounter(collection, outcome).count());
+            }
+            stats.put("writes", writes);
+            stats.put("lastPushedAt", lastPushedAt.get(collection));
+            stats.put("watermark", watermarks.get(collection));
+            collections.put(collection, stats);
+        }
+        snapshot.put("collections", collections);
+
+        Map<String, Object> queue = new LinkedHashMap<>();
+        queueDepth.forEach((status, depth) -> queue.put(status.name(), depth.get()));
+        queue.put("oldestPendingAgeSeconds", queueOldestAgeSeconds.get());
+        queue.put("retries", sum(retryCounters));
+        queue.put("deadLetters", sum(deadLetterCounters));
+        snapshot.put("queue", queue);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latencyTimers.forEach((operation, timer) -> latency.put(operation, latencySummary(timer)));
+        snapshot.put("firestoreLatencyMs", latency);
+
+        snapshot.put("historyBuffered", syncHistoryService.getBufferedCount());
+        snapshot.put("refreshedAt", refreshedAt);
+        return snapshot;
+    }
+
+    /**
+     * Chiffres de l'outbox pour /api/sync/health (valeurs du dernier refresh)
+     */
+    public Map<String, Object> outboxHealth() {
+        Map<String, Object> outbox = new LinkedHashMap<>();
+        outbox.put("backlog", backlog.values().stream().mapToLong(AtomicLong::get).sum());
+        outbox.put("pending", queueDepth.get(SyncStatus.PENDING).get());
+        outbox.put("oldestPendingAgeSeconds", queueOldestAgeSeconds.get());
+        outbox.put("deadLetters", getDeadLetterCount());
+        outbox.put("refreshedAt", refreshedAt);
+        return outbox;
+    }
+
+    public long getDeadLetterCount() {
+        return queueDepth.get(SyncStatus.DEAD_LETTER).get();
+    }
+
+    private void updateBacklog(String collection, LocalDateTime now,
+                               Supplier<Long> count, Supplier<LocalDateTime> oldest) {
+        try {
+            backlog.get(collection).set(count.get());
+            oldestAgeSeconds.get(collection).set(ageSeconds(oldest.get(), now));
+        } catch (Exception e) {
+            log.warn("Métriques de synchronisation {} indisponibles: {}", collection, e.getMessage());
+        }
+    }
+
+    private void updateWriteRates() {
+        long nowNanos = System.nanoTime();
+        double seconds = (nowNanos - previousRefreshNanos) / 1_000_000_000.0;
+        previousRefreshNanos = nowNanos;
+        for (String collection : COLLECTIONS) {
+            double total = writeCounter(collection, OUTCOME_SUCCESS).count();
+            double previous = previousWrites.getOrDefault(collection, 0.0);
+            previousWrites.put(collection, total);
+            writeRates.get(collection).set(seconds > 0 ? (total - previous) / seconds : 0.0);
+        }
+    }
+
+    private AtomicLong gauge(String name, String description, String collection) {
+        AtomicLong value = new AtomicLong();
+        Gauge.builder(name, value, AtomicLong::get)
+                .description(description)
+                .tag("collection", collection)
+                .register(meterRegistry);
+        return value;
+    }
+
+    private Counter writeCounter(String collection, String outcome) {
+        return writeCounters.computeIfAbsent(collection + ":" + outcome, key -> Counter.builder("sync.writes")
+                .description("Écritures Firestore par collection et résultat")
+                .tag("collection", collection)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private Timer latencyTimer(String operation) {
+        return latencyTimers.computeIfAbsent(operation, key -> Timer.builder("sync.firestore.latency")
+                .description("Durée des appels Firestore et Firebase Auth")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static Map<String, Object> latencySummary(Timer timer) {
+        HistogramSnapshot histogram = timer.takeSnapshot();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.count());
+        summary.put("mean", round(histogram.mean(TimeUnit.MILLISECONDS)));
+        summary.put("max", round(histogram.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : histogram.percentileValues()) {
+            summary.put("p" + Math.round(percentile.percentile() * 100), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return summary;
+    }
+
+    private static long sum(Map<String, Counter> counters) {
+        return (long) counters.values().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static long ageSeconds(LocalDateTime since, LocalDateTime now) {
+        return since != null ? Math.max(Duration.between(since, now).getSeconds(), 0) : 0;
+    }
+}
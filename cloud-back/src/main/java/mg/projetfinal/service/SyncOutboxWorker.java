@@ -0,0 +1,146 @@
+package mg.projetfinal.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.utils.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker continu de l'outbox sync_queue : un pool de {@code sync.outbox.workers}
+ * threads réclame les lignes en attente par lots et les pousse vers Firebase.
+ * Chaque instance draine l'outbox : la réclamation par FOR UPDATE SKIP LOCKED
+ * répartit les lignes entre toutes. La remise en file des entrées bloquées
+ * n'est faite que par le leader "outbox-requeue".
+ * Hors ligne (voir {@link SyncConnectivity}), rien n'est réclamé : les
+ * entrées attendent sans consommer de tentatives, puis sont vidées au retour
+ * de la connexion par ordre de priorité (changements de statut d'abord,
+ * données de référence en dernier), au plus {@code sync.outbox.rate-per-second}
+ * entrées par seconde pour ne saturer ni le lien montant ni la base.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "sync.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class SyncOutboxWorker {
+
+    private final SyncQueueService syncQueueService;
+    private final FirebaseSyncService firebaseSyncService;
+    private final SyncConnectivity syncConnectivity;
+    private final SyncLeadership syncLeadership;
+
+    @Value("${sync.outbox.workers:4}")
+    private int workers;
+
+    @Value("${sync.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${sync.outbox.stuck-timeout-minutes:10}")
+    private int stuckTimeoutMinutes;
+
+    @Value("${sync.outbox.rate-per-second:200}")
+    private int ratePerSecond;
+
+    private ExecutorService executor;
+    private TokenBucket rateLimiter;
+    private volatile boolean draining;
+    // Vidage en cours sur les threads du worker
+    private volatile List<Future<?>> drainers = List.of();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(workers, 1), runnable -> {
+            Thread thread = new Thread(runnable, "sync-outbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        rateLimiter = new TokenBucket(Math.max(ratePerSecond, 1), Math.max(batchSize, 1));
+        log.info("Worker outbox démarré ({} threads, lots de {}, {} entrées/s)", workers, batchSize, ratePerSecond);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Confie le vidage aux threads du worker sans attendre la fin : le thread
+     * du planificateur, partagé avec les autres tâches planifiées, n'est
+     * jamais bloqué. Un nouveau vidage n'est lancé que lorsque le précédent
+     * est terminé.
+     */
+    @Scheduled(fixedDelayString = "${sync.outbox.poll-interval-ms:2000}")
+    public void drain() {
+        if (!syncConnectivity.isOnline()) {
+            draining = false;
+            return;
+        }
+        if (drainers.stream().anyMatch(future -> !future.isDone())) {
+            return;
+        }
+        if (!draining) {
+            draining = true;
+            log.info("Vidage de l'outbox : {} entrée(s) en attente",
+                    syncQueueService.getCoalescingStats().get("pending"));
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.max(workers, 1); i++) {
+            futures.add(executor.submit(this::drainUntilEmpty));
+        }
+        drainers = futures;
+    }
+
+    @Scheduled(fixedDelayString = "${sync.outbox.stuck-check-interval-ms:60000}")
+    public void requeueStuck() {
+        syncLeadership.tryAcquire("outbox-requeue").ifPresent(lease -> {
+            try (lease) {
+                syncQueueService.requeueStuck(stuckTimeoutMinutes);
+            }
+        });
+    }
+
+    private void drainUntilEmpty() {
+        try {
+            drainBatches();
+        } catch (Exception e) {
+            log.error("Erreur worker outbox: {}", e.getMessage());
+        }
+    }
+
+    private void drainBatches() {
+        while (!Thread.currentThread().isInterrupted() && syncConnectivity.isOnline()) {
+            List<Long> claimed = syncQueueService.claimBatch(batchSize);
+            if (claimed.isEmpty()) {
+                return;
+            }
+            try {
+                rateLimiter.acquire(claimed.size());
+            } catch (InterruptedException e) {
+                // Lignes laissées en PROCESSING : remises en file par requeueStuck
+                Thread.currentThread().interrupt();
+                return;
+            }
+            FirebaseSyncService.SyncResult result = firebaseSyncService.processQueueEntries(claimed);
+            log.debug("Lot outbox traité: {} succès, {} erreurs",
+                    result.getTotalSuccess(), result.getTotalErrors());
+
+            // Lot entièrement en échec : connexion perdue ? On vérifie avant de continuer
+            if (result.getTotalSuccess() == 0 && result.getTotalErrors() > 0) {
+                syncConnectivity.check();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package mg.projetfinal.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.entity.SyncQueue;
+import mg.projetfinal.enums.EntityType;
+import mg.projetfinal.enums.SyncAction;
+import mg.projetfinal.enums.SyncDirection;
+import mg.projetfinal.enums.SyncFailureKind;
+import mg.projetfinal.enums.SyncStatus;
+import mg.projetfinal.repository.SyncQueueRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Outbox de synchronisation PostgreSQL → Firebase (table sync_queue).
+ * Les services métier y ajoutent une ligne dans leur propre transaction ;
+ * le {@link SyncOutboxWorker} réclame et pousse ces lignes en continu.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class SyncQueueService {
+
+    private final SyncQueueRepository syncQueueRepository;
+
+    // Priorités : plus la valeur est petite, plus la ligne est traitée tôt
+    public static final int PRIORITY_HIGH = 1;
+    public static final int PRIORITY_NORMAL = 5;
+    public static final int PRIORITY_LOW = 9;
+
+    /**
+     * Ajoute une entité à l'outbox (rejoint la transaction de l'appelant).
+     * Si une entrée PENDING existe déjà pour la même entité, la modification
+     * y est fusionnée au lieu de créer une nouvelle écriture Firestore.
+     */
+    public SyncQueue enqueue(EntityType entityType, Long entityId, String firebaseId,
+                             SyncAction action, int priority, Map<String, Object> snapshot) {
+        Optional<SyncQueue> pending = findPending(entityType, entityId);
+        if (pending.isPresent()) {
+            SyncQueue entry = pending.get();
+            entry.coalesce(action, priority, firebaseId, snapshot);
+            log.debug("Modification {} {} fusionnée dans l'entrée outbox {} ({} fusion(s))",
+                    entityType, entityId, entry.getId(), entry.getCoalescedCount());
+            return syncQueueRepository.save(entry);
+        }
+
+        SyncQueue entry = SyncQueue.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .firebaseId(firebaseId)
+                .action(action)
+                .direction(SyncDirection.POSTGRES_TO_FIREBASE)
+                .priority(priority)
+                .scheduledAt(LocalDateTime.now())
+                .dataSnapshot(snapshot != null ? new HashMap<>(snapshot) : null)
+                .build();
+
+        log.debug("Ajout à l'outbox: {} {} ({})", entityType, entityId, action);
+        return syncQueueRepository.save(entry);
+    }
+
+    public SyncQueue enqueue(EntityType entityType, Long entityId, String firebaseId,
+                             SyncAction action, int priority) {
+        return enqueue(entityType, entityId, firebaseId, action, priority, null);
+    }
+
+    public SyncQueue enqueue(EntityType entityType, Long entityId, SyncAction action) {
+        return enqueue(entityType, entityId, null, action, PRIORITY_NORMAL, null);
+    }
+
+    /**
+     * Statistiques de fusion : nombre d'écritures Firestore évitées
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCoalescingStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", syncQueueRepository.countByStatus(SyncStatus.PENDING));
+        stats.put("savedWrites", syncQueueRepository.sumCoalescedCount());
+        return stats;
+    }
+
+    /**
+     * Ligne PENDING la plus récente ; des doublons créés par des transactions
+     * concurrentes sont fusionnés au moment du traitement
+     */
+    private Optional<SyncQueue> findPending(EntityType entityType, Long entityId) {
+        return syncQueueRepository.findFirstByEntityTypeAndEntityIdAndStatusOrderByIdDesc(
+                entityType, entityId, SyncStatus.PENDING);
+    }
+
+    /**
+     * Réclame un lot de lignes PENDING (FOR UPDATE SKIP LOCKED) et les passe
+     * en PROCESSING dans une transaction courte, pour que plusieurs workers
+     * ne traitent jamais la même ligne.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Long> claimBatch(int limit) {
+        List<SyncQueue> claimed = syncQueueRepository.claimPending(LocalDateTime.now(), limit);
+        claimed.forEach(SyncQueue::startProcessing);
+        syncQueueRepository.saveAll(claimed);
+        return claimed.stream().map(SyncQueue::getId).toList();
+    }
+
+    /**
+     * Remet en file les lignes restées en PROCESSING au-delà du délai
+     * (worker arrêté en cours de traitement)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int requeueStuck(int timeoutMinutes) {
+        List<SyncQueue> stuck = syncQueueRepository.findStuckProcessing(LocalDateTime.now().minusMinutes(timeoutMinutes));
+        for (SyncQueue entry : stuck) {
+            if (entry.canRetry()) {
+                entry.incrementRetry();
+            } else {
+                entry.markDeadLetter(SyncFailureKind.TRANSIENT,
+                        "Traitement bloqué en PROCESSING depuis plus de " + timeoutMinutes + " minutes", null);
+            }
+        }
+        syncQueueRepository.saveAll(stuck);
+
+        if (!stuck.isEmpty()) {
+            log.warn("{} entrée(s) de l'outbox bloquée(s) remise(s) en file", stuck.size());
+        }
+        return stuck.size();
+    }
+}
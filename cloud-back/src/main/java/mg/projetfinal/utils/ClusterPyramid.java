@@ -0,0 +1,252 @@
+package mg.projetfinal.utils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Regroupement de points pour l'affichage cartographique, précalculé pour
+ * chaque niveau de zoom de {@code minZoom} à {@code maxZoom}.
+ * À chaque niveau, le monde (projection Web Mercator, tuiles de 256 px) est
+ * découpé en cellules de {@code cellPixels} pixels ; chaque cellule occupée
+ * garde le nombre de points, la somme de leurs coordonnées (barycentre) et
+ * leur répartition par statut. Ajouter, déplacer ou supprimer un point ne
+ * touche qu'une cellule par niveau. Le XOR des identifiants d'une cellule
+ * donne l'identifiant de son point quand elle n'en contient plus qu'un.
+ */
+public class ClusterPyramid {
+
+    private static final int TILE_SIZE = 256;
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final Level[] levels;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Point> points = new HashMap<>();
+    // Codes de statut rencontrés, indexés pour les compteurs des cellules
+    private final Map<String, Integer> statusIndexes = new HashMap<>();
+    private final List<String> statusCodes = new ArrayList<>();
+
+    public ClusterPyramid(int minZoom, int maxZoom, int cellPixels) {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 22 || cellPixels < 1) {
+            throw new IllegalArgumentException("Niveaux de zoom ou taille de cellule invalides");
+        }
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.levels = new Level[maxZoom - minZoom + 1];
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            long worldPixels = (long) TILE_SIZE << zoom;
+            levels[zoom - minZoom] = new Level((worldPixels + cellPixels - 1) / cellPixels);
+        }
+    }
+
+    /**
+     * Groupe visible : point isolé ({@code id} renseigné) ou agrégat
+     */
+    public record Cluster(Long id, double latitude, double longitude, int count, Map<String, Integer> statuses) {
+    }
+
+    public record Point(long id, double latitude, double longitude, String status) {
+    }
+
+    /**
+     * Ajoute le point, ou le déplace / change son statut s'il existe déjà
+     *
+     * @return le point tel qu'il était avant l'appel, ou null s'il n'existait pas
+     */
+    public Point put(long id, double latitude, double longitude, String status) {
+        lock.writeLock().lock();
+        try {
+            Point previous = points.get(id);
+            if (previous != null) {
+                if (previous.latitude() == latitude && previous.longitude() == longitude
+                        && Objects.equals(previous.status(), status)) {
+                    return previous;
+                }
+                update(previous, -1);
+            }
+            Point point = new Point(id, latitude, longitude, status);
+            points.put(id, point);
+            update(point, 1);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return le point retiré, ou null s'il n'existait pas
+     */
+    public Point remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Point previous = points.remove(id);
+            if (previous != null) {
+                update(previous, -1);
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Point get(long id) {
+        lock.readLock().lock();
+        try {
+            return points.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Groupes du niveau {@code zoom} (borné à [minZoom, maxZoom]) dont la cellule
+     * recoupe le rectangle ; {@code minLongitude > maxLongitude} pour un
+     * rectangle qui traverse l'antiméridien
+     */
+    public List<Cluster> clusters(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                                  int zoom) {
+        int effectiveZoom = Math.max(minZoom, Math.min(zoom, maxZoom));
+        Level level = levels[effectiveZoom - minZoom];
+
+        lock.readLock().lock();
+        try {
+            List<Cluster> result = new ArrayList<>();
+            long firstRow = level.cellY(maxLatitude);
+            long lastRow = level.cellY(minLatitude);
+            if (minLongitude <= maxLongitude) {
+                collect(level, firstRow, lastRow, level.cellX(minLongitude), level.cellX(maxLongitude), result);
+            } else {
+                collect(level, firstRow, lastRow, level.cellX(minLongitude), level.cellsPerAxis - 1, result);
+                collect(level, firstRow, lastRow, 0, level.cellX(maxLongitude), result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Level level, long firstRow, long lastRow, long firstColumn, long lastColumn,
+                         List<Cluster> result) {
+        long rows = lastRow - firstRow + 1;
+        long columns = lastColumn - firstColumn + 1;
+        if (rows <= 0 || columns <= 0) {
+            return;
+        }
+        // Grand rectangle : parcourir les cellules occupées plutôt que toute la plage
+        if (rows * columns > level.cells.size()) {
+            level.cells.forEach((key, cell) -> {
+                long column = key / level.cellsPerAxis;
+                long row = key % level.cellsPerAxis;
+                if (row >= firstRow && row <= lastRow && column >= firstColumn && column <= lastColumn) {
+                    result.add(toCluster(cell));
+                }
+            });
+            return;
+        }
+        for (long column = firstColumn; column <= lastColumn; column++) {
+            for (long row = firstRow; row <= lastRow; row++) {
+                Cell cell = level.cells.get(column * level.cellsPerAxis + row);
+                if (cell != null) {
+                    result.add(toCluster(cell));
+                }
+            }
+        }
+    }
+
+    private Cluster toCluster(Cell cell) {
+        Map<String, Integer> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < cell.statusCounts.length; i++) {
+            if (cell.statusCounts[i] > 0) {
+                statuses.put(statusCodes.get(i), cell.statusCounts[i]);
+            }
+        }
+        if (cell.count == 1) {
+            Point point = points.get(cell.idXor);
+            if (point != null) {
+                return new Cluster(point.id(), point.latitude(), point.longitude(), 1, statuses);
+            }
+        }
+        return new Cluster(null, cell.latitudeSum / cell.count, cell.longitudeSum / cell.count, cell.count, statuses);
+    }
+
+    private void update(Point point, int delta) {
+        int statusIndex = statusIndex(point.status());
+        for (Level level : levels) {
+            long key = level.cellX(point.longitude()) * level.cellsPerAxis + level.cellY(point.latitude());
+            Cell cell = level.cells.computeIfAbsent(key, k -> new Cell());
+            cell.count += delta;
+            cell.latitudeSum += delta * point.latitude();
+            cell.longitudeSum += delta * point.longitude();
+            cell.idXor ^= point.id();
+            if (cell.statusCounts.length <= statusIndex) {
+                cell.statusCounts = Arrays.copyOf(cell.statusCounts, statusCodes.size());
+            }
+            cell.statusCounts[statusIndex] += delta;
+            if (cell.count == 0) {
+                level.cells.remove(key);
+            }
+        }
+    }
+
+    private int statusIndex(String status) {
+        String code = status != null ? status : "";
+        Integer index = statusIndexes.get(code);
+        if (index == null) {
+            index = statusCodes.size();
+            statusCodes.add(code);
+            statusIndexes.put(code, index);
+        }
+        return index;
+    }
+
+    /**
+     * Cellules occupées d'un niveau de zoom
+     */
+    private static final class Level {
+        private final long cellsPerAxis;
+        private final Map<Long, Cell> cells = new HashMap<>();
+
+        Level(long cellsPerAxis) {
+            this.cellsPerAxis = cellsPerAxis;
+        }
+
+        long cellX(double longitude) {
+            return clamp((long) Math.floor(GeoUtils.mercatorX(longitude) * cellsPerAxis));
+        }
+
+        long cellY(double latitude) {
+            return clamp((long) Math.floor(GeoUtils.mercatorY(latitude) * cellsPerAxis));
+        }
+
+        private long clamp(long cell) {
+            return Math.max(0, Math.min(cellsPerAxis - 1, cell));
+        }
+    }
+
+    private static final class Cell {
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+        private long idXor;
+        private int[] statusCounts = new int[0];
+    }
+}
@@ -0,0 +1,89 @@
+package mg.projetfinal.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Empreintes de documents Firestore : permet de détecter les champs
+ * modifiés depuis le dernier push sans conserver les valeurs elles-mêmes.
+ */
+public class DocumentFingerprints {
+
+    /**
+     * Calcule l'empreinte de chaque champ du document, hors champs ignorés
+     */
+    public static Map<String, String> of(Map<String, Object> data, Set<String> ignoredFields) {
+        Map<String, String> fingerprints = new TreeMap<>();
+        data.forEach((field, value) -> {
+            if (!ignoredFields.contains(field)) {
+                fingerprints.put(field, normalize(value));
+            }
+        });
+        return fingerprints;
+    }
+
+    /**
+     * Hash SHA-256 de l'ensemble des empreintes de champs
+     */
+    public static String hash(Map<String, String> fingerprints) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new TreeMap<>(fingerprints).forEach((field, value) -> {
+                digest.update(field.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            });
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Champs ajoutés, modifiés ou supprimés entre deux empreintes
+     */
+    public static Set<String> changedFields(Map<String, String> previous, Map<String, String> current) {
+        Set<String> changed = new TreeSet<>();
+        Map<String, String> before = previous != null ? previous : Collections.emptyMap();
+        current.forEach((field, value) -> {
+            if (!value.equals(before.get(field))) {
+                changed.add(field);
+            }
+        });
+        before.keySet().stream()
+                .filter(field -> !current.containsKey(field))
+                .forEach(changed::add);
+        return changed;
+    }
+
+    private static String normalize(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Date date) {
+            return "date:" + date.getTime();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return "num:" + decimal.stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Number number) {
+            try {
+                return "num:" + new BigDecimal(number.toString()).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return "num:" + number; // NaN, Infinity
+            }
+        }
+        if (value instanceof Collection<?> collection) {
+            StringBuilder builder = new StringBuilder("list:[");
+            for (Object element : collection) {
+                builder.append(normalize(element)).append(',');
+            }
+            return builder.append(']').toString();
+        }
+        return value.getClass().getSimpleName() + ":" + value;
+    }
+}
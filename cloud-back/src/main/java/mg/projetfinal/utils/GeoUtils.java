@@ -0,0 +1,75 @@
+package mg.projetfinal.utils;
+
+/**
+ * Calculs géographiques sur la sphère terrestre (coordonnées en degrés)
+ */
+public class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    // Longueur d'un degré de latitude (arc de grand cercle)
+    public static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    // Latitude maximale de la projection Web Mercator (monde carré)
+    public static final double MERCATOR_MAX_LATITUDE = 85.05112878;
+
+    /**
+     * Distance orthodromique (formule de haversine), en kilomètres
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+
+    /**
+     * Demi-largeur en degrés de longitude d'un rayon à la latitude donnée ;
+     * 180 quand le cercle englobe un pôle
+     */
+    public static double longitudeDelta(double latitude, double radiusKm) {
+        double latitudeDelta = radiusKm / KM_PER_DEGREE;
+        if (Math.abs(latitude) + latitudeDelta >= 90) {
+            return 180;
+        }
+        // Plus grand écart de longitude atteint par le cercle (tangente au méridien)
+        double ratio = Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude));
+        return ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio));
+    }
+
+    /**
+     * Abscisse Web Mercator normalisée : 0 à -180°, 1 à 180°
+     */
+    public static double mercatorX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    /**
+     * Ordonnée Web Mercator normalisée, du nord (0) au sud (1) ; latitude
+     * bornée à ±{@link #MERCATOR_MAX_LATITUDE}
+     */
+    public static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-MERCATOR_MAX_LATITUDE, Math.min(MERCATOR_MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    /**
+     * Longitude du bord ouest de la colonne de tuiles {@code x} (bord est pour {@code x + 1})
+     */
+    public static double tileLongitude(double x, int zoom) {
+        return x / (1L << zoom) * 360 - 180;
+    }
+
+    /**
+     * Latitude du bord nord de la ligne de tuiles {@code y} (bord sud pour {@code y + 1})
+     */
+    public static double tileLatitude(double y, int zoom) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y / (1L << zoom)))));
+    }
+}
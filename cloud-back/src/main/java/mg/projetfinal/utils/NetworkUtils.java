@@ -1,6 +1,8 @@
 package mg.projetfinal.utils;
 
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 
 public class NetworkUtils {
     public static boolean isInternetAvailable() {
@@ -11,4 +13,16 @@ public class NetworkUtils {
             return false;
         }
     }
+
+    /**
+     * Vérifie qu'une connexion TCP vers l'hôte aboutit dans le délai
+     */
+    public static boolean isReachable(String host, int port, int timeoutMs) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,334 @@
+package mg.projetfinal.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index spatial en mémoire : grille régulière en degrés sur des points
+ * identifiés par un long.
+ * Coordonnées et identifiants sont rangés dans des tableaux primitifs
+ * (un emplacement par point, réutilisé après suppression) ; chaque cellule
+ * occupée ne garde que les numéros d'emplacement de ses points. Une requête
+ * ne parcourt que les cellules couvertes par son rectangle englobant, puis
+ * vérifie la distance exacte. Lectures concurrentes, écritures exclusives.
+ * Les rectangles qui traversent l'antiméridien sont découpés en deux.
+ */
+public class SpatialGridIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Marge absorbant les arrondis entre rectangle englobant et haversine
+    private static final double EPSILON = 1e-9;
+
+    private final double cellSize;
+    private final long columns;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private long[] cellKeys = new long[INITIAL_CAPACITY];
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    /**
+     * @param cellSizeDegrees côté d'une cellule ; de l'ordre du rayon de
+     *                        recherche habituel (0.01° ≈ 1,1 km)
+     */
+    public SpatialGridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Taille de cellule invalide: " + cellSizeDegrees);
+        }
+        this.cellSize = cellSizeDegrees;
+        this.columns = (long) Math.ceil(360 / cellSizeDegrees) + 1;
+    }
+
+    /**
+     * Ajoute le point ou le déplace s'il est déjà indexé
+     */
+    public void put(long id, double latitude, double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new IllegalArgumentException("Coordonnées invalides: " + latitude + ", " + longitude);
+        }
+        long cellKey = cellKey(latitude, longitude);
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotsById.get(id);
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                if (cellKeys[slot] != cellKey) {
+                    removeFromCell(cellKeys[slot], slot);
+                    addToCell(cellKey, slot);
+                }
+            } else {
+                slot = allocateSlot();
+                slotsById.put(id, slot);
+                addToCell(cellKey, slot);
+            }
+            ids[slot] = id;
+            latitudes[slot] = latitude;
+            longitudes[slot] = longitude;
+            cellKeys[slot] = cellKey;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return false;
+            }
+            removeFromCell(cellKeys[slot], slot);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants des points à au plus {@code radiusKm} km, du plus proche au plus éloigné
+     */
+    public long[] withinRadius(double latitude, double longitude, double radiusKm) {
+        if (radiusKm < 0) {
+            return new long[0];
+        }
+        double latitudeDelta = radiusKm / GeoUtils.KM_PER_DEGREE;
+        double longitudeDelta = GeoUtils.longitudeDelta(latitude, radiusKm);
+
+        lock.readLock().lock();
+        try {
+            SlotBuffer matches = new SlotBuffer();
+            forEachInBox(latitude - latitudeDelta, longitude - longitudeDelta,
+                    latitude + latitudeDelta, longitude + longitudeDelta, slot -> {
+                        double distance = GeoUtils.distanceKm(latitude, longitude, latitudes[slot], longitudes[slot]);
+                        if (distance <= radiusKm) {
+                            matches.add(slot, distance);
+                        }
+                    });
+            return matches.sortedIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants des points du rectangle ; {@code minLongitude > maxLongitude}
+     * désigne un rectangle qui traverse l'antiméridien
+     */
+    public long[] withinBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        double width = maxLongitude >= minLongitude ?
+                maxLongitude - minLongitude : maxLongitude + 360 - minLongitude;
+
+        lock.readLock().lock();
+        try {
+            SlotBuffer matches = new SlotBuffer();
+            forEachInBox(minLatitude, minLongitude, maxLatitude, minLongitude + width,
+                    slot -> matches.add(slot, 0));
+            return matches.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== GRILLE ====================
+
+    private interface SlotVisitor {
+        void visit(int slot);
+    }
+
+    /**
+     * Visite les points du rectangle ; les longitudes peuvent déborder de
+     * [-180, 180] (rectangle autour d'un cercle), le débordement est replié
+     */
+    private void forEachInBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                              SlotVisitor visitor) {
+        double south = Math.max(minLatitude - EPSILON, -90);
+        double north = Math.min(maxLatitude + EPSILON, 90);
+        if (south > north) {
+            return;
+        }
+        double west = minLongitude - EPSILON;
+        double east = maxLongitude + EPSILON;
+        if (east - west >= 360) {
+            scanRange(south, north, -180, 180, visitor);
+            return;
+        }
+        west = normalizeLongitude(west);
+        east = west + (maxLongitude - minLongitude) + 2 * EPSILON;
+        if (east <= 180) {
+            scanRange(south, north, west, east, visitor);
+        } else {
+            scanRange(south, north, west, 180, visitor);
+            scanRange(south, north, -180, east - 360, visitor);
+        }
+    }
+
+    private void scanRange(double south, double north, double west, double east, SlotVisitor visitor) {
+        long firstRow = row(south);
+        long lastRow = row(north);
+        long firstColumn = column(west);
+        long lastColumn = column(east);
+
+        // Grand rectangle : parcourir les cellules occupées plutôt que toute la plage
+        if ((lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) > cells.size()) {
+            cells.forEach((key, cell) -> {
+                long row = key / columns;
+                long column = key % columns;
+                if (row >= firstRow && row <= lastRow && column >= firstColumn && column <= lastColumn) {
+                    visitCell(cell, south, north, west, east, visitor);
+                }
+            });
+            return;
+        }
+        for (long row = firstRow; row <= lastRow; row++) {
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                Cell cell = cells.get(row * columns + column);
+                if (cell != null) {
+                    visitCell(cell, south, north, west, east, visitor);
+                }
+            }
+        }
+    }
+
+    private void visitCell(Cell cell, double south, double north, double west, double east, SlotVisitor visitor) {
+        for (int i = 0; i < cell.count; i++) {
+            int slot = cell.slots[i];
+            double latitude = latitudes[slot];
+            double longitude = longitudes[slot];
+            if (latitude >= south && latitude <= north && longitude >= west && longitude <= east) {
+                visitor.visit(slot);
+            }
+        }
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        double normalized = ((longitude + 180) % 360 + 360) % 360 - 180;
+        return normalized == 180 ? -180 : normalized;
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return row(latitude) * columns + column(longitude);
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellSize);
+    }
+
+    private long column(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellSize);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            cellKeys = Arrays.copyOf(cellKeys, capacity);
+        }
+        return highWater++;
+    }
+
+    private void addToCell(long cellKey, int slot) {
+        cells.computeIfAbsent(cellKey, key -> new Cell()).add(slot);
+    }
+
+    private void removeFromCell(long cellKey, int slot) {
+        Cell cell = cells.get(cellKey);
+        if (cell != null && cell.remove(slot) && cell.count == 0) {
+            cells.remove(cellKey);
+        }
+    }
+
+    /**
+     * Emplacements des points d'une cellule
+     */
+    private static final class Cell {
+        private int[] slots = new int[4];
+        private int count;
+
+        void add(int slot) {
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+            }
+            slots[count++] = slot;
+        }
+
+        boolean remove(int slot) {
+            for (int i = 0; i < count; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--count];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Résultats d'une requête : emplacements et distances
+     */
+    private final class SlotBuffer {
+        private int[] slots = new int[16];
+        private double[] distances = new double[16];
+        private int count;
+
+        void add(int slot, double distance) {
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+                distances = Arrays.copyOf(distances, count * 2);
+            }
+            slots[count] = slot;
+            distances[count] = distance;
+            count++;
+        }
+
+        long[] ids() {
+            long[] result = new long[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = ids[slots[i]];
+            }
+            return result;
+        }
+
+        long[] sortedIds() {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (left, right) -> Double.compare(distances[left], distances[right]));
+            long[] result = new long[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = ids[slots[order[i]]];
+            }
+            return result;
+        }
+    }
+}
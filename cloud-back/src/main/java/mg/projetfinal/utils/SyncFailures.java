@@ -0,0 +1,102 @@
+package mg.projetfinal.utils;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseException;
+import mg.projetfinal.enums.SyncFailureKind;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.EnumSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Classement des erreurs de synchronisation : une erreur permanente (donnée
+ * invalide, document refusé par Firestore) échouera de la même façon à chaque
+ * tentative et doit être mise en quarantaine ; les autres (réseau, quota,
+ * indisponibilité) sont retentées.
+ */
+public class SyncFailures {
+
+    private static final Set<StatusCode.Code> PERMANENT_GRPC_CODES = EnumSet.of(
+            StatusCode.Code.INVALID_ARGUMENT,
+            StatusCode.Code.FAILED_PRECONDITION,
+            StatusCode.Code.NOT_FOUND,
+            StatusCode.Code.ALREADY_EXISTS,
+            StatusCode.Code.PERMISSION_DENIED,
+            StatusCode.Code.OUT_OF_RANGE,
+            StatusCode.Code.UNIMPLEMENTED);
+
+    private static final Set<ErrorCode> PERMANENT_FIREBASE_CODES = EnumSet.of(
+            ErrorCode.INVALID_ARGUMENT,
+            ErrorCode.FAILED_PRECONDITION,
+            ErrorCode.NOT_FOUND,
+            ErrorCode.ALREADY_EXISTS,
+            ErrorCode.CONFLICT,
+            ErrorCode.PERMISSION_DENIED,
+            ErrorCode.OUT_OF_RANGE);
+
+    private SyncFailures() {
+    }
+
+    /**
+     * Erreur explicitement permanente (refus d'import Firebase Auth, donnée manquante...)
+     */
+    public static class PermanentSyncException extends RuntimeException {
+
+        public PermanentSyncException(String message) {
+            super(message);
+        }
+    }
+
+    public static SyncFailureKind classify(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof PermanentSyncException) {
+            return SyncFailureKind.PERMANENT;
+        }
+        if (cause instanceof ApiException apiException) {
+            return PERMANENT_GRPC_CODES.contains(apiException.getStatusCode().getCode()) ?
+                    SyncFailureKind.PERMANENT : SyncFailureKind.TRANSIENT;
+        }
+        if (cause instanceof FirebaseException firebaseException) {
+            return PERMANENT_FIREBASE_CODES.contains(firebaseException.getErrorCode()) ?
+                    SyncFailureKind.PERMANENT : SyncFailureKind.TRANSIENT;
+        }
+        // Erreurs de données : le même contenu produira la même erreur
+        if (cause instanceof NullPointerException
+                || cause instanceof ClassCastException
+                || cause instanceof IllegalArgumentException
+                || cause instanceof NoSuchElementException
+                || cause instanceof ArithmeticException
+                || cause instanceof IndexOutOfBoundsException
+                || cause instanceof DataIntegrityViolationException) {
+            return SyncFailureKind.PERMANENT;
+        }
+        return SyncFailureKind.TRANSIENT;
+    }
+
+    public static boolean isPermanent(Throwable error) {
+        return classify(error) == SyncFailureKind.PERMANENT;
+    }
+
+    /**
+     * Message de l'erreur d'origine (type de l'exception si elle n'en a pas)
+     */
+    public static String message(Throwable error) {
+        Throwable cause = unwrap(error);
+        String message = cause.getMessage();
+        return message != null ? message : cause.getClass().getSimpleName();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
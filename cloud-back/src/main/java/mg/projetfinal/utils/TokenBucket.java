@@ -0,0 +1,60 @@
+package mg.projetfinal.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limiteur de débit à seau de jetons, partagé entre threads.
+ * Le seau se remplit de {@code ratePerSecond} jetons par seconde, jusqu'à
+ * {@code capacity} jetons (rafale autorisée) ; chaque appel en consomme un.
+ */
+public class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        if (ratePerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Débit et capacité doivent être positifs");
+        }
+        this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Consomme un jeton, en attendant qu'il soit disponible
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Consomme {@code permits} jetons, au débit du seau même au-delà de sa capacité
+     */
+    public void acquire(int permits) throws InterruptedException {
+        for (int i = 0; i < permits; i++) {
+            acquire();
+        }
+    }
+
+    /**
+     * Consomme un jeton s'il est disponible et retourne 0, sinon retourne
+     * le délai (ns) avant le prochain jeton
+     */
+    private synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerNano);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / ratePerNano);
+    }
+}
@@ -0,0 +1,192 @@
+package mg.projetfinal.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodeur Mapbox Vector Tile (spécification 2.1) pour une couche de points.
+ * Les positions sont exprimées dans le repère de la tuile (0 à {@code extent},
+ * origine en haut à gauche, hors tuile autorisé pour la marge). Clés et
+ * valeurs des propriétés sont mutualisées dans les tables de la couche.
+ * Le protobuf est écrit à la main : seuls les champs Tile.layers, Layer,
+ * Feature et Value utilisés par des points sont produits.
+ */
+public class VectorTileEncoder {
+
+    // Tile
+    private static final int TILE_LAYERS = 3;
+    // Layer
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int LAYER_VERSION = 15;
+    // Feature
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int GEOM_TYPE_POINT = 1;
+    private static final int COMMAND_MOVE_TO = 1;
+    // Value
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_DOUBLE = 3;
+    private static final int VALUE_UINT = 5;
+    private static final int VALUE_SINT = 6;
+    private static final int VALUE_BOOL = 7;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED64 = 1;
+
+    private final int extent;
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+    private final List<byte[]> features = new ArrayList<>();
+
+    public VectorTileEncoder(int extent) {
+        if (extent < 1) {
+            throw new IllegalArgumentException("Étendue de tuile invalide: " + extent);
+        }
+        this.extent = extent;
+    }
+
+    public int getExtent() {
+        return extent;
+    }
+
+    public boolean isEmpty() {
+        return features.isEmpty();
+    }
+
+    /**
+     * Ajoute un point ; propriétés nulles ignorées, valeurs String, Number
+     * (entier ou décimal) ou Boolean
+     */
+    public void addPoint(Long id, int x, int y, Map<String, ?> properties) {
+        Buffer feature = new Buffer();
+        if (id != null && id >= 0) {
+            feature.tag(FEATURE_ID, WIRE_VARINT).varint(id);
+        }
+
+        Buffer tags = new Buffer();
+        properties.forEach((key, value) -> {
+            if (value != null) {
+                tags.varint(keys.computeIfAbsent(key, k -> keys.size()));
+                tags.varint(values.computeIfAbsent(normalize(value), v -> values.size()));
+            }
+        });
+        if (tags.size() > 0) {
+            feature.tag(FEATURE_TAGS, WIRE_LENGTH_DELIMITED).bytes(tags.toByteArray());
+        }
+
+        feature.tag(FEATURE_TYPE, WIRE_VARINT).varint(GEOM_TYPE_POINT);
+        Buffer geometry = new Buffer()
+                .varint(COMMAND_MOVE_TO | (1 << 3))
+                .varint(zigZag(x))
+                .varint(zigZag(y));
+        feature.tag(FEATURE_GEOMETRY, WIRE_LENGTH_DELIMITED).bytes(geometry.toByteArray());
+
+        features.add(feature.toByteArray());
+    }
+
+    /**
+     * Tuile contenant la couche {@code layerName} ; vide (0 octet) sans point
+     */
+    public byte[] encode(String layerName) {
+        if (features.isEmpty()) {
+            return new byte[0];
+        }
+        Buffer layer = new Buffer();
+        layer.tag(LAYER_VERSION, WIRE_VARINT).varint(2);
+        layer.tag(LAYER_NAME, WIRE_LENGTH_DELIMITED).bytes(layerName.getBytes(StandardCharsets.UTF_8));
+        for (byte[] feature : features) {
+            layer.tag(LAYER_FEATURES, WIRE_LENGTH_DELIMITED).bytes(feature);
+        }
+        for (String key : keys.keySet()) {
+            layer.tag(LAYER_KEYS, WIRE_LENGTH_DELIMITED).bytes(key.getBytes(StandardCharsets.UTF_8));
+        }
+        for (Object value : values.keySet()) {
+            layer.tag(LAYER_VALUES, WIRE_LENGTH_DELIMITED).bytes(encodeValue(value));
+        }
+        layer.tag(LAYER_EXTENT, WIRE_VARINT).varint(extent);
+
+        return new Buffer().tag(TILE_LAYERS, WIRE_LENGTH_DELIMITED).bytes(layer.toByteArray()).toByteArray();
+    }
+
+    /**
+     * Entiers en Long et décimaux en Double, pour qu'une même valeur ne soit
+     * rangée qu'une fois dans la table
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private static byte[] encodeValue(Object value) {
+        Buffer buffer = new Buffer();
+        if (value instanceof String string) {
+            buffer.tag(VALUE_STRING, WIRE_LENGTH_DELIMITED).bytes(string.getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Double number) {
+            buffer.tag(VALUE_DOUBLE, WIRE_FIXED64).fixed64(Double.doubleToLongBits(number));
+        } else if (value instanceof Long number) {
+            if (number >= 0) {
+                buffer.tag(VALUE_UINT, WIRE_VARINT).varint(number);
+            } else {
+                buffer.tag(VALUE_SINT, WIRE_VARINT).varint(zigZag(number));
+            }
+        } else {
+            buffer.tag(VALUE_BOOL, WIRE_VARINT).varint((Boolean) value ? 1 : 0);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Écriture protobuf : clés de champ, varints, fixed64 et champs délimités
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer tag(int field, int wireType) {
+            return varint(((long) field << 3) | wireType);
+        }
+
+        Buffer varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+            return this;
+        }
+
+        Buffer fixed64(long value) {
+            for (int i = 0; i < 8; i++) {
+                write((int) (value >>> (8 * i)) & 0xFF);
+            }
+            return this;
+        }
+
+        Buffer bytes(byte[] data) {
+            varint(data.length);
+            write(data, 0, data.length);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- Contraintes de statut de sync_queue et sync_history alignées sur SyncStatus.
+-- ddl-auto=update ne modifie pas un CHECK existant : les bases créées depuis
+-- mcd.sql refuseraient CANCELLED, CONFLICT et DEAD_LETTER. Script rejouable.
+
+ALTER TABLE IF EXISTS sync_queue DROP CONSTRAINT IF EXISTS sync_queue_status_check;
+ALTER TABLE IF EXISTS sync_queue ADD CONSTRAINT sync_queue_status_check
+    CHECK (status IN ('PENDING', 'PROCESSING', 'SUCCESS', 'FAILED', 'CANCELLED', 'CONFLICT', 'DEAD_LETTER'));
+
+ALTER TABLE IF EXISTS sync_history DROP CONSTRAINT IF EXISTS sync_history_status_check;
+ALTER TABLE IF EXISTS sync_history ADD CONSTRAINT sync_history_status_check
+    CHECK (status IN ('PENDING', 'PROCESSING', 'SUCCESS', 'FAILED', 'CANCELLED', 'CONFLICT', 'DEAD_LETTER'));
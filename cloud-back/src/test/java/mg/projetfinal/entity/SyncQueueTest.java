@@ -0,0 +1,141 @@
+package mg.projetfinal.entity;
+
+import mg.projetfinal.enums.EntityType;
+import mg.projetfinal.enums.SyncAction;
+import mg.projetfinal.enums.SyncDirection;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fusion des modifications d'une même entité dans l'outbox : l'action
+ * retenue décide de l'écriture Firestore (création, mise à jour ou
+ * suppression), l'instantané fusionné de son contenu.
+ */
+class SyncQueueTest {
+
+    @Test
+    void deleteWinsOverPendingCreateOrUpdate() {
+        SyncQueue created = entry(SyncAction.CREATE, null);
+        created.coalesce(SyncAction.DELETE, null, null, null);
+        assertEquals(SyncAction.DELETE, created.getAction());
+
+        SyncQueue updated = entry(SyncAction.UPDATE, null);
+        updated.coalesce(SyncAction.DELETE, null, null, null);
+        assertEquals(SyncAction.DELETE, updated.getAction());
+
+        SyncQueue deleted = entry(SyncAction.DELETE, null);
+        deleted.absorbOlder(entry(SyncAction.CREATE, null));
+        assertEquals(SyncAction.DELETE, deleted.getAction());
+    }
+
+    @Test
+    void createFollowedByUpdateStaysCreate() {
+        SyncQueue created = entry(SyncAction.CREATE, null);
+        created.coalesce(SyncAction.UPDATE, null, null, null);
+        assertEquals(SyncAction.CREATE, created.getAction());
+
+        SyncQueue updated = entry(SyncAction.UPDATE, null);
+        updated.absorbOlder(entry(SyncAction.CREATE, null));
+        assertEquals(SyncAction.CREATE, updated.getAction());
+    }
+
+    @Test
+    void updateFollowedByUpdateStaysUpdate() {
+        SyncQueue updated = entry(SyncAction.UPDATE, null);
+        updated.coalesce(SyncAction.UPDATE, null, null, null);
+        assertEquals(SyncAction.UPDATE, updated.getAction());
+
+        SyncQueue newer = entry(SyncAction.UPDATE, null);
+        newer.absorbOlder(entry(SyncAction.UPDATE, null));
+        assertEquals(SyncAction.UPDATE, newer.getAction());
+    }
+
+    @Test
+    void deleteFollowedByCreateIsWrittenAgain() {
+        SyncQueue deleted = entry(SyncAction.DELETE, null);
+        deleted.coalesce(SyncAction.CREATE, null, null, null);
+        assertEquals(SyncAction.CREATE, deleted.getAction());
+
+        SyncQueue deletedThenUpdated = entry(SyncAction.DELETE, null);
+        deletedThenUpdated.coalesce(SyncAction.UPDATE, null, null, null);
+        assertEquals(SyncAction.UPDATE, deletedThenUpdated.getAction());
+
+        SyncQueue recreated = entry(SyncAction.CREATE, null);
+        recreated.absorbOlder(entry(SyncAction.DELETE, null));
+        assertEquals(SyncAction.CREATE, recreated.getAction());
+    }
+
+    @Test
+    void snapshotsMergeNewestWins() {
+        SyncQueue entry = entry(SyncAction.UPDATE, snapshot("statut", "NOUVEAU", "niveau", 2));
+        entry.coalesce(SyncAction.UPDATE, null, null, snapshot("statut", "EN_COURS", "budget", 1000));
+
+        assertEquals(snapshot("statut", "EN_COURS", "niveau", 2, "budget", 1000), entry.getDataSnapshot());
+
+        SyncQueue newer = entry(SyncAction.UPDATE, snapshot("statut", "TERMINE"));
+        newer.absorbOlder(entry(SyncAction.UPDATE, snapshot("statut", "EN_COURS", "niveau", 5)));
+
+        assertEquals(snapshot("statut", "TERMINE", "niveau", 5), newer.getDataSnapshot());
+    }
+
+    @Test
+    void coalesceKeepsHighestPriorityAndLatestFirebaseId() {
+        SyncQueue entry = entry(SyncAction.UPDATE, null);
+        entry.setPriority(5);
+        entry.coalesce(SyncAction.UPDATE, 1, "doc-1", null);
+        entry.coalesce(SyncAction.UPDATE, 8, null, null);
+
+        assertEquals(1, entry.getPriority());
+        assertEquals("doc-1", entry.getFirebaseId());
+
+        SyncQueue newer = entry(SyncAction.UPDATE, null);
+        SyncQueue older = entry(SyncAction.UPDATE, null);
+        older.setFirebaseId("doc-2");
+        older.setPriority(2);
+        newer.absorbOlder(older);
+
+        assertEquals(2, newer.getPriority());
+        assertEquals("doc-2", newer.getFirebaseId());
+    }
+
+    @Test
+    void coalescedCountAccumulatesMergedChanges() {
+        SyncQueue entry = entry(SyncAction.CREATE, null);
+        entry.coalesce(SyncAction.UPDATE, null, null, null);
+        entry.coalesce(SyncAction.UPDATE, null, null, null);
+        assertEquals(2, entry.getCoalescedCount());
+
+        // L'entrée absorbée compte pour elle-même et pour ce qu'elle avait déjà fusionné
+        SyncQueue newer = entry(SyncAction.UPDATE, null);
+        newer.coalesce(SyncAction.UPDATE, null, null, null);
+        newer.absorbOlder(entry);
+        assertEquals(1 + 2 + 1, newer.getCoalescedCount());
+
+        SyncQueue legacy = entry(SyncAction.UPDATE, null);
+        legacy.setCoalescedCount(null);
+        legacy.coalesce(SyncAction.UPDATE, null, null, null);
+        assertEquals(1, legacy.getCoalescedCount());
+    }
+
+    private static SyncQueue entry(SyncAction action, Map<String, Object> snapshot) {
+        return SyncQueue.builder()
+                .entityType(EntityType.SIGNALEMENT)
+                .entityId(1L)
+                .action(action)
+                .direction(SyncDirection.POSTGRES_TO_FIREBASE)
+                .dataSnapshot(snapshot)
+                .build();
+    }
+
+    private static Map<String, Object> snapshot(Object... keyValues) {
+        Map<String, Object> snapshot = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            snapshot.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return snapshot;
+    }
+}
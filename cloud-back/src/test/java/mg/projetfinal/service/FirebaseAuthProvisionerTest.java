@@ -0,0 +1,95 @@
+package mg.projetfinal.service;
+
+import mg.projetfinal.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * importUsers accepte les doublons d'email : un nouvel essai ou un compte
+ * créé par l'application mobile ne doit jamais produire un second compte
+ */
+class FirebaseAuthProvisionerTest {
+
+    private final InMemoryFirestoreGateway gateway = new InMemoryFirestoreGateway(0, 0, 0);
+    private FirebaseAuthProvisioner provisioner;
+
+    @BeforeEach
+    void setUp() {
+        provisioner = new FirebaseAuthProvisioner(gateway, mock(SyncMetrics.class));
+        ReflectionTestUtils.setField(provisioner, "importBatchSize", 1000);
+        ReflectionTestUtils.setField(provisioner, "authThreads", 2);
+        ReflectionTestUtils.setField(provisioner, "ratePerSecond", 1000.0);
+        provisioner.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provisioner.shutdown();
+    }
+
+    @Test
+    void retryAfterLostResponseReusesTheAccount() throws Exception {
+        FirebaseAuthProvisioner.Outcome first = provisioner.provision(List.of(user(1L, "rakoto@example.mg"))).get(1L);
+        assertEquals(FirebaseAuthProvisioner.Action.CREATED, first.action());
+
+        // L'UID n'a pas été enregistré (transaction annulée) : même utilisateur, sans UID
+        FirebaseAuthProvisioner.Outcome retry = provisioner.provision(List.of(user(1L, "rakoto@example.mg"))).get(1L);
+
+        assertTrue(retry.isSuccess());
+        assertEquals(first.firebaseUid(), retry.firebaseUid());
+        assertEquals(1, gateway.countAuthUsers());
+    }
+
+    @Test
+    void existingMobileAccountIsLinkedByEmail() throws Exception {
+        gateway.importAuthUsers(List.of(new FirestoreGateway.AuthUserImport(
+                "mobile-uid", "rabe@example.mg", "Rabe", "$2a$10$mobile")));
+
+        User user = user(2L, "Rabe@Example.mg");
+        FirebaseAuthProvisioner.Outcome outcome = provisioner.provision(List.of(user)).get(2L);
+
+        assertEquals(FirebaseAuthProvisioner.Action.LINKED, outcome.action());
+        assertEquals("mobile-uid", outcome.firebaseUid());
+        assertEquals("mobile-uid", user.getFirebaseUid());
+        assertEquals(1, gateway.countAuthUsers());
+    }
+
+    @Test
+    void importedUidIsStablePerUser() {
+        assertEquals(FirebaseAuthProvisioner.stableUid(user(3L, "a@example.mg")),
+                FirebaseAuthProvisioner.stableUid(user(3L, "A@example.mg")));
+        assertNotEquals(FirebaseAuthProvisioner.stableUid(user(3L, "a@example.mg")),
+                FirebaseAuthProvisioner.stableUid(user(4L, "a@example.mg")));
+    }
+
+    @Test
+    void replayedImportReplacesInsteadOfDuplicating() throws Exception {
+        User user = user(5L, "rasoa@example.mg");
+        FirestoreGateway.AuthUserImport account = new FirestoreGateway.AuthUserImport(
+                FirebaseAuthProvisioner.stableUid(user), user.getEmail(), user.getName(), user.getPasswordHash());
+
+        // Comme importUsers : ni erreur ni doublon quand le même lot est rejoué
+        assertEquals(Map.of(), gateway.importAuthUsers(List.of(account)));
+        assertEquals(Map.of(), gateway.importAuthUsers(List.of(account)));
+
+        assertEquals(1, gateway.countAuthUsers());
+        assertEquals(Map.of("rasoa@example.mg", account.uid()), gateway.findAuthUidsByEmail(List.of(user.getEmail())));
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setName("Utilisateur " + id);
+        user.setPasswordHash("$2a$10$hash" + id);
+        return user;
+    }
+}
@@ -0,0 +1,130 @@
+package mg.projetfinal.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mg.projetfinal.entity.Entreprise;
+import mg.projetfinal.entity.Signalement;
+import mg.projetfinal.entity.SignalementStatus;
+import mg.projetfinal.entity.User;
+import mg.projetfinal.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Banc de mesure de la synchronisation PostgreSQL → Firebase sur la
+ * passerelle en mémoire : pour chaque volume, des signalements non
+ * synchronisés sont créés puis poussés, et le débit ainsi que les
+ * percentiles de latence des commits sont journalisés. Chaque volume doit
+ * être poussé en entier, sans erreur.
+ * À lancer sur une base jetable (les lignes sync_history restent) :
+ * mvn test -Dtest=FirebaseSyncBenchmark -Dsync.benchmark=true [-Dsync.benchmark.sizes=10000,100000]
+ */
+@SpringBootTest(properties = {
+        "sync.gateway=in-memory",
+        "sync.gateway.in-memory.latency-ms=20",
+        "sync.gateway.in-memory.jitter-ms=10",
+        "sync.outbox.enabled=false",
+        "firebase.config.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@EnabledIfSystemProperty(named = "sync.benchmark", matches = "true")
+@Slf4j
+class FirebaseSyncBenchmark {
+
+    private static final int SEED_CHUNK = 1000;
+
+    @Autowired
+    private FirebaseSyncService firebaseSyncService;
+    @Autowired
+    private InMemoryFirestoreGateway gateway;
+    @Autowired
+    private SignalementRepository signalementRepository;
+    @Autowired
+    private SignalementStatusRepository signalementStatusRepository;
+    @Autowired
+    private EntrepriseRepository entrepriseRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SyncDocumentStateRepository syncDocumentStateRepository;
+
+    @Test
+    void pushSignalements() {
+        String sizes = System.getProperty("sync.benchmark.sizes", "10000,100000");
+        log.info("=== Benchmark synchronisation PostgreSQL → Firebase (passerelle en mémoire) ===");
+
+        for (String size : sizes.split(",")) {
+            int count = Integer.parseInt(size.trim());
+            List<Long> seeded = seedSignalements(count);
+            gateway.reset();
+
+            long start = System.nanoTime();
+            FirebaseSyncService.SyncResult result = firebaseSyncService.syncPostgresToFirebase();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] commits = gateway.getLatenciesNanos(InMemoryFirestoreGateway.OP_COMMIT);
+            log.info(String.format(Locale.ROOT,
+                    "%7d entités | %8.2f s | %9.1f entités/s | commits: %5d, p50 %6.1f ms, p99 %6.1f ms | erreurs: %d",
+                    count, seconds, result.getTotalSuccess() / seconds, commits.length,
+                    percentileMs(commits, 50), percentileMs(commits, 99), result.getTotalErrors()));
+
+            cleanup(seeded);
+
+            assertEquals(0, result.getTotalErrors(), "erreurs pour " + count + " entités");
+            assertTrue(result.getTotalSuccess() >= count, "entités poussées pour " + count + " entités");
+            assertTrue(commits.length > 0, "aucun commit pour " + count + " entités");
+        }
+    }
+
+    private List<Long> seedSignalements(int count) {
+        User user = userRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Aucun utilisateur (DataInitializer)"));
+        SignalementStatus status = signalementStatusRepository.findByCode("NOUVEAU")
+                .orElseThrow(() -> new IllegalStateException("Status NOUVEAU absent (DataInitializer)"));
+        Entreprise entreprise = entrepriseRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Aucune entreprise (DataInitializer)"));
+
+        Random random = new Random(42);
+        List<Long> ids = new ArrayList<>(count);
+        for (int offset = 0; offset < count; offset += SEED_CHUNK) {
+            List<Signalement> chunk = new ArrayList<>();
+            for (int i = offset; i < Math.min(offset + SEED_CHUNK, count); i++) {
+                chunk.add(Signalement.builder()
+                        .user(user)
+                        .status(status)
+                        .entreprise(entreprise)
+                        .description("Benchmark " + i)
+                        .latitude(BigDecimal.valueOf(-18.9 + random.nextDouble() * 0.2))
+                        .longitude(BigDecimal.valueOf(47.5 + random.nextDouble() * 0.2))
+                        .budget(BigDecimal.valueOf(1000))
+                        .surface(BigDecimal.valueOf(10))
+                        .build());
+            }
+            signalementRepository.saveAll(chunk).forEach(signalement -> ids.add(signalement.getId()));
+        }
+        return ids;
+    }
+
+    private void cleanup(List<Long> ids) {
+        for (int offset = 0; offset < ids.size(); offset += SEED_CHUNK) {
+            List<Long> chunk = ids.subList(offset, Math.min(offset + SEED_CHUNK, ids.size()));
+            signalementRepository.deleteAllByIdInBatch(chunk);
+            syncDocumentStateRepository.deleteAll(syncDocumentStateRepository.findByCollectionNameAndDocumentIdIn(
+                    "signalements", chunk.stream().map(String::valueOf).toList()));
+        }
+    }
+
+    private static double percentileMs(long[] sortedNanos, int percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
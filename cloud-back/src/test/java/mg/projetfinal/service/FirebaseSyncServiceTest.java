@@ -0,0 +1,243 @@
+package mg.projetfinal.service;
+
+import mg.projetfinal.entity.Entreprise;
+import mg.projetfinal.entity.Signalement;
+import mg.projetfinal.entity.SignalementStatus;
+import mg.projetfinal.entity.SyncQueue;
+import mg.projetfinal.entity.SyncWatermark;
+import mg.projetfinal.entity.User;
+import mg.projetfinal.enums.EntityType;
+import mg.projetfinal.enums.SyncAction;
+import mg.projetfinal.enums.SyncDirection;
+import mg.projetfinal.enums.SyncStatus;
+import mg.projetfinal.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Synchronisation contre la passerelle Firestore en mémoire, sur la base
+ * de l'application (données du DataInitializer) ; les signalements créés
+ * par un test sont supprimés à la fin.
+ */
+@SpringBootTest(properties = {
+        "sync.gateway=in-memory",
+        "sync.outbox.enabled=false",
+        "sync.listener.enabled=false",
+        "firebase.config.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+class FirebaseSyncServiceTest {
+
+    private static final String SIGNALEMENTS = "signalements";
+
+    @Autowired
+    private FirebaseSyncService firebaseSyncService;
+    @Autowired
+    private InMemoryFirestoreGateway gateway;
+    @Autowired
+    private SignalementRepository signalementRepository;
+    @Autowired
+    private SignalementStatusRepository signalementStatusRepository;
+    @Autowired
+    private EntrepriseRepository entrepriseRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SyncDocumentStateRepository syncDocumentStateRepository;
+    @Autowired
+    private SyncWatermarkRepository syncWatermarkRepository;
+    @Autowired
+    private SyncQueueService syncQueueService;
+    @Autowired
+    private SyncQueueRepository syncQueueRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> created = new ArrayList<>();
+    private final List<Long> queued = new ArrayList<>();
+    private LocalDateTime previousWatermark;
+
+    @BeforeEach
+    void resetGateway() {
+        gateway.reset();
+        previousWatermark = syncWatermarkRepository.findByCollectionName(SIGNALEMENTS)
+                .map(SyncWatermark::getLastUpdatedAt)
+                .orElse(null);
+    }
+
+    @AfterEach
+    void cleanup() {
+        syncQueueRepository.deleteAllByIdInBatch(queued);
+        queued.clear();
+        signalementRepository.deleteAllByIdInBatch(created);
+        syncDocumentStateRepository.deleteAll(syncDocumentStateRepository.findByCollectionNameAndDocumentIdIn(
+                SIGNALEMENTS, created.stream().map(String::valueOf).toList()));
+        // Le watermark de la base de développement ne doit pas sauter les documents réels
+        syncWatermarkRepository.findByCollectionName(SIGNALEMENTS).ifPresent(watermark -> {
+            watermark.setLastUpdatedAt(previousWatermark);
+            syncWatermarkRepository.save(watermark);
+        });
+        created.clear();
+    }
+
+    @Test
+    void deltaPushRewritesDocumentDeletedInFirestore() throws Exception {
+        Signalement signalement = createSignalement("Nid de poule");
+        firebaseSyncService.syncPostgresToFirebase();
+        String docId = String.valueOf(signalement.getId());
+        assertTrue(gateway.getDocument(SIGNALEMENTS, docId).isPresent());
+
+        // Supprimé depuis la console : l'empreinte du dernier push ne décrit plus Firestore
+        gateway.write(FirestoreGateway.DocumentWrite.delete(SIGNALEMENTS, docId));
+        signalement = signalementRepository.findById(signalement.getId()).orElseThrow();
+        signalement.setDescription("Nid de poule élargi");
+        signalement.setFirebaseSynced(false);
+        signalementRepository.save(signalement);
+
+        FirebaseSyncService.SyncResult result = firebaseSyncService.syncPostgresToFirebase();
+
+        assertEquals(0, result.getTotalErrors());
+        Map<String, Object> document = gateway.getDocument(SIGNALEMENTS, docId).orElseThrow();
+        assertEquals("Nid de poule élargi", document.get("description"));
+        // Document complet, pas seulement le champ modifié
+        assertEquals(signalement.getLatitude().doubleValue(), document.get("latitude"));
+        assertEquals(signalement.getStatus().getCode(), document.get("statusCode"));
+    }
+
+    @Test
+    void pullSkipsRoundTripOfOwnPush() {
+        Signalement signalement = createSignalement("Nid de poule");
+        firebaseSyncService.syncPostgresToFirebase(SIGNALEMENTS, new FirebaseSyncService.SyncResult());
+
+        FirebaseSyncService.SyncResult result = firebaseSyncService.syncCollectionFromFirebase(
+                SIGNALEMENTS, true, new FirebaseSyncService.SyncResult());
+
+        assertEquals(1, result.getTotalSkipped());
+        assertEquals(0, result.getTotalSuccess());
+        assertEquals("Nid de poule", signalementRepository.findById(signalement.getId()).orElseThrow().getDescription());
+    }
+
+    @Test
+    void pullAppliesRemoteEditWithUnchangedVersion() throws Exception {
+        Signalement signalement = createSignalement("Nid de poule");
+        firebaseSyncService.syncPostgresToFirebase(SIGNALEMENTS, new FirebaseSyncService.SyncResult());
+        String docId = String.valueOf(signalement.getId());
+        Long pushedVersion = signalementRepository.findById(signalement.getId()).orElseThrow().getFirebaseVersion();
+
+        // Modifié par un client qui rafraîchit updatedAt sans incrémenter la version
+        Map<String, Object> data = gateway.getDocument(SIGNALEMENTS, docId).orElseThrow();
+        data.put("description", "Nid de poule élargi");
+        data.put("updatedAt", new Date(System.currentTimeMillis() + 60_000));
+        gateway.write(FirestoreGateway.DocumentWrite.set(SIGNALEMENTS, docId, data));
+
+        FirebaseSyncService.SyncResult result = firebaseSyncService.syncCollectionFromFirebase(
+                SIGNALEMENTS, true, new FirebaseSyncService.SyncResult());
+
+        assertEquals(0, result.getTotalErrors());
+        assertEquals(0, result.getTotalSkipped());
+        Signalement updated = signalementRepository.findById(signalement.getId()).orElseThrow();
+        assertEquals("Nid de poule élargi", updated.getDescription());
+        assertEquals(pushedVersion, updated.getFirebaseVersion());
+    }
+
+    @Test
+    void fullPullRecomputesWatermark() {
+        createSignalement("Nid de poule");
+        firebaseSyncService.syncPostgresToFirebase(SIGNALEMENTS, new FirebaseSyncService.SyncResult());
+        // Avancé par un document daté dans le futur, depuis corrigé
+        LocalDateTime future = LocalDateTime.now().plusYears(1);
+        SyncWatermark watermark = syncWatermarkRepository.findByCollectionName(SIGNALEMENTS)
+                .orElseGet(() -> SyncWatermark.builder().collectionName(SIGNALEMENTS).build());
+        watermark.setLastUpdatedAt(future);
+        syncWatermarkRepository.save(watermark);
+
+        firebaseSyncService.syncCollectionFromFirebase(SIGNALEMENTS, true, new FirebaseSyncService.SyncResult());
+
+        LocalDateTime recomputed = syncWatermarkRepository.findByCollectionName(SIGNALEMENTS).orElseThrow()
+                .getLastUpdatedAt();
+        assertNotNull(recomputed);
+        assertTrue(recomputed.isBefore(future));
+    }
+
+    @Test
+    void outboxEntryIsPushedAndMarkedOutsideACallerTransaction() {
+        Signalement signalement = createSignalement("Nid de poule");
+        SyncQueue entry = syncQueueService.enqueue(EntityType.SIGNALEMENT, signalement.getId(), SyncAction.CREATE);
+        queued.add(entry.getId());
+
+        // Lecture, appel Firestore et marquage dans des transactions distinctes
+        FirebaseSyncService.SyncResult result = firebaseSyncService.processQueueEntries(List.of(entry.getId()));
+
+        assertEquals(0, result.getTotalErrors());
+        assertTrue(gateway.getDocument(SIGNALEMENTS, String.valueOf(signalement.getId())).isPresent());
+        assertEquals(SyncStatus.SUCCESS, syncQueueRepository.findById(entry.getId()).orElseThrow().getStatus());
+        Signalement synced = signalementRepository.findById(signalement.getId()).orElseThrow();
+        assertTrue(synced.getFirebaseSynced());
+        assertNotNull(synced.getFirebaseVersion());
+    }
+
+    @Test
+    void claimOffersOnlyTheOldestPendingRowOfAnEntity() {
+        Signalement signalement = createSignalement("Nid de poule");
+        // Doublons PENDING laissés par deux enqueue concurrents
+        SyncQueue first = syncQueueRepository.save(pendingEntry(signalement.getId(), SyncAction.CREATE));
+        SyncQueue second = syncQueueRepository.save(pendingEntry(signalement.getId(), SyncAction.UPDATE));
+        queued.addAll(List.of(first.getId(), second.getId()));
+
+        // Réclamation annulée : les lignes réelles de la file restent intactes
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> claimable = transaction.execute(status -> {
+            status.setRollbackOnly();
+            return syncQueueRepository.claimPending(LocalDateTime.now(), Integer.MAX_VALUE).stream()
+                    .filter(entry -> entry.getEntityType() == EntityType.SIGNALEMENT
+                            && signalement.getId().equals(entry.getEntityId()))
+                    .map(SyncQueue::getId)
+                    .toList();
+        });
+
+        assertEquals(List.of(first.getId()), claimable);
+    }
+
+    private SyncQueue pendingEntry(Long entityId, SyncAction action) {
+        return SyncQueue.builder()
+                .entityType(EntityType.SIGNALEMENT)
+                .entityId(entityId)
+                .action(action)
+                .direction(SyncDirection.POSTGRES_TO_FIREBASE)
+                .scheduledAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    private Signalement createSignalement(String description) {
+        User user = userRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Aucun utilisateur (DataInitializer)"));
+        SignalementStatus status = signalementStatusRepository.findByCode("NOUVEAU")
+                .orElseThrow(() -> new IllegalStateException("Status NOUVEAU absent (DataInitializer)"));
+        Entreprise entreprise = entrepriseRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Aucune entreprise (DataInitializer)"));
+
+        Signalement signalement = signalementRepository.save(Signalement.builder()
+                .user(user)
+                .status(status)
+                .entreprise(entreprise)
+                .description(description)
+                .latitude(BigDecimal.valueOf(-18.91))
+                .longitude(BigDecimal.valueOf(47.52))
+                .budget(BigDecimal.valueOf(1000))
+                .surface(BigDecimal.valueOf(10))
+                .build());
+        created.add(signalement.getId());
+        return signalement;
+    }
+}
@@ -0,0 +1,185 @@
+package mg.projetfinal.service;
+
+import mg.projetfinal.entity.Entreprise;
+import mg.projetfinal.entity.Signalement;
+import mg.projetfinal.entity.SignalementStatus;
+import mg.projetfinal.entity.SyncWatermark;
+import mg.projetfinal.entity.User;
+import mg.projetfinal.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Changements livrés par un listener (ajout, modification, suppression),
+ * lus dans la passerelle en mémoire et appliqués comme le ferait un
+ * instantané Firestore. Firebase n'étant pas initialisé, aucun listener
+ * réel n'est abonné.
+ */
+@SpringBootTest(properties = {
+        "sync.gateway=in-memory",
+        "sync.outbox.enabled=false",
+        "sync.listener.enabled=true",
+        "firebase.config.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+class FirestoreListenerServiceTest {
+
+    private static final String SIGNALEMENTS = "signalements";
+
+    @Autowired
+    private FirestoreListenerService listenerService;
+    @Autowired
+    private FirebaseSyncService firebaseSyncService;
+    @Autowired
+    private InMemoryFirestoreGateway gateway;
+    @Autowired
+    private SignalementRepository signalementRepository;
+    @Autowired
+    private SignalementStatusRepository signalementStatusRepository;
+    @Autowired
+    private EntrepriseRepository entrepriseRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SyncDocumentStateRepository syncDocumentStateRepository;
+    @Autowired
+    private SyncWatermarkRepository syncWatermarkRepository;
+
+    private final List<Long> created = new ArrayList<>();
+    private final Set<String> addedDocIds = new HashSet<>();
+    private User user;
+    private String previousFirebaseUid;
+    private LocalDateTime previousWatermark;
+
+    @BeforeEach
+    void setUp() {
+        gateway.reset();
+        user = userRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Aucun utilisateur (DataInitializer)"));
+        // Les documents mobiles référencent l'utilisateur par son UID Firebase
+        previousFirebaseUid = user.getFirebaseUid();
+        if (previousFirebaseUid == null) {
+            user.setFirebaseUid("listener-test-" + user.getId());
+            user = userRepository.save(user);
+        }
+        previousWatermark = syncWatermarkRepository.findByCollectionName(SIGNALEMENTS)
+                .map(SyncWatermark::getLastUpdatedAt)
+                .orElse(null);
+    }
+
+    @AfterEach
+    void cleanup() {
+        signalementRepository.findByFirebaseIdIn(addedDocIds).forEach(signalement -> created.add(signalement.getId()));
+        signalementRepository.deleteAllByIdInBatch(created);
+        syncDocumentStateRepository.deleteAll(syncDocumentStateRepository.findByCollectionNameAndDocumentIdIn(
+                SIGNALEMENTS, created.stream().map(String::valueOf).toList()));
+        if (previousFirebaseUid == null) {
+            User restored = userRepository.findById(user.getId()).orElseThrow();
+            restored.setFirebaseUid(null);
+            userRepository.save(restored);
+        }
+        // Le watermark de la base de développement ne doit pas sauter les documents réels
+        syncWatermarkRepository.findByCollectionName(SIGNALEMENTS).ifPresent(watermark -> {
+            watermark.setLastUpdatedAt(previousWatermark);
+            syncWatermarkRepository.save(watermark);
+        });
+        created.clear();
+        addedDocIds.clear();
+    }
+
+    @Test
+    void appliesAddedModifiedAndRemovedDocuments() throws Exception {
+        Signalement modified = createSignalement("Nid de poule");
+        Signalement removed = createSignalement("Fissure");
+        firebaseSyncService.syncPostgresToFirebase(SIGNALEMENTS, new FirebaseSyncService.SyncResult());
+        String modifiedDocId = String.valueOf(modified.getId());
+        String removedDocId = String.valueOf(removed.getId());
+        assertEquals(1, syncDocumentStateRepository.findByCollectionNameAndDocumentIdIn(
+                SIGNALEMENTS, List.of(removedDocId)).size());
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime modifiedAt = now.plusMinutes(1);
+        LocalDateTime addedAt = now.plusMinutes(2);
+
+        // Modifié depuis l'application mobile
+        Map<String, Object> modifiedData = gateway.getDocument(SIGNALEMENTS, modifiedDocId).orElseThrow();
+        modifiedData.put("description", "Nid de poule élargi");
+        modifiedData.put("version", ((Number) modifiedData.get("version")).longValue() + 1);
+        modifiedData.put("updatedAt", toDate(modifiedAt));
+        gateway.write(FirestoreGateway.DocumentWrite.set(SIGNALEMENTS, modifiedDocId, modifiedData));
+
+        // Créé depuis l'application mobile
+        String addedDocId = "mobile-" + UUID.randomUUID();
+        addedDocIds.add(addedDocId);
+        Map<String, Object> addedData = new HashMap<>();
+        addedData.put("description", "Chaussée effondrée");
+        addedData.put("latitude", -18.92);
+        addedData.put("longitude", 47.53);
+        addedData.put("budget", 2500.0);
+        addedData.put("surface", 12.0);
+        addedData.put("statusCode", "NOUVEAU");
+        addedData.put("userId", user.getFirebaseUid());
+        addedData.put("version", 1L);
+        addedData.put("updatedAt", toDate(addedAt));
+        gateway.write(FirestoreGateway.DocumentWrite.set(SIGNALEMENTS, addedDocId, addedData));
+
+        // Supprimé depuis la console
+        gateway.write(FirestoreGateway.DocumentWrite.delete(SIGNALEMENTS, removedDocId));
+
+        List<FirestoreGateway.FirestoreDocument> changed = gateway.fetchPage(SIGNALEMENTS, modifiedAt, null, 10);
+        assertEquals(2, changed.size());
+        listenerService.applyChanges(SIGNALEMENTS, changed, List.of(removedDocId));
+
+        Signalement updated = signalementRepository.findById(modified.getId()).orElseThrow();
+        assertEquals("Nid de poule élargi", updated.getDescription());
+        assertEquals(2L, updated.getFirebaseVersion());
+
+        List<Signalement> added = signalementRepository.findByFirebaseIdIn(List.of(addedDocId));
+        assertEquals(1, added.size());
+        assertEquals("Chaussée effondrée", added.get(0).getDescription());
+        assertEquals(0, new BigDecimal("2500").compareTo(added.get(0).getBudget()));
+
+        // Suppression non propagée : l'entité reste, seule l'empreinte du push est oubliée
+        assertTrue(signalementRepository.findById(removed.getId()).isPresent());
+        assertTrue(syncDocumentStateRepository.findByCollectionNameAndDocumentIdIn(
+                SIGNALEMENTS, List.of(removedDocId)).isEmpty());
+
+        SyncWatermark watermark = syncWatermarkRepository.findByCollectionName(SIGNALEMENTS).orElseThrow();
+        assertEquals(addedAt, watermark.getLastUpdatedAt());
+    }
+
+    private Signalement createSignalement(String description) {
+        SignalementStatus status = signalementStatusRepository.findByCode("NOUVEAU")
+                .orElseThrow(() -> new IllegalStateException("Status NOUVEAU absent (DataInitializer)"));
+        Entreprise entreprise = entrepriseRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Aucune entreprise (DataInitializer)"));
+
+        Signalement signalement = signalementRepository.save(Signalement.builder()
+                .user(user)
+                .status(status)
+                .entreprise(entreprise)
+                .description(description)
+                .latitude(BigDecimal.valueOf(-18.91))
+                .longitude(BigDecimal.valueOf(47.52))
+                .budget(BigDecimal.valueOf(1000))
+                .surface(BigDecimal.valueOf(10))
+                .build());
+        created.add(signalement.getId());
+        return signalement;
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,57 @@
+package mg.projetfinal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La passerelle en mémoire doit se comporter comme Firestore et Firebase
+ * Auth sur les cas dont dépend la synchronisation
+ */
+class InMemoryFirestoreGatewayTest {
+
+    private final InMemoryFirestoreGateway gateway = new InMemoryFirestoreGateway(0, 0, 0);
+
+    @Test
+    void mergeUpdatesExistingDocument() throws Exception {
+        gateway.write(FirestoreGateway.DocumentWrite.set("signalements", "1",
+                Map.of("description", "Nid de poule", "budget", 1000.0)));
+
+        gateway.write(FirestoreGateway.DocumentWrite.merge("signalements", "1",
+                Map.of("description", "Nid de poule élargi"), Set.of("budget")));
+
+        assertEquals(Map.of("description", "Nid de poule élargi"), gateway.getDocument("signalements", "1").orElseThrow());
+    }
+
+    @Test
+    void mergeOnDeletedDocumentRejectsWholeBatch() throws Exception {
+        gateway.write(FirestoreGateway.DocumentWrite.set("signalements", "1", Map.of("description", "a")));
+        gateway.write(FirestoreGateway.DocumentWrite.delete("signalements", "1"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> gateway.commit(List.of(
+                FirestoreGateway.DocumentWrite.set("signalements", "2", Map.of("description", "b")),
+                FirestoreGateway.DocumentWrite.merge("signalements", "1", Map.of("description", "c"), Set.of()))));
+
+        assertInstanceOf(FirestoreGateway.MissingDocumentException.class, error.getCause());
+        // Ni document partiel recréé, ni écriture appliquée du lot refusé
+        assertTrue(gateway.getDocument("signalements", "1").isEmpty());
+        assertTrue(gateway.getDocument("signalements", "2").isEmpty());
+    }
+
+    @Test
+    void authImportAcceptsDuplicateEmailsLikeFirebase() throws Exception {
+        Map<Integer, String> errors = gateway.importAuthUsers(List.of(
+                new FirestoreGateway.AuthUserImport("uid-1", "rakoto@example.mg", "Rakoto", "$2a$10$a"),
+                new FirestoreGateway.AuthUserImport("uid-2", "rakoto@example.mg", "Rakoto", "$2a$10$b")));
+
+        // importUsers ne vérifie pas l'unicité des emails : c'est à l'appelant de les écarter
+        assertEquals(Map.of(), errors);
+        assertEquals(2, gateway.countAuthUsers());
+        assertEquals(Map.of("rakoto@example.mg", "uid-1"), gateway.findAuthUidsByEmail(List.of("RAKOTO@example.mg")));
+    }
+}
@@ -0,0 +1,129 @@
+package mg.projetfinal.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+/**
+ * Progression d'un job : le temps restant ne dépend que du push, seul dont
+ * le volume est connu à l'avance. Issue d'un job complet : en échec dès
+ * que le pull ou le push échoue.
+ */
+class SyncJobServiceTest {
+
+    @Test
+    void etaIgnoresPulledDocuments() throws InterruptedException {
+        SyncJobService.SyncJob job = new SyncJobService.SyncJob("job", SyncJobService.JobType.ALL, null, false);
+        FirebaseSyncService.SyncResult pulled = job.getResult().child("fb_to_pg_");
+        for (int i = 0; i < 500; i++) {
+            pulled.incrementSuccess("signalements_updated");
+        }
+        // Pull terminé, push pas encore commencé : aucune estimation
+        assertNull(job.getEtaMs());
+
+        FirebaseSyncService.SyncResult pushed = job.getResult().child("pg_to_fb_");
+        pushed.addExpected("signalements", 100);
+        pushed.incrementSuccess("signalements");
+        pushed.incrementSkipped("signalements");
+        // Débit du push mesuré depuis son démarrage
+        Thread.sleep(5);
+
+        assertEquals(2, job.getPushProcessed());
+        assertEquals(502, job.getProcessed());
+        assertNotNull(job.getEtaMs());
+    }
+
+    @Test
+    void pushCompletedLeavesNothingToEstimate() {
+        SyncJobService.SyncJob job = new SyncJobService.SyncJob("job", SyncJobService.JobType.PUSH, "users", false);
+        job.getResult().addExpected("users", 2);
+        job.getResult().incrementSuccess("users");
+        job.getResult().incrementError("users");
+
+        assertEquals(2, job.getPushProcessed());
+        assertNull(job.getEtaMs());
+    }
+
+    @Test
+    void countersAreGroupedByCollection() {
+        SyncJobService.SyncJob job = new SyncJobService.SyncJob("job", SyncJobService.JobType.PULL, null, false);
+        FirebaseSyncService.SyncResult pulled = job.getResult().child("fb_to_pg_");
+        pulled.incrementSuccess("users_updated");
+        pulled.incrementSuccess("users_kept_local");
+        pulled.incrementSkipped("users_quarantined");
+        pulled.incrementError("users");
+
+        Map<String, Map<String, Integer>> collections = job.getCollections();
+
+        assertEquals(Map.of("fb_to_pg_users", Map.of("processed", 4, "failed", 1)), collections);
+    }
+
+    @Test
+    void fullSyncFailsWhenPullFails() throws InterruptedException {
+        SyncJobService.SyncJob job = runFullSync(false, true);
+
+        assertEquals(SyncJobService.JobState.FAILED, job.getState());
+        assertEquals("pull en échec", job.getErrorMessage());
+    }
+
+    @Test
+    void fullSyncFailsWhenPushFails() throws InterruptedException {
+        SyncJobService.SyncJob job = runFullSync(true, false);
+
+        assertEquals(SyncJobService.JobState.FAILED, job.getState());
+        assertEquals("push en échec", job.getErrorMessage());
+        // Compteurs du push toujours remontés au job
+        assertEquals(Map.of("pg_to_fb_users", Map.of("processed", 1, "failed", 1)), job.getCollections());
+    }
+
+    @Test
+    void fullSyncCompletesWhenBothPhasesSucceed() throws InterruptedException {
+        SyncJobService.SyncJob job = runFullSync(true, true);
+
+        assertEquals(SyncJobService.JobState.COMPLETED, job.getState());
+        assertNull(job.getErrorMessage());
+    }
+
+    /**
+     * Job ALL sur un FirebaseSyncService dont seuls pull et push sont simulés
+     */
+    private static SyncJobService.SyncJob runFullSync(boolean pullSucceeds, boolean pushSucceeds)
+            throws InterruptedException {
+        FirebaseSyncService firebaseSyncService = mock(FirebaseSyncService.class);
+        doCallRealMethod().when(firebaseSyncService).syncAll(anyBoolean(), any());
+        doAnswer(invocation -> {
+            FirebaseSyncService.SyncResult result = invocation.getArgument(1);
+            result.setSuccess(pullSucceeds);
+            result.setErrorMessage(pullSucceeds ? null : "pull en échec");
+            return result;
+        }).when(firebaseSyncService).syncFirebaseToPostgres(anyBoolean(), any());
+        doAnswer(invocation -> {
+            FirebaseSyncService.SyncResult result = invocation.getArgument(0);
+            if (!pushSucceeds) {
+                result.incrementError("users");
+            }
+            result.setSuccess(pushSucceeds);
+            result.setErrorMessage(pushSucceeds ? null : "push en échec");
+            return result;
+        }).when(firebaseSyncService).syncPostgresToFirebase(any(FirebaseSyncService.SyncResult.class));
+
+        SyncJobService syncJobService = new SyncJobService(firebaseSyncService);
+        ReflectionTestUtils.setField(syncJobService, "historySize", 20);
+        syncJobService.start();
+        try {
+            SyncJobService.SyncJob job = syncJobService.startJob(SyncJobService.JobType.ALL, false);
+            for (int i = 0; i < 500 && job.getState() == SyncJobService.JobState.RUNNING; i++) {
+                Thread.sleep(10);
+            }
+            return job;
+        } finally {
+            syncJobService.stop();
+        }
+    }
+}
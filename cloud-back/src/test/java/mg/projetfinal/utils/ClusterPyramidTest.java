@@ -0,0 +1,155 @@
+package mg.projetfinal.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La pyramide tenue à jour point par point doit donner les mêmes groupes
+ * qu'une pyramide reconstruite à partir de l'état final des points.
+ */
+class ClusterPyramidTest {
+
+    // Antananarivo
+    private static final double CENTER_LATITUDE = -18.8792;
+    private static final double CENTER_LONGITUDE = 47.5079;
+    private static final int MIN_ZOOM = 0;
+    private static final int MAX_ZOOM = 15;
+    private static final int CELL_PIXELS = 64;
+    private static final String[] STATUSES = {"NOUVEAU", "EN_COURS", "TERMINE"};
+
+    private final Random random = new Random(42);
+    private final Map<Long, ClusterPyramid.Point> points = new HashMap<>();
+    private ClusterPyramid pyramid;
+
+    @BeforeEach
+    void setUp() {
+        pyramid = new ClusterPyramid(MIN_ZOOM, MAX_ZOOM, CELL_PIXELS);
+        for (long id = 1; id <= 5000; id++) {
+            put(id, randomLatitude(), randomLongitude(), randomStatus());
+        }
+    }
+
+    @Test
+    void incrementalUpdatesMatchRebuild() {
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(6000);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    pyramid.remove(id);
+                    points.remove(id);
+                }
+                // Changement de statut seul
+                case 1 -> {
+                    ClusterPyramid.Point point = points.get(id);
+                    if (point != null) {
+                        put(id, point.latitude(), point.longitude(), randomStatus());
+                    }
+                }
+                default -> put(id, randomLatitude(), randomLongitude(), randomStatus());
+            }
+        }
+
+        ClusterPyramid rebuilt = new ClusterPyramid(MIN_ZOOM, MAX_ZOOM, CELL_PIXELS);
+        points.values().forEach(point -> rebuilt.put(point.id(), point.latitude(), point.longitude(), point.status()));
+
+        assertEquals(points.size(), pyramid.size());
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            assertSameClusters(rebuilt, -85, -180, 85, 180, zoom);
+            for (int i = 0; i < 10; i++) {
+                double latitude = randomLatitude();
+                double longitude = randomLongitude();
+                assertSameClusters(rebuilt, latitude, longitude, latitude + random.nextDouble() * 0.1,
+                        longitude + random.nextDouble() * 0.1, zoom);
+            }
+        }
+    }
+
+    @Test
+    void clustersCoverEveryPoint() {
+        for (int zoom = MIN_ZOOM; zoom <= MAX_ZOOM; zoom++) {
+            List<ClusterPyramid.Cluster> clusters = pyramid.clusters(-85, -180, 85, 180, zoom);
+            assertEquals(points.size(), clusters.stream().mapToInt(ClusterPyramid.Cluster::count).sum());
+            Map<String, Integer> statuses = new HashMap<>();
+            clusters.forEach(cluster -> cluster.statuses()
+                    .forEach((status, count) -> statuses.merge(status, count, Integer::sum)));
+            Map<String, Integer> expected = new HashMap<>();
+            points.values().forEach(point -> expected.merge(point.status(), 1, Integer::sum));
+            assertEquals(expected, statuses);
+        }
+    }
+
+    @Test
+    void isolatedPointKeepsItsIdentity() {
+        put(10_001, 10, 10, "NOUVEAU");
+        put(10_002, 10.5, 10.5, "EN_COURS");
+        pyramid.remove(10_002);
+        points.remove(10_002L);
+
+        List<ClusterPyramid.Cluster> clusters = pyramid.clusters(9, 9, 11, 11, 0);
+
+        assertEquals(1, clusters.size());
+        assertEquals(10_001L, clusters.get(0).id());
+        assertEquals(10.0, clusters.get(0).latitude());
+        assertEquals(Map.of("NOUVEAU", 1), clusters.get(0).statuses());
+    }
+
+    @Test
+    void antimeridianIsHandled() {
+        put(10_001, 0, 179.9, "NOUVEAU");
+        put(10_002, 0, -179.9, "TERMINE");
+
+        List<ClusterPyramid.Cluster> clusters = pyramid.clusters(-1, 179, 1, -179, 10);
+
+        assertEquals(Set.of(10_001L, 10_002L),
+                clusters.stream().map(ClusterPyramid.Cluster::id).collect(Collectors.toSet()));
+    }
+
+    private void put(long id, double latitude, double longitude, String status) {
+        points.put(id, new ClusterPyramid.Point(id, latitude, longitude, status));
+        pyramid.put(id, latitude, longitude, status);
+    }
+
+    private void assertSameClusters(ClusterPyramid rebuilt, double minLatitude, double minLongitude,
+                                    double maxLatitude, double maxLongitude, int zoom) {
+        List<ClusterPyramid.Cluster> expected =
+                sorted(rebuilt.clusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom));
+        List<ClusterPyramid.Cluster> actual =
+                sorted(pyramid.clusters(minLatitude, minLongitude, maxLatitude, maxLongitude, zoom));
+        assertEquals(expected.size(), actual.size(), "zoom " + zoom);
+        for (int i = 0; i < expected.size(); i++) {
+            ClusterPyramid.Cluster want = expected.get(i);
+            ClusterPyramid.Cluster got = actual.get(i);
+            assertEquals(want.id(), got.id(), "zoom " + zoom);
+            assertEquals(want.count(), got.count(), "zoom " + zoom);
+            assertEquals(want.statuses(), got.statuses(), "zoom " + zoom);
+            // Sommes de coordonnées accumulées dans un ordre différent
+            assertEquals(want.latitude(), got.latitude(), 1e-9, "zoom " + zoom);
+            assertEquals(want.longitude(), got.longitude(), 1e-9, "zoom " + zoom);
+        }
+    }
+
+    private static List<ClusterPyramid.Cluster> sorted(List<ClusterPyramid.Cluster> clusters) {
+        List<ClusterPyramid.Cluster> copy = new ArrayList<>(clusters);
+        copy.sort(Comparator.comparingInt(ClusterPyramid.Cluster::count)
+                .thenComparing(ClusterPyramid.Cluster::latitude)
+                .thenComparing(ClusterPyramid.Cluster::longitude));
+        return copy;
+    }
+
+    private double randomLatitude() {
+        return CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.4;
+    }
+
+    private double randomLongitude() {
+        return CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.4;
+    }
+
+    private String randomStatus() {
+        return STATUSES[random.nextInt(STATUSES.length)];
+    }
+}
@@ -0,0 +1,145 @@
+package mg.projetfinal.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * L'index doit renvoyer exactement ce que renvoie le parcours exhaustif
+ * (haversine sur tous les points) utilisé jusqu'ici par findByLocation.
+ */
+class SpatialGridIndexTest {
+
+    // Antananarivo
+    private static final double CENTER_LATITUDE = -18.8792;
+    private static final double CENTER_LONGITUDE = 47.5079;
+
+    private final Random random = new Random(42);
+    private final Map<Long, double[]> points = new HashMap<>();
+    private SpatialGridIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SpatialGridIndex(0.01);
+        for (long id = 1; id <= 5000; id++) {
+            put(id, CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.4,
+                    CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.4);
+        }
+    }
+
+    @Test
+    void radiusQueriesMatchBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            double latitude = CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.5;
+            double longitude = CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.5;
+            double radiusKm = random.nextDouble() * 10;
+            assertRadiusMatches(latitude, longitude, radiusKm);
+        }
+        // Rayon couvrant toute la zone
+        assertRadiusMatches(CENTER_LATITUDE, CENTER_LONGITUDE, 500);
+        assertRadiusMatches(CENTER_LATITUDE, CENTER_LONGITUDE, 0);
+    }
+
+    @Test
+    void radiusResultsAreOrderedByDistance() {
+        long[] ids = index.withinRadius(CENTER_LATITUDE, CENTER_LONGITUDE, 3);
+        double previous = -1;
+        for (long id : ids) {
+            double distance = distance(CENTER_LATITUDE, CENTER_LONGITUDE, points.get(id));
+            assertTrue(distance >= previous);
+            previous = distance;
+        }
+    }
+
+    @Test
+    void boxQueriesMatchBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            double latitude = CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.5;
+            double longitude = CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.5;
+            double height = random.nextDouble() * 0.1;
+            double width = random.nextDouble() * 0.1;
+            assertBoxMatches(latitude, longitude, latitude + height, longitude + width);
+        }
+    }
+
+    @Test
+    void updatesAndRemovalsAreReflected() {
+        for (long id = 1; id <= 1000; id++) {
+            if (id % 3 == 0) {
+                index.remove(id);
+                points.remove(id);
+            } else if (id % 3 == 1) {
+                put(id, CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.4,
+                        CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.4);
+            }
+        }
+        // Emplacements libérés réutilisés
+        for (long id = 6000; id < 6300; id++) {
+            put(id, CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.4,
+                    CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.4);
+        }
+
+        assertEquals(points.size(), index.size());
+        for (int i = 0; i < 100; i++) {
+            assertRadiusMatches(CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.4,
+                    CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.4, random.nextDouble() * 5);
+        }
+        assertFalse(index.remove(3));
+    }
+
+    @Test
+    void antimeridianAndPolesAreHandled() {
+        put(10_001, 0, 179.99);
+        put(10_002, 0, -179.99);
+        put(10_003, 89.99, 10);
+        put(10_004, 89.99, -170);
+
+        assertRadiusMatches(0, 180, 5);
+        assertRadiusMatches(0, -179.995, 3);
+        assertRadiusMatches(89.9, 0, 50);
+        assertBoxMatches(-1, 179, 1, -179);
+        assertEquals(Set.of(10_001L, 10_002L), toSet(index.withinBox(-1, 179, 1, -179)));
+    }
+
+    private void put(long id, double latitude, double longitude) {
+        points.put(id, new double[]{latitude, longitude});
+        index.put(id, latitude, longitude);
+    }
+
+    private void assertRadiusMatches(double latitude, double longitude, double radiusKm) {
+        Set<Long> expected = points.entrySet().stream()
+                .filter(entry -> distance(latitude, longitude, entry.getValue()) <= radiusKm)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        long[] actual = index.withinRadius(latitude, longitude, radiusKm);
+        assertEquals(expected.size(), actual.length, "doublons ou points manquants");
+        assertEquals(expected, toSet(actual));
+    }
+
+    private void assertBoxMatches(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        Set<Long> expected = points.entrySet().stream()
+                .filter(entry -> {
+                    double latitude = entry.getValue()[0];
+                    double longitude = entry.getValue()[1];
+                    boolean inLongitude = minLongitude <= maxLongitude ?
+                            longitude >= minLongitude && longitude <= maxLongitude :
+                            longitude >= minLongitude || longitude <= maxLongitude;
+                    return latitude >= minLatitude && latitude <= maxLatitude && inLongitude;
+                })
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        assertEquals(expected, toSet(index.withinBox(minLatitude, minLongitude, maxLatitude, maxLongitude)));
+    }
+
+    private static double distance(double latitude, double longitude, double[] point) {
+        return GeoUtils.distanceKm(latitude, longitude, point[0], point[1]);
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,148 @@
+package mg.projetfinal.utils;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseException;
+import mg.projetfinal.enums.SyncFailureKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static mg.projetfinal.enums.SyncFailureKind.PERMANENT;
+import static mg.projetfinal.enums.SyncFailureKind.TRANSIENT;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Une erreur classée permanente envoie l'entrée directement en quarantaine
+ * (DEAD_LETTER) : seules les erreurs qui se reproduiront à l'identique
+ * doivent l'être.
+ */
+class SyncFailuresTest {
+
+    static Stream<Arguments> grpcCodes() {
+        return Stream.of(
+                Arguments.of(StatusCode.Code.INVALID_ARGUMENT, PERMANENT),
+                Arguments.of(StatusCode.Code.FAILED_PRECONDITION, PERMANENT),
+                Arguments.of(StatusCode.Code.NOT_FOUND, PERMANENT),
+                Arguments.of(StatusCode.Code.ALREADY_EXISTS, PERMANENT),
+                Arguments.of(StatusCode.Code.PERMISSION_DENIED, PERMANENT),
+                Arguments.of(StatusCode.Code.OUT_OF_RANGE, PERMANENT),
+                Arguments.of(StatusCode.Code.UNIMPLEMENTED, PERMANENT),
+                Arguments.of(StatusCode.Code.UNAVAILABLE, TRANSIENT),
+                Arguments.of(StatusCode.Code.DEADLINE_EXCEEDED, TRANSIENT),
+                Arguments.of(StatusCode.Code.RESOURCE_EXHAUSTED, TRANSIENT),
+                Arguments.of(StatusCode.Code.ABORTED, TRANSIENT),
+                Arguments.of(StatusCode.Code.INTERNAL, TRANSIENT),
+                Arguments.of(StatusCode.Code.UNKNOWN, TRANSIENT),
+                Arguments.of(StatusCode.Code.CANCELLED, TRANSIENT),
+                Arguments.of(StatusCode.Code.UNAUTHENTICATED, TRANSIENT),
+                Arguments.of(StatusCode.Code.DATA_LOSS, TRANSIENT));
+    }
+
+    @ParameterizedTest
+    @MethodSource("grpcCodes")
+    void classifiesFirestoreGrpcCodes(StatusCode.Code code, SyncFailureKind expected) {
+        ApiException error = new ApiException(new IOException("rpc"), statusCode(code), false);
+
+        assertEquals(expected, SyncFailures.classify(error));
+        // Erreur remontée par un ApiFuture
+        assertEquals(expected, SyncFailures.classify(new ExecutionException(error)));
+    }
+
+    static Stream<Arguments> firebaseCodes() {
+        return Stream.of(
+                Arguments.of(ErrorCode.INVALID_ARGUMENT, PERMANENT),
+                Arguments.of(ErrorCode.FAILED_PRECONDITION, PERMANENT),
+                Arguments.of(ErrorCode.NOT_FOUND, PERMANENT),
+                Arguments.of(ErrorCode.ALREADY_EXISTS, PERMANENT),
+                Arguments.of(ErrorCode.CONFLICT, PERMANENT),
+                Arguments.of(ErrorCode.PERMISSION_DENIED, PERMANENT),
+                Arguments.of(ErrorCode.OUT_OF_RANGE, PERMANENT),
+                Arguments.of(ErrorCode.UNAVAILABLE, TRANSIENT),
+                Arguments.of(ErrorCode.DEADLINE_EXCEEDED, TRANSIENT),
+                Arguments.of(ErrorCode.RESOURCE_EXHAUSTED, TRANSIENT),
+                Arguments.of(ErrorCode.ABORTED, TRANSIENT),
+                Arguments.of(ErrorCode.INTERNAL, TRANSIENT),
+                Arguments.of(ErrorCode.UNKNOWN, TRANSIENT),
+                Arguments.of(ErrorCode.CANCELLED, TRANSIENT),
+                Arguments.of(ErrorCode.UNAUTHENTICATED, TRANSIENT),
+                Arguments.of(ErrorCode.DATA_LOSS, TRANSIENT));
+    }
+
+    @ParameterizedTest
+    @MethodSource("firebaseCodes")
+    void classifiesFirebaseErrorCodes(ErrorCode code, SyncFailureKind expected) {
+        FirebaseException error = new FirebaseException(code, "firebase", null);
+
+        assertEquals(expected, SyncFailures.classify(error));
+        assertEquals(expected, SyncFailures.classify(new CompletionException(error)));
+    }
+
+    static Stream<Arguments> exceptions() {
+        return Stream.of(
+                // Données : le même contenu échouera de la même façon
+                Arguments.of(new NullPointerException(), PERMANENT),
+                Arguments.of(new ClassCastException("Long → String"), PERMANENT),
+                Arguments.of(new IllegalArgumentException("statut inconnu"), PERMANENT),
+                Arguments.of(new NumberFormatException("abc"), PERMANENT),
+                Arguments.of(new NoSuchElementException(), PERMANENT),
+                Arguments.of(new ArithmeticException(), PERMANENT),
+                Arguments.of(new IndexOutOfBoundsException(), PERMANENT),
+                Arguments.of(new DataIntegrityViolationException("doublon"), PERMANENT),
+                Arguments.of(new SyncFailures.PermanentSyncException("refusé"), PERMANENT),
+                // Réseau, délai, état passager : nouvelle tentative
+                Arguments.of(new IOException("connexion perdue"), TRANSIENT),
+                Arguments.of(new SocketTimeoutException(), TRANSIENT),
+                Arguments.of(new TimeoutException(), TRANSIENT),
+                Arguments.of(new InterruptedException(), TRANSIENT),
+                Arguments.of(new IllegalStateException("transaction"), TRANSIENT),
+                Arguments.of(new RuntimeException(), TRANSIENT));
+    }
+
+    @ParameterizedTest
+    @MethodSource("exceptions")
+    void classifiesExceptions(Throwable error, SyncFailureKind expected) {
+        assertEquals(expected, SyncFailures.classify(error));
+        assertEquals(expected, SyncFailures.classify(new ExecutionException(new CompletionException(error))));
+    }
+
+    @Test
+    void onlyExecutionWrappersAreUnwrapped() {
+        // La cause d'une exception quelconque n'est pas consultée
+        assertEquals(TRANSIENT, SyncFailures.classify(new RuntimeException(new IllegalArgumentException())));
+        assertEquals(TRANSIENT, SyncFailures.classify(new ExecutionException("interrompu", null)));
+        assertTrue(SyncFailures.isPermanent(new ExecutionException(new NullPointerException())));
+    }
+
+    @Test
+    void messageFallsBackToExceptionType() {
+        assertEquals("statut inconnu",
+                SyncFailures.message(new ExecutionException(new IllegalArgumentException("statut inconnu"))));
+        assertEquals("NullPointerException", SyncFailures.message(new CompletionException(new NullPointerException())));
+    }
+
+    private static StatusCode statusCode(StatusCode.Code code) {
+        return new StatusCode() {
+            @Override
+            public Code getCode() {
+                return code;
+            }
+
+            @Override
+            public Object getTransportCode() {
+                return code.name();
+            }
+        };
+    }
+}
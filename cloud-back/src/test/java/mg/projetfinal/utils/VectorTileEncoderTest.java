@@ -0,0 +1,205 @@
+package mg.projetfinal.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La tuile produite est relue par un décodeur protobuf minimal : numéros de
+ * champ de la spécification MVT 2.1, géométrie en zigzag, tables de clés et
+ * de valeurs partagées, étendue.
+ */
+class VectorTileEncoderTest {
+
+    private static final String LAYER = "signalements";
+
+    @Test
+    void layerCarriesVersionNameTablesAndExtent() {
+        VectorTileEncoder encoder = new VectorTileEncoder(4096);
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("statut", "NOUVEAU");
+        first.put("budget", 1500.5);
+        first.put("nombre", 3);
+        first.put("delta", -2L);
+        first.put("urgent", true);
+        encoder.addPoint(7L, 10, 20, first);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("statut", "NOUVEAU");
+        second.put("nombre", 3L);
+        encoder.addPoint(8L, -5, 4100, second);
+
+        Message tile = Message.parse(encoder.encode(LAYER));
+        assertEquals(Set.of(3), tile.fieldNumbers());
+        Message layer = tile.message(3);
+
+        assertEquals(Set.of(1, 2, 3, 4, 5, 15), layer.fieldNumbers());
+        assertEquals(2L, layer.varint(15));
+        assertEquals(LAYER, layer.string(1));
+        assertEquals(4096L, layer.varint(5));
+        assertEquals(List.of("statut", "budget", "nombre", "delta", "urgent"),
+                layer.all(3).stream().map(Message::utf8).toList());
+
+        // Une valeur par entrée de table, entiers Integer et Long confondus
+        List<Message> values = layer.all(4).stream().map(bytes -> Message.parse((byte[]) bytes)).toList();
+        assertEquals(5, values.size());
+        assertEquals("NOUVEAU", values.get(0).string(1));
+        assertEquals(1500.5, Double.longBitsToDouble(values.get(1).fixed64(3)));
+        assertEquals(3L, values.get(2).varint(5));
+        assertEquals(-2L, unZigZag(values.get(3).varint(6)));
+        assertEquals(1L, values.get(4).varint(7));
+    }
+
+    @Test
+    void featuresReferenceTablesAndEncodeZigZagGeometry() {
+        VectorTileEncoder encoder = new VectorTileEncoder(4096);
+        encoder.addPoint(7L, 10, 20, Map.of("statut", "NOUVEAU"));
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("statut", "EN_COURS");
+        properties.put("budget", 1500.5);
+        encoder.addPoint(8L, -5, 4100, properties);
+
+        List<Message> features = Message.parse(encoder.encode(LAYER)).message(3).all(2).stream()
+                .map(bytes -> Message.parse((byte[]) bytes)).toList();
+        assertEquals(2, features.size());
+
+        Message first = features.get(0);
+        assertEquals(Set.of(1, 2, 3, 4), first.fieldNumbers());
+        assertEquals(7L, first.varint(1));
+        assertEquals(List.of(0L, 0L), first.packed(2));
+        assertEquals(1L, first.varint(3));
+        // MoveTo (1) répété une fois : (1 << 3) | 1
+        assertEquals(List.of(9L, 20L, 40L), first.packed(4));
+
+        Message second = features.get(1);
+        assertEquals(8L, second.varint(1));
+        assertEquals(List.of(0L, 1L, 1L, 2L), second.packed(2));
+        List<Long> geometry = second.packed(4);
+        assertEquals(9L, geometry.get(0));
+        // Hors tuile (marge) : coordonnées négatives ou au-delà de l'étendue
+        assertEquals(-5L, unZigZag(geometry.get(1)));
+        assertEquals(4100L, unZigZag(geometry.get(2)));
+    }
+
+    @Test
+    void featureWithoutIdOrPropertiesOmitsThoseFields() {
+        VectorTileEncoder encoder = new VectorTileEncoder(512);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("statut", null);
+        encoder.addPoint(null, 0, 0, properties);
+
+        Message layer = Message.parse(encoder.encode(LAYER)).message(3);
+        Message feature = Message.parse((byte[]) layer.all(2).get(0));
+
+        assertEquals(Set.of(3, 4), feature.fieldNumbers());
+        assertEquals(List.of(9L, 0L, 0L), feature.packed(4));
+        assertEquals(Set.of(1, 2, 5, 15), layer.fieldNumbers());
+        assertEquals(512L, layer.varint(5));
+    }
+
+    @Test
+    void emptyTileHasNoBytes() {
+        VectorTileEncoder encoder = new VectorTileEncoder(4096);
+
+        assertTrue(encoder.isEmpty());
+        assertEquals(0, encoder.encode(LAYER).length);
+        assertThrows(IllegalArgumentException.class, () -> new VectorTileEncoder(0));
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Message protobuf décodé : valeurs de chaque champ dans l'ordre de
+     * lecture (Long pour varint et fixed64, byte[] pour les champs délimités)
+     */
+    private record Message(Map<Integer, List<Object>> fields) {
+
+        static Message parse(byte[] data) {
+            Map<Integer, List<Object>> fields = new LinkedHashMap<>();
+            int[] position = {0};
+            while (position[0] < data.length) {
+                long key = readVarint(data, position);
+                int field = (int) (key >>> 3);
+                int wireType = (int) (key & 0x7);
+                Object value = switch (wireType) {
+                    case 0 -> readVarint(data, position);
+                    case 1 -> {
+                        long bits = 0;
+                        for (int i = 0; i < 8; i++) {
+                            bits |= (data[position[0]++] & 0xFFL) << (8 * i);
+                        }
+                        yield bits;
+                    }
+                    case 2 -> {
+                        int length = (int) readVarint(data, position);
+                        byte[] bytes = Arrays.copyOfRange(data, position[0], position[0] + length);
+                        position[0] += length;
+                        yield bytes;
+                    }
+                    default -> throw new IllegalStateException("Type de champ inattendu: " + wireType);
+                };
+                fields.computeIfAbsent(field, f -> new ArrayList<>()).add(value);
+            }
+            return new Message(fields);
+        }
+
+        static long readVarint(byte[] data, int[] position) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte current = data[position[0]++];
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        static String utf8(Object bytes) {
+            return new String((byte[]) bytes, StandardCharsets.UTF_8);
+        }
+
+        Set<Integer> fieldNumbers() {
+            return fields.keySet();
+        }
+
+        List<Object> all(int field) {
+            return fields.getOrDefault(field, List.of());
+        }
+
+        private Object single(int field) {
+            List<Object> values = all(field);
+            assertEquals(1, values.size(), "champ " + field);
+            return values.get(0);
+        }
+
+        long varint(int field) {
+            return (Long) single(field);
+        }
+
+        long fixed64(int field) {
+            return (Long) single(field);
+        }
+
+        String string(int field) {
+            return utf8(single(field));
+        }
+
+        Message message(int field) {
+            return parse((byte[]) single(field));
+        }
+
+        List<Long> packed(int field) {
+            byte[] data = (byte[]) single(field);
+            List<Long> values = new ArrayList<>();
+            int[] position = {0};
+            while (position[0] < data.length) {
+                values.add(readVarint(data, position));
+            }
+            return values;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import {
   deleteDoc,
   query,
   where,
+  increment,
   Timestamp
 } from 'firebase/firestore';
 import firebaseService from './firebase.service';
@@ -131,6 +132,7 @@ class FirebaseSignalementsService {
       firebaseData.createdAt = Timestamp.now();
       firebaseData.updatedAt = Timestamp.now();
       firebaseData.syncedAt = Timestamp.now();
+      firebaseData.version = 1;
 
       console.log('📤 Données Firebase à envoyer:', firebaseData);
       console.log('🔑 Document ID:', docId);
@@ -241,6 +243,8 @@ class FirebaseSignalementsService {
 
       updateData.updatedAt = Timestamp.now();
       updateData.syncedAt = Timestamp.now();
+      // Le serveur détecte les modifications à la version du document
+      updateData.version = increment(1);
 
       await updateDoc(docRef, updateData);
 
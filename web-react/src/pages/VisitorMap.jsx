@@ -54,6 +54,18 @@ const createCustomIcon = (color, icon) => {
   });
 };
 
+// Icône du marqueur d'après le code de statut (NOUVEAU, EN_COURS, TERMINE)
+const getMarkerIcon = (status) => {
+  switch ((status || '').toUpperCase()) {
+    case 'TERMINE':
+      return '✓';
+    case 'EN_COURS':
+      return '🚧';
+    default:
+      return '!';
+  }
+};
+
 const MAP_URL = import.meta.env.VITE_MAP_SERVER_URL;
 
 // Component to handle map center changes
@@ -71,6 +83,8 @@ const MapController = ({ center, zoom }) => {
 
 const VisitorMap = () => {
   const [roadIssues, setRoadIssues] = useState([]);
+  const [statistics, setStatistics] = useState(null);
+  const [details, setDetails] = useState({});
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [photoModalOpen, setPhotoModalOpen] = useState(false);
@@ -88,8 +102,13 @@ const VisitorMap = () => {
     try {
       setLoading(true);
       setError(null);
-      const data = await signalementApiService.getSignalementsForMap();
+      const [data, statisticsData] = await Promise.all([
+        signalementApiService.getSignalementsForMap(),
+        signalementApiService.getStatistics()
+      ]);
       setRoadIssues(data);
+      setStatistics(statisticsData);
+      setDetails({});
     } catch (error) {
       console.error('Erreur lors du chargement des signalements:', error);
       setError(error.message || 'Impossible de charger les signalements');
@@ -98,6 +117,21 @@ const VisitorMap = () => {
     }
   };
 
+  // Les marqueurs sont allégés : le détail (date, surface, budget, entreprise) est chargé au survol
+  const loadDetails = async (id) => {
+    if (details[id]) {
+      return;
+    }
+    try {
+      const data = await signalementApiService.getSignalementById(id);
+      if (data) {
+        setDetails((previous) => ({ ...previous, [id]: data }));
+      }
+    } catch (error) {
+      console.error(`Erreur lors du chargement du signalement ${id}:`, error);
+    }
+  };
+
   const getStatusColor = (status) => {
     switch (status.toLowerCase()) {
       case 'nouveau':
@@ -146,8 +180,8 @@ const VisitorMap = () => {
   // Calcul des statistiques
   const stats = {
     totalPoints: roadIssues.length,
-    totalSurface: roadIssues.reduce((sum, issue) => sum + (issue.surface || 0), 0),
-    totalBudget: roadIssues.reduce((sum, issue) => sum + (issue.budget || 0), 0),
+    totalSurface: statistics?.totalSurface || 0,
+    totalBudget: Number(statistics?.totalBudget || 0),
     completed: roadIssues.filter(s => s.status.toLowerCase().includes('termin')).length,
   };
 
@@ -297,11 +331,16 @@ const VisitorMap = () => {
                 url={MAP_URL}
               />
 
-              {roadIssues.map((issue) => (
+              {roadIssues.map((issue) => {
+                const detail = details[issue.id];
+                return (
                 <Marker
                   key={issue.id}
-                  position={[issue.coordinates.lat, issue.coordinates.lng]}
-                  icon={createCustomIcon(issue.color, issue.icon)}
+                  position={[issue.lat, issue.lng]}
+                  icon={createCustomIcon(issue.color, getMarkerIcon(issue.status))}
+                  eventHandlers={{
+                    mouseover: () => loadDetails(issue.id)
+                  }}
                 >
                   <Tooltip permanent={false} direction="top" offset={[0, -20]}>
                     <div className="min-w-[280px] p-1">
@@ -310,14 +349,6 @@ const VisitorMap = () => {
                       </h3>
                       
                       <div className="space-y-2">
-                        {/* Date */}
-                        <div className="flex items-center gap-2 text-sm">
-                          <Calendar className="w-4 h-4 text-gray-500 flex-shrink-0" />
-                          <span className="text-gray-700">
-                            <span className="font-medium">Date:</span> {issue.date}
-                          </span>
-                        </div>
-
                         {/* Statut */}
                         <div className="flex items-center gap-2 text-sm">
                           {getStatusIcon(issue.status)}
@@ -329,40 +360,56 @@ const VisitorMap = () => {
                           </span>
                         </div>
 
-                        {/* Surface */}
-                        <div className="flex items-center gap-2 text-sm">
-                          <TrendingUp className="w-4 h-4 text-gray-500 flex-shrink-0" />
-                          <span className="text-gray-700">
-                            <span className="font-medium">Surface:</span> {issue.surface} m²
-                          </span>
-                        </div>
+                        {!detail && (
+                          <p className="text-xs text-gray-500">Chargement du détail...</p>
+                        )}
 
-                        {/* Budget */}
-                        <div className="flex items-center gap-2 text-sm">
-                          <DollarSign className="w-4 h-4 text-gray-500 flex-shrink-0" />
-                          <span className="text-gray-700">
-                            <span className="font-medium">Budget:</span>{' '}
-                            {(issue.budget / 1000).toLocaleString()} kAr
-                          </span>
-                        </div>
+                        {detail && (
+                          <>
+                          {/* Date */}
+                          <div className="flex items-center gap-2 text-sm">
+                            <Calendar className="w-4 h-4 text-gray-500 flex-shrink-0" />
+                            <span className="text-gray-700">
+                              <span className="font-medium">Date:</span> {detail.date}
+                            </span>
+                          </div>
 
-                        {/* Entreprise */}
-                        <div className="flex items-center gap-2 text-sm">
-                          <Wrench className="w-4 h-4 text-gray-500 flex-shrink-0" />
-                          <span className="text-gray-700">
-                            <span className="font-medium">Entreprise:</span> {issue.entreprise}
-                          </span>
-                        </div>
-                        
+                          {/* Surface */}
+                          <div className="flex items-center gap-2 text-sm">
+                            <TrendingUp className="w-4 h-4 text-gray-500 flex-shrink-0" />
+                            <span className="text-gray-700">
+                              <span className="font-medium">Surface:</span> {detail.surface} m²
+                            </span>
+                          </div>
+
+                          {/* Budget */}
+                          <div className="flex items-center gap-2 text-sm">
+                            <DollarSign className="w-4 h-4 text-gray-500 flex-shrink-0" />
+                            <span className="text-gray-700">
+                              <span className="font-medium">Budget:</span>{' '}
+                              {(detail.budget / 1000).toLocaleString()} kAr
+                            </span>
+                          </div>
 
-                        {/* Niveau */}
-                        {issue.niveau && (
+                          {/* Entreprise */}
                           <div className="flex items-center gap-2 text-sm">
-                            <AlertCircle className="w-4 h-4 text-gray-500 flex-shrink-0" />
+                            <Wrench className="w-4 h-4 text-gray-500 flex-shrink-0" />
                             <span className="text-gray-700">
-                              <span className="font-medium">Niveau:</span> {issue.niveau}
+                              <span className="font-medium">Entreprise:</span> {detail.entreprise}
                             </span>
                           </div>
+
+
+                          {/* Niveau */}
+                          {detail.niveau && (
+                            <div className="flex items-center gap-2 text-sm">
+                              <AlertCircle className="w-4 h-4 text-gray-500 flex-shrink-0" />
+                              <span className="text-gray-700">
+                                <span className="font-medium">Niveau:</span> {detail.niveau}
+                              </span>
+                            </div>
+                          )}
+                          </>
                         )}
 
                         {/* Lien photos */}
@@ -379,7 +426,8 @@ const VisitorMap = () => {
                     </div>
                   </Tooltip>
                 </Marker>
-              ))}
+                );
+              })}
             </MapContainer>
           </div>
 
@@ -50,6 +50,18 @@ const createCustomIcon = (color, icon) => {
   });
 };
 
+// Icône du marqueur d'après le code de statut (NOUVEAU, EN_COURS, TERMINE)
+const getMarkerIcon = (status) => {
+  switch ((status || '').toUpperCase()) {
+    case 'TERMINE':
+      return '✓';
+    case 'EN_COURS':
+      return '🚧';
+    default:
+      return '!';
+  }
+};
+
 const MAP_URL = import.meta.env.VITE_MAP_SERVER_URL;
 
 // Component to handle map center changes
@@ -93,6 +105,16 @@ const Map = () => {
     }
   };
 
+  // Les marqueurs sont allégés : le détail (actions, entreprise, budget) est chargé au clic
+  const selectSignalement = async (id) => {
+    try {
+      const data = await signalementApiService.getSignalementById(id);
+      setSelectedPoint(data);
+    } catch (error) {
+      console.error(`Erreur lors du chargement du signalement ${id}:`, error);
+    }
+  };
+
   const getStatusColor = (status) => {
     switch (status.toLowerCase()) {
       case 'nouveau':
@@ -108,6 +130,21 @@ const Map = () => {
     }
   };
 
+  const getStatusLabel = (status) => {
+    switch (status.toLowerCase()) {
+      case 'nouveau':
+        return 'Nouveau';
+      case 'en cours':
+      case 'en_cours':
+        return 'En cours';
+      case 'terminé':
+      case 'termine':
+        return 'Terminé';
+      default:
+        return status;
+    }
+  };
+
   const getStatusIcon = (status) => {
     switch (status.toLowerCase()) {
       case 'nouveau':
@@ -195,27 +232,19 @@ const Map = () => {
             {roadIssues.map((issue) => (
               <Marker
                 key={issue.id}
-                position={[issue.coordinates.lat, issue.coordinates.lng]}
-                icon={createCustomIcon(issue.color, issue.icon)}
+                position={[issue.lat, issue.lng]}
+                icon={createCustomIcon(issue.color, getMarkerIcon(issue.status))}
                 eventHandlers={{
-                  click: () => setSelectedPoint(issue)
+                  click: () => selectSignalement(issue.id)
                 }}
               >
                 <Popup>
                   <div className="min-w-[200px]">
                     <h3 className="font-bold text-gray-900 mb-2">{issue.title}</h3>
                     <div className="space-y-1 text-sm">
-                      <div className="flex items-center gap-2">
-                        <MapPin className="w-4 h-4 text-gray-500" />
-                        <span className="text-gray-600">{issue.location}</span>
-                      </div>
-                      <div className="flex items-center gap-2">
-                        <Calendar className="w-4 h-4 text-gray-500" />
-                        <span className="text-gray-600">{issue.date}</span>
-                      </div>
                       <div className="flex items-center gap-2">
                         {getStatusIcon(issue.status)}
-                        <span className="text-gray-600">{issue.status}</span>
+                        <span className="text-gray-600">{getStatusLabel(issue.status)}</span>
                       </div>
                     </div>
                   </div>
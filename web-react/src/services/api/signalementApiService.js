@@ -113,8 +113,10 @@ class SignalementApiService {
   }
 
   /**
-   * Récupère les signalements pour la carte
-   * @returns {Promise<Array>}
+   * Récupère les marqueurs de la carte
+   * Correspond à l'endpoint GET /api/signalements/map
+   * @returns {Promise<Array>} SignalementMarkerDTO {id, lat, lng, status, color, title} ;
+   * le détail d'un signalement se lit avec getSignalementById
    */
   async getSignalementsForMap() {
     try {